@@ -0,0 +1,127 @@
+package com.jelly.binary;
+
+import com.jelly.parser.JSONReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owner of documents kept outside the Java heap.
+ * <p>
+ * Documents are parsed token by token into the encoding of {@link BinaryJSON} and copied into direct buffers allocated in large chunks,
+ * only the views handed out and the field names of each document live on the heap. The contents of the documents are therefore
+ * never traced by the garbage collector, which keeps large amounts of resident reference data from prolonging collections.
+ * <p>
+ * Closing the arena releases all of its documents at once, views of them throw {@link IllegalStateException} from then on.
+ * Memory of direct buffers is handed back to the system once the buffers have been collected, which happens as soon as
+ * no view of their documents is reachable anymore.
+ * <p>
+ * Parsing into an arena has to be confined to one thread at a time, views can be read from any number of threads
+ * but must not be used while the arena is being closed.
+ */
+public final class BinaryArena implements AutoCloseable {
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private final int chunkSize;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+
+    private final BinaryEncoder encoder = new BinaryEncoder();
+
+    private long allocated;
+    private long used;
+    private volatile boolean closed;
+
+    public BinaryArena() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize size of the direct buffers documents are allocated from, larger documents get a buffer of their own.
+     */
+    public BinaryArena(final int chunkSize) {
+        if(chunkSize <= 0)
+            throw new IllegalArgumentException("chunkSize must be positive");
+        this.chunkSize = chunkSize;
+    }
+
+    public Object parse(final String source) throws IOException {
+        try(final JSONReader reader = new JSONReader(source)) {
+            return parse(reader);
+        }
+    }
+
+    public Object parse(final File path) throws IOException {
+        try(final JSONReader reader = new JSONReader(path)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Parses the next value of {@code reader} into this arena.
+     *
+     * @return objects and arrays as {@link BinaryJSONObject} and {@link BinaryJSONArray} views of the off-heap document,
+     *         other values as they are.
+     */
+    public Object parse(final JSONReader reader) throws IOException {
+        checkOpen();
+        final int length = encoder.encode(reader);
+
+        final ByteBuffer document = allocate(length);
+        encoder.copyTo(document);
+        used += length;
+        return new BinaryDecoder(document, this).readView();
+    }
+
+    private ByteBuffer allocate(final int length) {
+        if(length > chunkSize / 4) {
+            final ByteBuffer dedicated = ByteBuffer.allocateDirect(length);
+            chunks.add(dedicated);
+            allocated += length;
+            return dedicated;
+        }
+
+        if(current == null || current.remaining() < length) {
+            current = ByteBuffer.allocateDirect(chunkSize);
+            chunks.add(current);
+            allocated += chunkSize;
+        }
+
+        final ByteBuffer document = current.slice(current.position(), length);
+        current.position(current.position() + length);
+        return document;
+    }
+
+    /**
+     * Returns the number of bytes of all direct buffers allocated by this arena.
+     */
+    public long allocatedBytes() {
+        return allocated;
+    }
+
+    /**
+     * Returns the number of bytes taken up by documents.
+     */
+    public long usedBytes() {
+        return used;
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    void checkOpen() {
+        if(closed)
+            throw new IllegalStateException("arena has been closed");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        chunks.clear();
+        current = null;
+    }
+}
@@ -0,0 +1,255 @@
+package com.jelly.binary;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.jelly.binary.BinaryFormat.*;
+
+/**
+ * Reads values from an encoded document, moving the position of its buffer past everything read or skipped.
+ * <p>
+ * The dictionary is decoded and indexed once when the decoder is created, values are decoded straight from the buffer,
+ * which can be a heap buffer as well as a mapped file.
+ */
+final class BinaryDecoder {
+    private final ByteBuffer buffer;
+    private final String[] keys;
+    private final Map<String, Integer> keyIndices;
+
+    /**
+     * Arena the document has been allocated from, {@code null} if it is not owned by one.
+     */
+    private final BinaryArena arena;
+
+    BinaryDecoder(final ByteBuffer document) {
+        this(document, null);
+    }
+
+    BinaryDecoder(final ByteBuffer document, final BinaryArena arena) {
+        buffer = document.slice().order(ByteOrder.BIG_ENDIAN);
+        this.arena = arena;
+
+        try {
+            for(final byte b : MAGIC)
+                if(buffer.get() != b)
+                    throw new MalformedBinaryException("Missing binary JSON header", 0);
+            if(buffer.get() != VERSION)
+                throw new MalformedBinaryException("Unsupported version " + buffer.get(MAGIC.length), MAGIC.length);
+
+            final int dictionaryOffset = buffer.getInt();
+            if(dictionaryOffset < HEADER_SIZE || dictionaryOffset > buffer.limit())
+                throw new MalformedBinaryException("Dictionary offset out of bounds", MAGIC.length + 1);
+
+            buffer.position(dictionaryOffset);
+            keys = new String[readCount()];
+            keyIndices = new HashMap<>(keys.length * 4 / 3 + 1);
+            for(int i = 0; i < keys.length; i++) {
+                keys[i] = readString();
+                keyIndices.putIfAbsent(keys[i], i);
+            }
+
+            buffer.position(HEADER_SIZE);
+        } catch(final BufferUnderflowException | IllegalArgumentException e) {
+            throw new MalformedBinaryException("Truncated document", buffer.position());
+        }
+    }
+
+    /**
+     * Creates a cursor at {@code position} into the same document, sharing its dictionary.
+     */
+    private BinaryDecoder(final BinaryDecoder document, final int position) {
+        buffer = document.buffer.duplicate();
+        buffer.position(position);
+        keys = document.keys;
+        keyIndices = document.keyIndices;
+        arena = document.arena;
+    }
+
+    /**
+     * Creates a cursor at {@code position}, every access of a view starts by creating one.
+     *
+     * @throws IllegalStateException if the arena of the document has been closed.
+     */
+    BinaryDecoder at(final int position) {
+        if(arena != null)
+            arena.checkOpen();
+        return new BinaryDecoder(this, position);
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Returns the dictionary index of {@code key} or {@code -1} if no field of the document has that name.
+     */
+    int keyIndex(final String key) {
+        final Integer index = keyIndices.get(key);
+        return (index == null) ? -1 : index;
+    }
+
+    String key(final int index) {
+        if(index < 0 || index >= keys.length)
+            throw new MalformedBinaryException("Unknown field name index " + index, buffer.position());
+        return keys[index];
+    }
+
+    Object readValue() {
+        try {
+            return doReadValue();
+        } catch(final BufferUnderflowException | IllegalArgumentException e) {
+            throw new MalformedBinaryException("Truncated document", buffer.position());
+        }
+    }
+
+    private Object doReadValue() {
+        final byte tag = buffer.get();
+        return switch(tag) {
+            case NULL -> null;
+            case FALSE -> false;
+            case TRUE -> true;
+            case INTEGER -> readInteger();
+            case FLOAT -> Float.intBitsToFloat(buffer.getInt());
+            case STRING -> readString();
+            case OBJECT -> readJSONObject();
+            case ARRAY -> readJSONArray();
+            default -> throw unknownTag(tag);
+        };
+    }
+
+    private JSONObject readJSONObject() {
+        buffer.getInt();
+
+        final JSONObject jsonObject = new JSONObject();
+        final int count = readCount();
+        for(int i = 0; i < count; i++) {
+            final String fieldName = key(readVarint());
+            jsonObject.set(fieldName, doReadValue());
+        }
+        return jsonObject;
+    }
+
+    private JSONArray readJSONArray() {
+        buffer.getInt();
+
+        final JSONArray jsonArray = new JSONArray();
+        final int count = readCount();
+        for(int i = 0; i < count; i++)
+            jsonArray.add(doReadValue());
+        return jsonArray;
+    }
+
+    /**
+     * Reads the next value, containers are not decoded but returned as views and skipped.
+     */
+    Object readView() {
+        final byte tag = peekTag();
+        if(tag != OBJECT && tag != ARRAY)
+            return readValue();
+
+        final int start = buffer.position();
+        skipValue();
+        return (tag == OBJECT) ? new BinaryJSONObject(this, start) : new BinaryJSONArray(this, start);
+    }
+
+    /**
+     * Steps over the next value without decoding it, containers are skipped in one go using their byte length.
+     */
+    void skipValue() {
+        try {
+            final byte tag = buffer.get();
+            switch(tag) {
+                case NULL, FALSE, TRUE -> { }
+                case INTEGER -> readVarint();
+                case FLOAT -> buffer.position(buffer.position() + Float.BYTES);
+                case STRING -> {
+                    final int length = readVarint();
+                    buffer.position(buffer.position() + length);
+                }
+                case OBJECT, ARRAY -> {
+                    final int length = buffer.getInt();
+                    buffer.position(buffer.position() + length);
+                }
+                default -> throw unknownTag(tag);
+            }
+        } catch(final BufferUnderflowException | IllegalArgumentException e) {
+            throw new MalformedBinaryException("Truncated document", buffer.position());
+        }
+    }
+
+    /**
+     * Consumes the header of the container at the current position.
+     *
+     * @return the number of fields or elements of the container.
+     */
+    int beginContainer(final byte expectedTag) {
+        try {
+            final byte tag = buffer.get();
+            if(tag != expectedTag)
+                throw new MalformedBinaryException("Unexpected tag " + tag + " expected " + expectedTag, buffer.position() - 1);
+            buffer.getInt();
+            return readCount();
+        } catch(final BufferUnderflowException e) {
+            throw new MalformedBinaryException("Truncated document", buffer.position());
+        }
+    }
+
+    byte peekTag() {
+        if(!buffer.hasRemaining())
+            throw new MalformedBinaryException("Truncated document", buffer.position());
+        return buffer.get(buffer.position());
+    }
+
+    int readInteger() {
+        final int zigzag = readVarint();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    int readVarint() {
+        int value = 0;
+        for(int shift = 0; shift < Integer.SIZE; shift += 7) {
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if(b >= 0)
+                return value;
+        }
+        throw new MalformedBinaryException("Malformed varint", buffer.position());
+    }
+
+    /**
+     * Reads the number of dictionary entries, fields or elements that follow, each of which takes at least one byte.
+     */
+    private int readCount() {
+        final int position = buffer.position();
+        final int count = readVarint();
+        if(count < 0 || count > buffer.remaining())
+            throw new MalformedBinaryException("Count " + Integer.toUnsignedString(count) + " exceeds the remaining document", position);
+        return count;
+    }
+
+    String readString() {
+        final int length = readVarint();
+        if(length < 0 || length > buffer.remaining())
+            throw new BufferUnderflowException();
+        if(buffer.hasArray()) {
+            final String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return string;
+        }
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MalformedBinaryException unknownTag(final byte tag) {
+        return new MalformedBinaryException("Unknown tag " + tag, buffer.position() - 1);
+    }
+}
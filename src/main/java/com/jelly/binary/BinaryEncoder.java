@@ -0,0 +1,232 @@
+package com.jelly.binary;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+import com.jelly.lexer.TokenType;
+import com.jelly.parser.JSONReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.jelly.binary.BinaryFormat.*;
+
+/**
+ * Encodes a value into a growing byte array, assigning dictionary indices to field names the first time they are seen.
+ * <p>
+ * An encoder can be reused for any number of documents through {@link #encode(JSONReader)}, keeping its byte array between them.
+ */
+final class BinaryEncoder {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private byte[] buffer = new byte[DEFAULT_CAPACITY];
+    private int size;
+
+    private final Map<String, Integer> keyIndices = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+
+    static byte[] encode(final Object value) {
+        final BinaryEncoder encoder = new BinaryEncoder();
+        encoder.writeHeader();
+        encoder.writeValue(value);
+        encoder.writeDictionary();
+        return Arrays.copyOf(encoder.buffer, encoder.size);
+    }
+
+    /**
+     * Encodes the next value of {@code reader} token by token, without materializing it, replacing the document encoded before.
+     *
+     * @return the length of the encoded document, see {@link #copyTo(ByteBuffer)}.
+     */
+    int encode(final JSONReader reader) throws IOException {
+        size = 0;
+        keys.clear();
+        keyIndices.clear();
+
+        writeHeader();
+        writeValue(reader);
+        writeDictionary();
+        return size;
+    }
+
+    /**
+     * Copies the document encoded last to the start of {@code target}, which must have room for all of it.
+     */
+    void copyTo(final ByteBuffer target) {
+        target.put(0, buffer, 0, size);
+    }
+
+    private void writeHeader() {
+        writeBytes(MAGIC);
+        writeByte(VERSION);
+        writeInt(0);
+    }
+
+    private void writeDictionary() {
+        patchInt(MAGIC.length + 1, size);
+        writeVarint(keys.size());
+        for(final String key : keys)
+            writeString(key);
+    }
+
+    private void writeValue(final Object value) {
+        if(value == null)
+            writeByte(NULL);
+        else if(value instanceof final Boolean booleanValue)
+            writeByte(booleanValue ? TRUE : FALSE);
+        else if(value instanceof final Integer integer) {
+            writeByte(INTEGER);
+            writeVarint((integer << 1) ^ (integer >> 31));
+        } else if(value instanceof final Float floatValue) {
+            writeByte(FLOAT);
+            writeInt(Float.floatToIntBits(floatValue));
+        } else if(value instanceof final String string) {
+            writeByte(STRING);
+            writeString(string);
+        } else if(value instanceof final JSONObject jsonObject)
+            writeJSONObject(jsonObject);
+        else if(value instanceof final JSONArray jsonArray)
+            writeJSONArray(jsonArray);
+        else
+            throw new IllegalArgumentException("invalid type " + value.getClass().getSimpleName() + " for JSON value");
+    }
+
+    private void writeJSONObject(final JSONObject jsonObject) {
+        writeByte(OBJECT);
+        final int lengthPosition = size;
+        writeInt(0);
+
+        writeVarint(jsonObject.size());
+        for(final String fieldName : jsonObject.fieldNames()) {
+            writeVarint(keyIndex(fieldName));
+            writeValue(jsonObject.get(fieldName));
+        }
+
+        patchInt(lengthPosition, size - lengthPosition - Integer.BYTES);
+    }
+
+    private void writeJSONArray(final JSONArray jsonArray) {
+        writeByte(ARRAY);
+        final int lengthPosition = size;
+        writeInt(0);
+
+        writeVarint(jsonArray.size());
+        for(int i = 0; i < jsonArray.size(); i++)
+            writeValue(jsonArray.get(i));
+
+        patchInt(lengthPosition, size - lengthPosition - Integer.BYTES);
+    }
+
+    private void writeValue(final JSONReader reader) throws IOException {
+        final TokenType type = reader.peek();
+        if(type != TokenType.LEFT_CURLY_BRACE && type != TokenType.LEFT_SQUARE_BRACKET) {
+            writeValue(reader.readValue());
+            return;
+        }
+
+        final boolean object = type == TokenType.LEFT_CURLY_BRACE;
+        if(object)
+            reader.beginObject();
+        else
+            reader.beginArray();
+
+        writeByte(object ? OBJECT : ARRAY);
+        final int lengthPosition = size;
+        writeInt(0);
+        final int countPosition = size;
+        writePaddedVarint(0);
+
+        int count = 0;
+        for(; reader.hasNext(); count++) {
+            if(object)
+                writeVarint(keyIndex(reader.nextName()));
+            writeValue(reader);
+        }
+
+        if(object)
+            reader.endObject();
+        else
+            reader.endArray();
+
+        patchPaddedVarint(countPosition, count);
+        patchInt(lengthPosition, size - lengthPosition - Integer.BYTES);
+    }
+
+    private int keyIndex(final String key) {
+        final Integer known = keyIndices.get(key);
+        if(known != null)
+            return known;
+
+        final int index = keys.size();
+        keys.add(key);
+        keyIndices.put(key, index);
+        return index;
+    }
+
+    private void ensureCapacity(final int additional) {
+        if(size + additional <= buffer.length)
+            return;
+        if(size + additional < 0)
+            throw new IllegalArgumentException("encoded document exceeds 2 GiB");
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+    }
+
+    private void writeByte(final byte b) {
+        ensureCapacity(1);
+        buffer[size++] = b;
+    }
+
+    private void writeBytes(final byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void writeInt(final int value) {
+        ensureCapacity(Integer.BYTES);
+        patchInt(size, value);
+        size += Integer.BYTES;
+    }
+
+    private void patchInt(final int position, final int value) {
+        buffer[position] = (byte) (value >>> 24);
+        buffer[position+1] = (byte) (value >>> 16);
+        buffer[position+2] = (byte) (value >>> 8);
+        buffer[position+3] = (byte) value;
+    }
+
+    private void writeVarint(int value) {
+        ensureCapacity(5);
+        while((value & ~0x7F) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Writes a varint taking up its maximum of 5 bytes, so that it can be overwritten once the value is known.
+     */
+    private void writePaddedVarint(final int value) {
+        ensureCapacity(5);
+        patchPaddedVarint(size, value);
+        size += 5;
+    }
+
+    private void patchPaddedVarint(final int position, final int value) {
+        for(int i = 0; i < 4; i++)
+            buffer[position+i] = (byte) (((value >>> (7*i)) & 0x7F) | 0x80);
+        buffer[position+4] = (byte) (value >>> 28);
+    }
+
+    private void writeString(final String string) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        writeBytes(bytes);
+    }
+}
@@ -0,0 +1,34 @@
+package com.jelly.binary;
+
+/**
+ * Layout of the binary encoding.
+ * <pre>
+ * document   := header value dictionary
+ * header     := 'J' 'L' 'B' version:u8 dictionaryOffset:i32
+ * dictionary := count:varint (length:varint utf8-bytes)*
+ * value      := NULL | FALSE | TRUE
+ *             | INTEGER zigzag:varint
+ *             | FLOAT ieee754:i32
+ *             | STRING length:varint utf8-bytes
+ *             | OBJECT byteLength:i32 count:varint (keyIdx:varint value)*
+ *             | ARRAY byteLength:i32 count:varint value*
+ * </pre>
+ * Field names are stored once in the dictionary and referenced by their index. Containers are prefixed with the number of bytes
+ * following the length field, so a reader can step over a whole subtree without looking at it. Fixed-size integers are big-endian.
+ */
+final class BinaryFormat {
+    static final byte[] MAGIC = {'J', 'L', 'B'};
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final byte NULL = 0;
+    static final byte FALSE = 1;
+    static final byte TRUE = 2;
+    static final byte INTEGER = 3;
+    static final byte FLOAT = 4;
+    static final byte STRING = 5;
+    static final byte OBJECT = 6;
+    static final byte ARRAY = 7;
+
+    private BinaryFormat() { }
+}
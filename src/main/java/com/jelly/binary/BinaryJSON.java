@@ -0,0 +1,117 @@
+package com.jelly.binary;
+
+import com.jelly.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Compact binary encoding of the JSON model, meant for persisting parsed documents and loading them again much faster than
+ * parsing their text.
+ * <p>
+ * Field names are stored once per document in a dictionary, integers as variable-length zigzag numbers, strings with their length
+ * and containers with their size in bytes, so decoding never has to scan for a delimiter and can step over subtrees it does not need.
+ * The layout is described in {@link BinaryFormat}. Documents are limited to 2 GiB.
+ */
+public final class BinaryJSON {
+    private BinaryJSON() { }
+
+    /**
+     * Encodes {@code value}, which has to be null, a Boolean, Integer, Float, String, JSONObject or JSONArray.
+     *
+     * @throws IllegalArgumentException if {@code value} or one of its nested values is not a valid JSON value.
+     */
+    public static byte[] encode(final Object value) {
+        return BinaryEncoder.encode(value);
+    }
+
+    public static void encode(final Object value, final OutputStream out) throws IOException {
+        out.write(encode(value));
+    }
+
+    public static void write(final Object value, final File path) throws IOException {
+        try(final OutputStream out = new FileOutputStream(path)) {
+            encode(value, out);
+        }
+    }
+
+    public static Object decode(final byte[] document) {
+        return decode(ByteBuffer.wrap(document));
+    }
+
+    /**
+     * Decodes the document between position and limit of {@code document} without changing its position.
+     *
+     * @throws MalformedBinaryException if {@code document} has not been written by {@link #encode(Object)} or is truncated.
+     */
+    public static Object decode(final ByteBuffer document) {
+        return new BinaryDecoder(document).readValue();
+    }
+
+    /**
+     * Decodes a document written by {@link #write(Object, File)} by mapping the file into memory instead of reading it.
+     */
+    public static Object read(final File path) throws IOException {
+        return decode(map(path));
+    }
+
+    static ByteBuffer map(final File path) throws IOException {
+        try(final FileChannel channel = new FileInputStream(path).getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Decodes only the value reached by following {@code fieldNames} from the top-level object,
+     * all sibling fields on the way are skipped without being decoded.
+     *
+     * @return the selected value or {@code null} if one of the fields does not exist or is not an object.
+     */
+    public static Object select(final ByteBuffer document, final String... fieldNames) {
+        final BinaryDecoder decoder = new BinaryDecoder(document);
+
+        for(final String fieldName : fieldNames) {
+            final int keyIndex = decoder.keyIndex(fieldName);
+            if(keyIndex == -1 || decoder.peekTag() != BinaryFormat.OBJECT)
+                return null;
+
+            final int count = decoder.beginContainer(BinaryFormat.OBJECT);
+            boolean found = false;
+            for(int i = 0; i < count && !found; i++) {
+                if(decoder.readVarint() == keyIndex)
+                    found = true;
+                else
+                    decoder.skipValue();
+            }
+            if(!found)
+                return null;
+        }
+
+        return decoder.readValue();
+    }
+
+    /**
+     * Decodes the top-level object of {@code document}.
+     *
+     * @throws ClassCastException if the top-level value is not an object.
+     */
+    public static JSONObject decodeJSONObject(final ByteBuffer document) {
+        return (JSONObject) decode(document);
+    }
+
+    /**
+     * Returns a lazy view of the top-level object of {@code document}, only the dictionary is decoded right away.
+     * <p>
+     * The view reads from {@code document} directly, it must not be modified as long as the view is in use.
+     *
+     * @throws ClassCastException if the top-level value is not an object.
+     */
+    public static BinaryJSONObject view(final ByteBuffer document) {
+        return (BinaryJSONObject) new BinaryDecoder(document).readView();
+    }
+}
@@ -0,0 +1,93 @@
+package com.jelly.binary;
+
+import com.jelly.json.JSONArray;
+
+/**
+ * Read-only view of an array inside an encoded document.
+ * <p>
+ * The first access of an element walks all elements once and records where each of them starts, later accesses go straight to the element.
+ * Nested containers are returned as views.
+ *
+ * @see BinaryJSONObject
+ */
+public final class BinaryJSONArray {
+    private final BinaryDecoder document;
+    private final int start;
+
+    /**
+     * Positions of the elements, built on first access. Racing threads build equal tables, so publishing any of them is fine.
+     */
+    private volatile int[] offsets;
+
+    BinaryJSONArray(final BinaryDecoder document, final int start) {
+        this.document = document;
+        this.start = start;
+    }
+
+    /**
+     * Returns the element at the specified position, objects and arrays as {@link BinaryJSONObject} and {@link BinaryJSONArray}.
+     *
+     * @throws IndexOutOfBoundsException if {@code idx} is out of range.
+     */
+    public Object get(final int idx) {
+        final int[] offsets = offsets();
+        if(idx < 0 || idx >= offsets.length)
+            throw new IndexOutOfBoundsException("Index " + idx + " out of bounds for length " + offsets.length);
+
+        return document.at(offsets[idx]).readView();
+    }
+
+    private int[] offsets() {
+        int[] offsets = this.offsets;
+        if(offsets != null)
+            return offsets;
+
+        final BinaryDecoder cursor = document.at(start);
+        offsets = new int[cursor.beginContainer(BinaryFormat.ARRAY)];
+        for(int i = 0; i < offsets.length; i++) {
+            offsets[i] = cursor.position();
+            cursor.skipValue();
+        }
+        return this.offsets = offsets;
+    }
+
+    public boolean getBoolean(final int idx) {
+        return (boolean) get(idx);
+    }
+
+    public int getInteger(final int idx) {
+        return (int) get(idx);
+    }
+
+    public float getFloat(final int idx) {
+        return (float) get(idx);
+    }
+
+    public String getString(final int idx) {
+        return (String) get(idx);
+    }
+
+    public BinaryJSONObject getJSONObject(final int idx) {
+        return (BinaryJSONObject) get(idx);
+    }
+
+    public BinaryJSONArray getJSONArray(final int idx) {
+        return (BinaryJSONArray) get(idx);
+    }
+
+    public int size() {
+        return document.at(start).beginContainer(BinaryFormat.ARRAY);
+    }
+
+    /**
+     * Decodes this array including all of its nested values.
+     */
+    public JSONArray toJSONArray() {
+        return (JSONArray) document.at(start).readValue();
+    }
+
+    @Override
+    public String toString() {
+        return toJSONArray().toString();
+    }
+}
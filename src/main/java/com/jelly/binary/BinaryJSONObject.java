@@ -0,0 +1,114 @@
+package com.jelly.binary;
+
+import com.jelly.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only view of an object inside an encoded document.
+ * <p>
+ * Nothing is decoded up front, every access walks the encoded fields, skipping the values of all fields before the requested one.
+ * Nested containers are returned as views as well, so only the values actually asked for are ever materialized.
+ * Views are immutable and can be shared between threads as long as the underlying buffer is not modified.
+ */
+public final class BinaryJSONObject {
+    private final BinaryDecoder document;
+    private final int start;
+
+    BinaryJSONObject(final BinaryDecoder document, final int start) {
+        this.document = document;
+        this.start = start;
+    }
+
+    /**
+     * Moves a cursor to the value of {@code fieldName}.
+     *
+     * @return the cursor or {@code null} if this object has no such field.
+     */
+    private BinaryDecoder find(final String fieldName) {
+        final int keyIndex = document.keyIndex(fieldName);
+        if(keyIndex == -1)
+            return null;
+
+        final BinaryDecoder cursor = document.at(start);
+        final int count = cursor.beginContainer(BinaryFormat.OBJECT);
+        for(int i = 0; i < count; i++) {
+            if(cursor.readVarint() == keyIndex)
+                return cursor;
+            cursor.skipValue();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the field with the specified name, objects and arrays as {@link BinaryJSONObject} and {@link BinaryJSONArray}.
+     *
+     * @param fieldName the name of the field.
+     * @return the value of the field or {@code null} if there is no such field.
+     */
+    public Object get(final String fieldName) {
+        final BinaryDecoder cursor = find(fieldName);
+        return (cursor == null) ? null : cursor.readView();
+    }
+
+    public boolean has(final String fieldName) {
+        return find(fieldName) != null;
+    }
+
+    public boolean getBoolean(final String fieldName) {
+        return (boolean) get(fieldName);
+    }
+
+    public int getInteger(final String fieldName) {
+        return (int) get(fieldName);
+    }
+
+    public float getFloat(final String fieldName) {
+        return (float) get(fieldName);
+    }
+
+    public String getString(final String fieldName) {
+        return (String) get(fieldName);
+    }
+
+    public BinaryJSONObject getJSONObject(final String fieldName) {
+        return (BinaryJSONObject) get(fieldName);
+    }
+
+    public BinaryJSONArray getJSONArray(final String fieldName) {
+        return (BinaryJSONArray) get(fieldName);
+    }
+
+    /**
+     * Returns the names of all fields in encoding order.
+     */
+    public List<String> fieldNames() {
+        final BinaryDecoder cursor = document.at(start);
+        final int count = cursor.beginContainer(BinaryFormat.OBJECT);
+
+        final List<String> fieldNames = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            fieldNames.add(cursor.key(cursor.readVarint()));
+            cursor.skipValue();
+        }
+        return Collections.unmodifiableList(fieldNames);
+    }
+
+    public int size() {
+        return document.at(start).beginContainer(BinaryFormat.OBJECT);
+    }
+
+    /**
+     * Decodes this object including all of its nested values.
+     */
+    public JSONObject toJSONObject() {
+        return (JSONObject) document.at(start).readValue();
+    }
+
+    @Override
+    public String toString() {
+        return toJSONObject().toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.jelly.binary;
+
+/**
+ * Exception thrown when binary input is not a document written by {@link BinaryJSON}, or has been truncated.
+ */
+public class MalformedBinaryException extends RuntimeException {
+    private final long offset;
+
+    MalformedBinaryException(final String msg, final long offset) {
+        super(msg + " at byte " + offset);
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the 0-based offset of the malformed data relative to the start of the document.
+     */
+    public long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,61 @@
+package com.jelly.codec;
+
+import com.jelly.lexer.Dialect;
+import com.jelly.parser.JSONReader;
+import com.jelly.scanner.Scanner;
+import com.jelly.writer.JSONWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Encoder and decoder between a Java type and its JSON representation.
+ * <p>
+ * Implementations are usually generated by {@link CodecProcessor} for types annotated with {@link JSONCodec}.
+ * @param <T> the type handled by this Codec.
+ */
+public interface Codec<T> {
+    /**
+     * Writes {@code value} as the next value of {@code writer}.
+     *
+     * @param value value to be encoded, may be {@code null}.
+     * @param writer writer the value is written to.
+     */
+    void encode(T value, JSONWriter writer) throws IOException;
+
+    /**
+     * Reads the next value of {@code reader}.
+     *
+     * @param reader reader positioned in front of the value to be decoded.
+     * @return the decoded value, {@code null} if the next value is a JSON null.
+     */
+    T decode(JSONReader reader) throws IOException;
+
+    /**
+     * Encodes {@code value} into a JSON-String.
+     *
+     * @param value value to be encoded, may be {@code null}.
+     * @return valid JSON-Code describing {@code value}.
+     */
+    default String toJSON(final T value) throws IOException {
+        final StringWriter out = new StringWriter();
+        try(final JSONWriter writer = new JSONWriter(out)) {
+            encode(value, writer);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Decodes the single value described by {@code source}.
+     *
+     * @param source JSON-Code describing the value, escape sequences in strings are decoded as written by {@link #toJSON(Object)}.
+     * @return the decoded value.
+     */
+    default T fromJSON(final String source) throws IOException {
+        try(final JSONReader reader = new JSONReader(new Scanner(source), Dialect.STRICT)) {
+            final T value = decode(reader);
+            reader.endDocument();
+            return value;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.jelly.codec;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor generating a {@link Codec} for every type annotated with {@link JSONCodec}.
+ * <p>
+ * The generated code reads from a {@link com.jelly.parser.JSONReader} and writes to a {@link com.jelly.writer.JSONWriter} directly,
+ * so neither reflection nor an intermediate {@link com.jelly.json.JSONObject} is involved at runtime.
+ */
+@SupportedAnnotationTypes("com.jelly.codec.JSONCodec")
+public final class CodecProcessor extends AbstractProcessor {
+    private static final String CODEC_SUFFIX = "Codec";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for(final Element element : roundEnv.getElementsAnnotatedWith(JSONCodec.class)) {
+            if(element.getKind() != ElementKind.RECORD && element.getKind() != ElementKind.CLASS) {
+                error(element, "@JSONCodec is only applicable to records and classes");
+                continue;
+            }
+
+            final TypeElement type = (TypeElement) element;
+            try {
+                generate(type);
+            } catch(final UnsupportedTypeException e) {
+                error(e.element, e.getMessage());
+            } catch(final IOException e) {
+                error(type, "could not write codec: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void error(final Element element, final String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, element);
+    }
+
+    private record Property(String name, TypeMirror type, String accessor, Element element) { }
+
+    private List<Property> collectProperties(final TypeElement type) throws UnsupportedTypeException {
+        final List<Property> properties = new ArrayList<>();
+
+        if(type.getKind() == ElementKind.RECORD) {
+            for(final RecordComponentElement component : type.getRecordComponents()) {
+                final String name = component.getSimpleName().toString();
+                properties.add(new Property(name, component.asType(), "value." + name + "()", component));
+            }
+            return properties;
+        }
+
+        final boolean hasConstructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE));
+        if(!hasConstructor)
+            throw new UnsupportedTypeException(type, "@JSONCodec classes need a non-private no-arg constructor");
+
+        for(final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            final Set<Modifier> modifiers = field.getModifiers();
+            if(modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT))
+                continue;
+            if(modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL))
+                throw new UnsupportedTypeException(field, "fields of @JSONCodec classes must be neither private nor final");
+
+            final String name = field.getSimpleName().toString();
+            properties.add(new Property(name, field.asType(), "value." + name, field));
+        }
+        return properties;
+    }
+
+    private static String codecName(final TypeElement type) {
+        final StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while(enclosing instanceof final TypeElement enclosingType) {
+            name.insert(0, enclosingType.getSimpleName() + "_");
+            enclosing = enclosingType.getEnclosingElement();
+        }
+        return name.append(CODEC_SUFFIX).toString();
+    }
+
+    private String packageName(final TypeElement type) {
+        final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    private String codecReference(final TypeElement type) {
+        final String packageName = packageName(type);
+        return (packageName.isEmpty() ? "" : packageName + ".") + codecName(type) + ".INSTANCE";
+    }
+
+    private static boolean isDeclared(final TypeMirror type, final String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private TypeElement annotatedType(final TypeMirror type) {
+        if(type.getKind() != TypeKind.DECLARED)
+            return null;
+
+        final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        return (element.getAnnotation(JSONCodec.class) != null) ? element : null;
+    }
+
+    private String elementCodec(final TypeMirror type, final Element origin) throws UnsupportedTypeException {
+        if(isDeclared(type, "java.lang.String"))
+            return "com.jelly.codec.Codecs.STRING";
+        else if(isDeclared(type, "java.lang.Boolean"))
+            return "com.jelly.codec.Codecs.BOOLEAN";
+        else if(isDeclared(type, "java.lang.Integer"))
+            return "com.jelly.codec.Codecs.INTEGER";
+        else if(isDeclared(type, "java.lang.Float"))
+            return "com.jelly.codec.Codecs.FLOAT";
+        else if(isDeclared(type, "com.jelly.json.JSONObject"))
+            return "com.jelly.codec.Codecs.JSON_OBJECT";
+        else if(isDeclared(type, "com.jelly.json.JSONArray"))
+            return "com.jelly.codec.Codecs.JSON_ARRAY";
+
+        final TypeElement annotated = annotatedType(type);
+        if(annotated != null)
+            return codecReference(annotated);
+
+        throw new UnsupportedTypeException(origin, "unsupported list element type " + type);
+    }
+
+    private String readExpression(final TypeMirror type, final Element origin) throws UnsupportedTypeException {
+        switch(type.getKind()) {
+            case BOOLEAN -> { return "reader.nextBoolean()"; }
+            case INT -> { return "reader.nextInteger()"; }
+            case FLOAT -> { return "reader.nextFloat()"; }
+        }
+
+        if(isDeclared(type, "java.util.List")) {
+            final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            if(arguments.size() != 1)
+                throw new UnsupportedTypeException(origin, "raw lists are not supported");
+            return "com.jelly.codec.Codecs.readList(reader, " + elementCodec(arguments.get(0), origin) + ")";
+        }
+
+        return elementCodec(type, origin) + ".decode(reader)";
+    }
+
+    private String writeStatement(final TypeMirror type, final String expression, final Element origin) throws UnsupportedTypeException {
+        switch(type.getKind()) {
+            case BOOLEAN, INT, FLOAT -> { return "writer.value(" + expression + ");"; }
+        }
+
+        if(isDeclared(type, "java.util.List")) {
+            final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            if(arguments.size() != 1)
+                throw new UnsupportedTypeException(origin, "raw lists are not supported");
+            return "com.jelly.codec.Codecs.writeList(" + expression + ", writer, " + elementCodec(arguments.get(0), origin) + ");";
+        }
+
+        return elementCodec(type, origin) + ".encode(" + expression + ", writer);";
+    }
+
+    private static String defaultValue(final TypeMirror type) {
+        return switch(type.getKind()) {
+            case BOOLEAN -> "false";
+            case INT -> "0";
+            case FLOAT -> "0f";
+            default -> "null";
+        };
+    }
+
+    private static String javaString(final String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private void generate(final TypeElement type) throws IOException, UnsupportedTypeException {
+        if(!type.getTypeParameters().isEmpty())
+            throw new UnsupportedTypeException(type, "generic types are not supported by @JSONCodec");
+
+        final List<Property> properties = collectProperties(type);
+        final boolean isRecord = type.getKind() == ElementKind.RECORD;
+
+        final String packageName = packageName(type);
+        final String codecName = codecName(type);
+        final String typeName = type.getQualifiedName().toString();
+
+        final StringBuilder code = new StringBuilder();
+        if(!packageName.isEmpty())
+            code.append("package ").append(packageName).append(";\n\n");
+
+        code.append("@javax.annotation.processing.Generated(\"").append(CodecProcessor.class.getName()).append("\")\n")
+            .append("public final class ").append(codecName).append(" implements com.jelly.codec.Codec<").append(typeName).append("> {\n")
+            .append("    public static final ").append(codecName).append(" INSTANCE = new ").append(codecName).append("();\n\n")
+            .append("    private ").append(codecName).append("() { }\n\n");
+
+        code.append("    @Override\n")
+            .append("    public void encode(final ").append(typeName).append(" value, final com.jelly.writer.JSONWriter writer) throws java.io.IOException {\n")
+            .append("        if(value == null) {\n")
+            .append("            writer.nullValue();\n")
+            .append("            return;\n")
+            .append("        }\n\n")
+            .append("        writer.beginObject();\n");
+        for(final Property property : properties) {
+            code.append("        writer.name(").append(javaString(property.name)).append(");\n")
+                .append("        ").append(writeStatement(property.type, property.accessor, property.element)).append('\n');
+        }
+        code.append("        writer.endObject();\n")
+            .append("    }\n\n");
+
+        code.append("    @Override\n")
+            .append("    public ").append(typeName).append(" decode(final com.jelly.parser.JSONReader reader) throws java.io.IOException {\n")
+            .append("        if(com.jelly.codec.Codecs.readNull(reader))\n")
+            .append("            return null;\n\n");
+        if(isRecord) {
+            for(final Property property : properties)
+                code.append("        ").append(property.type).append(" v_").append(property.name).append(" = ").append(defaultValue(property.type)).append(";\n");
+        } else
+            code.append("        final ").append(typeName).append(" value = new ").append(typeName).append("();\n");
+
+        code.append("\n        reader.beginObject();\n")
+            .append("        while(reader.hasNext()) {\n")
+            .append("            switch(reader.nextName()) {\n");
+        for(final Property property : properties) {
+            code.append("                case ").append(javaString(property.name)).append(" -> ")
+                .append(isRecord ? "v_" + property.name : property.accessor).append(" = ")
+                .append(readExpression(property.type, property.element)).append(";\n");
+        }
+        code.append("                default -> reader.skipValue();\n")
+            .append("            }\n")
+            .append("        }\n")
+            .append("        reader.endObject();\n\n");
+
+        if(isRecord) {
+            code.append("        return new ").append(typeName).append('(');
+            for(int i = 0; i < properties.size(); i++)
+                code.append((i == 0) ? "" : ", ").append("v_").append(properties.get(i).name);
+            code.append(");\n");
+        } else
+            code.append("        return value;\n");
+        code.append("    }\n")
+            .append("}\n");
+
+        final String qualifiedCodecName = (packageName.isEmpty() ? "" : packageName + ".") + codecName;
+        try(final Writer writer = processingEnv.getFiler().createSourceFile(qualifiedCodecName, type).openWriter()) {
+            writer.write(code.toString());
+        }
+    }
+
+    private static class UnsupportedTypeException extends Exception {
+        private final Element element;
+
+        UnsupportedTypeException(final Element element, final String msg) {
+            super(msg);
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.jelly.codec;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+import com.jelly.parser.JSONReader;
+import com.jelly.writer.JSONWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.jelly.lexer.TokenType.NULL;
+
+/**
+ * Null-aware helpers called by generated {@link Codec}s.
+ */
+public final class Codecs {
+    private Codecs() { }
+
+    public static String readString(final JSONReader reader) throws IOException {
+        if(readNull(reader))
+            return null;
+        return reader.nextString();
+    }
+
+    public static Boolean readBoolean(final JSONReader reader) throws IOException {
+        if(readNull(reader))
+            return null;
+        return reader.nextBoolean();
+    }
+
+    public static Integer readInteger(final JSONReader reader) throws IOException {
+        if(readNull(reader))
+            return null;
+        return reader.nextInteger();
+    }
+
+    public static Float readFloat(final JSONReader reader) throws IOException {
+        if(readNull(reader))
+            return null;
+        return reader.nextFloat();
+    }
+
+    public static JSONObject readJSONObject(final JSONReader reader) throws IOException {
+        if(readNull(reader))
+            return null;
+        return reader.readJSONObject();
+    }
+
+    public static JSONArray readJSONArray(final JSONReader reader) throws IOException {
+        if(readNull(reader))
+            return null;
+        return reader.readJSONArray();
+    }
+
+    public static <T> List<T> readList(final JSONReader reader, final Codec<T> elementCodec) throws IOException {
+        if(readNull(reader))
+            return null;
+
+        final List<T> list = new ArrayList<>();
+        reader.beginArray();
+        while(reader.hasNext())
+            list.add(elementCodec.decode(reader));
+        reader.endArray();
+        return list;
+    }
+
+    public static <T> void writeList(final List<T> list, final JSONWriter writer, final Codec<T> elementCodec) throws IOException {
+        if(list == null) {
+            writer.nullValue();
+            return;
+        }
+
+        writer.beginArray();
+        for(final T element : list)
+            elementCodec.encode(element, writer);
+        writer.endArray();
+    }
+
+    /**
+     * Consumes the next value if it is a JSON null.
+     *
+     * @return whether a JSON null has been consumed.
+     */
+    public static boolean readNull(final JSONReader reader) throws IOException {
+        if(reader.peek() != NULL)
+            return false;
+
+        reader.nextNull();
+        return true;
+    }
+
+    public static final Codec<String> STRING = new Codec<>() {
+        @Override
+        public void encode(final String value, final JSONWriter writer) throws IOException {
+            writer.value(value);
+        }
+
+        @Override
+        public String decode(final JSONReader reader) throws IOException {
+            return readString(reader);
+        }
+    };
+
+    public static final Codec<Boolean> BOOLEAN = new Codec<>() {
+        @Override
+        public void encode(final Boolean value, final JSONWriter writer) throws IOException {
+            writer.value((Object) value);
+        }
+
+        @Override
+        public Boolean decode(final JSONReader reader) throws IOException {
+            return readBoolean(reader);
+        }
+    };
+
+    public static final Codec<Integer> INTEGER = new Codec<>() {
+        @Override
+        public void encode(final Integer value, final JSONWriter writer) throws IOException {
+            writer.value((Object) value);
+        }
+
+        @Override
+        public Integer decode(final JSONReader reader) throws IOException {
+            return readInteger(reader);
+        }
+    };
+
+    public static final Codec<Float> FLOAT = new Codec<>() {
+        @Override
+        public void encode(final Float value, final JSONWriter writer) throws IOException {
+            writer.value((Object) value);
+        }
+
+        @Override
+        public Float decode(final JSONReader reader) throws IOException {
+            return readFloat(reader);
+        }
+    };
+
+    public static final Codec<JSONObject> JSON_OBJECT = new Codec<>() {
+        @Override
+        public void encode(final JSONObject value, final JSONWriter writer) throws IOException {
+            writer.value(value);
+        }
+
+        @Override
+        public JSONObject decode(final JSONReader reader) throws IOException {
+            return readJSONObject(reader);
+        }
+    };
+
+    public static final Codec<JSONArray> JSON_ARRAY = new Codec<>() {
+        @Override
+        public void encode(final JSONArray value, final JSONWriter writer) throws IOException {
+            writer.value(value);
+        }
+
+        @Override
+        public JSONArray decode(final JSONReader reader) throws IOException {
+            return readJSONArray(reader);
+        }
+    };
+}
@@ -0,0 +1,18 @@
+package com.jelly.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record or class for which {@link CodecProcessor} generates a reflection-free {@link Codec} at compile time.
+ * <p>
+ * The generated class is placed next to the annotated type and named after it with a {@code Codec} suffix,
+ * nested types are flattened with an underscore (e.g. {@code Outer_InnerCodec}).
+ * Supported component types are {@code boolean}, {@code int}, {@code float}, their boxed counterparts, {@code String},
+ * {@link com.jelly.json.JSONObject}, {@link com.jelly.json.JSONArray}, other annotated types and {@link java.util.List}s of those.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface JSONCodec { }
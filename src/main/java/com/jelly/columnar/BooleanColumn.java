@@ -0,0 +1,31 @@
+package com.jelly.columnar;
+
+public final class BooleanColumn extends Column {
+    private final long[] bits;
+
+    BooleanColumn(final String name, final int size, final long[] validity, final long[] bits) {
+        super(name, size, validity);
+        this.bits = bits;
+    }
+
+    @Override
+    public ColumnType type() {
+        return ColumnType.BOOLEAN;
+    }
+
+    /**
+     * Returns the value of {@code row}, {@code false} if it holds none.
+     */
+    public boolean getBoolean(final int row) {
+        return !isNull(row) && (bits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    @Override
+    public Object get(final int row) {
+        return isNull(row) ? null : getBoolean(row);
+    }
+
+    long[] bits() {
+        return bits;
+    }
+}
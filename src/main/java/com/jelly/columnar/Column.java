@@ -0,0 +1,53 @@
+package com.jelly.columnar;
+
+/**
+ * Values of one field across all rows of a {@link ColumnarTable}.
+ * <p>
+ * Which rows hold a value is recorded in a validity bitmap, one bit per row, rows without a value read as {@code null}
+ * and hold the default value of the vector of the column.
+ */
+public abstract class Column {
+    private final String name;
+    private final int size;
+    private final long[] validity;
+
+    Column(final String name, final int size, final long[] validity) {
+        this.name = name;
+        this.size = size;
+        this.validity = validity;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public abstract ColumnType type();
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(final int row) {
+        if(row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("row " + row + " out of bounds for size " + size);
+        return (validity[row >>> 6] & (1L << row)) == 0;
+    }
+
+    public int nullCount() {
+        int present = 0;
+        for(final long word : validity)
+            present += Long.bitCount(word);
+        return size - present;
+    }
+
+    /**
+     * Returns the value of {@code row} boxed as the column stores it, {@code null} if the row holds no value.
+     * <p>
+     * Values of {@link ColumnType#DOUBLE} columns are returned as {@link Double}, not as the Integer or Float the parser produced.
+     */
+    public abstract Object get(int row);
+
+    long[] validity() {
+        return validity;
+    }
+}
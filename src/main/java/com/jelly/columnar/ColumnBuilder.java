@@ -0,0 +1,204 @@
+package com.jelly.columnar;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects the values of one field row by row, widening the vector when a value does not fit its current type.
+ * <p>
+ * Integers are widened to doubles once a float shows up, any other mix of types and nested values turn the column into a {@link ValueColumn}.
+ * Rows a value is never set for stay {@code null}.
+ */
+final class ColumnBuilder {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final String name;
+    private ColumnType type = ColumnType.NULL;
+    private int capacity = DEFAULT_CAPACITY;
+    private long[] validity = new long[DEFAULT_CAPACITY >>> 6];
+
+    private int[] ints;
+    private double[] doubles;
+    private long[] booleans;
+    private int[] codes;
+    private Map<String, Integer> dictionary;
+    private Object[] values;
+
+    ColumnBuilder(final String name) {
+        this.name = name;
+    }
+
+    private void ensureCapacity(final int row) {
+        if(row < capacity)
+            return;
+
+        capacity = Math.max(2 * capacity, (row + 64) & ~63);
+        validity = Arrays.copyOf(validity, capacity >>> 6);
+        switch(type) {
+            case INTEGER -> ints = Arrays.copyOf(ints, capacity);
+            case DOUBLE -> doubles = Arrays.copyOf(doubles, capacity);
+            case BOOLEAN -> booleans = Arrays.copyOf(booleans, capacity >>> 6);
+            case STRING -> codes = Arrays.copyOf(codes, capacity);
+            case VALUE -> values = Arrays.copyOf(values, capacity);
+            case NULL -> { }
+        }
+    }
+
+    private void markPresent(final int row) {
+        validity[row >>> 6] |= 1L << row;
+    }
+
+    void setInteger(final int row, final int value) {
+        ensureCapacity(row);
+        if(type == ColumnType.NULL) {
+            type = ColumnType.INTEGER;
+            ints = new int[capacity];
+        }
+
+        if(type == ColumnType.INTEGER)
+            ints[row] = value;
+        else if(type == ColumnType.DOUBLE)
+            doubles[row] = value;
+        else {
+            toValues();
+            values[row] = value;
+        }
+        markPresent(row);
+    }
+
+    void setFloat(final int row, final float value) {
+        ensureCapacity(row);
+        if(type == ColumnType.NULL) {
+            type = ColumnType.DOUBLE;
+            doubles = new double[capacity];
+        } else if(type == ColumnType.INTEGER) {
+            doubles = new double[capacity];
+            for(int i = 0; i < capacity; i++)
+                doubles[i] = ints[i];
+            ints = null;
+            type = ColumnType.DOUBLE;
+        }
+
+        if(type == ColumnType.DOUBLE)
+            doubles[row] = value;
+        else {
+            toValues();
+            values[row] = value;
+        }
+        markPresent(row);
+    }
+
+    void setBoolean(final int row, final boolean value) {
+        ensureCapacity(row);
+        if(type == ColumnType.NULL) {
+            type = ColumnType.BOOLEAN;
+            booleans = new long[capacity >>> 6];
+        }
+
+        if(type == ColumnType.BOOLEAN) {
+            if(value)
+                booleans[row >>> 6] |= 1L << row;
+        } else {
+            toValues();
+            values[row] = value;
+        }
+        markPresent(row);
+    }
+
+    void setString(final int row, final String value) {
+        ensureCapacity(row);
+        if(type == ColumnType.NULL) {
+            type = ColumnType.STRING;
+            codes = new int[capacity];
+            dictionary = new HashMap<>();
+        }
+
+        if(type == ColumnType.STRING) {
+            final Integer code = dictionary.get(value);
+            if(code != null)
+                codes[row] = code;
+            else {
+                codes[row] = dictionary.size();
+                dictionary.put(value, codes[row]);
+            }
+        } else {
+            toValues();
+            values[row] = value;
+        }
+        markPresent(row);
+    }
+
+    /**
+     * Sets a nested JSONObject or JSONArray, which always turns the column into a {@link ValueColumn}.
+     */
+    void setValue(final int row, final Object value) {
+        ensureCapacity(row);
+        toValues();
+        if(value instanceof final JSONObject jsonObject)
+            values[row] = jsonObject.freeze();
+        else if(value instanceof final JSONArray jsonArray)
+            values[row] = jsonArray.freeze();
+        else
+            values[row] = value;
+        markPresent(row);
+    }
+
+    private void toValues() {
+        if(type == ColumnType.VALUE)
+            return;
+
+        values = new Object[capacity];
+        final String[] strings = (type == ColumnType.STRING) ? dictionaryArray() : null;
+        for(int row = 0; row < capacity; row++) {
+            if((validity[row >>> 6] & (1L << row)) == 0)
+                continue;
+            values[row] = switch(type) {
+                case INTEGER -> ints[row];
+                case DOUBLE -> toNumber(doubles[row]);
+                case BOOLEAN -> (booleans[row >>> 6] & (1L << row)) != 0;
+                case STRING -> strings[codes[row]];
+                case NULL, VALUE -> null;
+            };
+        }
+
+        ints = null;
+        doubles = null;
+        booleans = null;
+        codes = null;
+        dictionary = null;
+        type = ColumnType.VALUE;
+    }
+
+    /**
+     * Turns a widened number back into the type the parser produces, integral values that fit an int become Integers.
+     */
+    private static Object toNumber(final double value) {
+        if(value == (int) value)
+            return (int) value;
+        return (float) value;
+    }
+
+    private String[] dictionaryArray() {
+        final String[] strings = new String[dictionary.size()];
+        for(final Map.Entry<String, Integer> entry : dictionary.entrySet())
+            strings[entry.getValue()] = entry.getKey();
+        return strings;
+    }
+
+    Column build(final int size) {
+        ensureCapacity(Math.max(size - 1, 0));
+        final long[] trimmedValidity = Arrays.copyOf(validity, (size + 63) >>> 6);
+        return switch(type) {
+            case NULL -> new NullColumn(name, size);
+            case INTEGER -> new IntColumn(name, size, trimmedValidity, Arrays.copyOf(ints, size));
+            case DOUBLE -> new DoubleColumn(name, size, trimmedValidity, Arrays.copyOf(doubles, size));
+            case BOOLEAN -> new BooleanColumn(name, size, trimmedValidity, Arrays.copyOf(booleans, (size + 63) >>> 6));
+            case STRING -> new StringColumn(name, size, trimmedValidity, dictionaryArray(), Arrays.copyOf(codes, size));
+            case VALUE -> new ValueColumn(name, size, trimmedValidity, Arrays.copyOf(values, size));
+        };
+    }
+}
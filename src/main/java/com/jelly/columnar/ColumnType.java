@@ -0,0 +1,25 @@
+package com.jelly.columnar;
+
+/**
+ * Physical type of a {@link Column}.
+ */
+public enum ColumnType {
+    /**
+     * Every value of the column is {@code null} or missing.
+     */
+    NULL,
+    BOOLEAN,
+    INTEGER,
+    /**
+     * Numbers of a field holding floats, or both integers and floats.
+     */
+    DOUBLE,
+    /**
+     * Dictionary-encoded Strings.
+     */
+    STRING,
+    /**
+     * Values of a field holding JSONObjects, JSONArrays or values of different types, kept as they are.
+     */
+    VALUE
+}
@@ -0,0 +1,204 @@
+package com.jelly.columnar;
+
+import com.jelly.binary.BinaryJSON;
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the columnar file format of {@link ColumnarTable}.
+ * <p>
+ * Layout: the magic bytes {@code JLC} and a version byte, one block per column, a footer listing name, type, offset and length
+ * of every block, and the offset of the footer in the last 8 bytes. Every block starts with the validity bitmap followed by the vector
+ * of its type, Strings as their dictionary followed by the codes and values of {@link ValueColumn}s in the encoding of {@link BinaryJSON}.
+ * All numbers are big-endian.
+ */
+final class ColumnarFile {
+    private static final byte[] MAGIC = {'J', 'L', 'C'};
+    private static final byte VERSION = 1;
+
+    private ColumnarFile() { }
+
+    private record Block(String name, ColumnType type, long offset, int length) { }
+
+    static void write(final ColumnarTable table, final File path) throws IOException {
+        try(final FileOutputStream fileOut = new FileOutputStream(path);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+
+            final Column[] columns = table.columns().values().toArray(new Column[0]);
+            final long[] offsets = new long[columns.length + 1];
+            for(int i = 0; i < columns.length; i++) {
+                out.flush();
+                offsets[i] = fileOut.getChannel().position();
+                writeColumn(columns[i], out);
+            }
+            out.flush();
+            offsets[columns.length] = fileOut.getChannel().position();
+
+            out.writeInt(table.rowCount());
+            out.writeInt(columns.length);
+            for(int i = 0; i < columns.length; i++) {
+                writeString(columns[i].name(), out);
+                out.writeByte(columns[i].type().ordinal());
+                out.writeLong(offsets[i]);
+                out.writeInt((int) (offsets[i+1] - offsets[i]));
+            }
+            out.writeLong(offsets[columns.length]);
+        }
+    }
+
+    private static void writeColumn(final Column column, final DataOutputStream out) throws IOException {
+        for(final long word : column.validity())
+            out.writeLong(word);
+
+        switch(column.type()) {
+            case INTEGER -> {
+                for(final int value : ((IntColumn) column).values())
+                    out.writeInt(value);
+            }
+            case DOUBLE -> {
+                for(final double value : ((DoubleColumn) column).values())
+                    out.writeDouble(value);
+            }
+            case BOOLEAN -> {
+                for(final long word : ((BooleanColumn) column).bits())
+                    out.writeLong(word);
+            }
+            case STRING -> {
+                final StringColumn strings = (StringColumn) column;
+                out.writeInt(strings.dictionary().length);
+                for(final String string : strings.dictionary())
+                    writeString(string, out);
+                for(final int code : strings.codes())
+                    out.writeInt(code);
+            }
+            case VALUE -> {
+                final Object[] values = ((ValueColumn) column).values();
+                for(int row = 0; row < column.size(); row++) {
+                    if(column.isNull(row))
+                        continue;
+                    final byte[] encoded = BinaryJSON.encode(values[row]);
+                    out.writeInt(encoded.length);
+                    out.write(encoded);
+                }
+            }
+            case NULL -> { }
+        }
+    }
+
+    private static void writeString(final String string, final DataOutputStream out) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static ColumnarTable read(final File path, final String... names) throws IOException {
+        try(final FileChannel channel = FileChannel.open(path.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer header = read(channel, 0, MAGIC.length + 1);
+            final byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if(!Arrays.equals(magic, MAGIC) || header.get() != VERSION)
+                throw new IOException(path + " is not a columnar file");
+
+            final long footerOffset = read(channel, channel.size() - Long.BYTES, Long.BYTES).getLong();
+            final ByteBuffer footer = read(channel, footerOffset, (int) (channel.size() - Long.BYTES - footerOffset));
+            final int rowCount = footer.getInt();
+            final Map<String, Block> blocks = new LinkedHashMap<>();
+            for(int i = footer.getInt(); i > 0; i--) {
+                final String name = readString(footer);
+                blocks.put(name, new Block(name, ColumnType.values()[footer.get()], footer.getLong(), footer.getInt()));
+            }
+
+            final Map<String, Column> columns = new LinkedHashMap<>();
+            for(final String name : (names.length == 0) ? blocks.keySet().toArray(new String[0]) : names) {
+                final Block block = blocks.get(name);
+                if(block == null)
+                    throw new IllegalArgumentException("no column " + name + " in " + path);
+                columns.put(name, readColumn(block, rowCount, read(channel, block.offset(), block.length())));
+            }
+            return new ColumnarTable(rowCount, columns);
+        }
+    }
+
+    private static ByteBuffer read(final FileChannel channel, final long offset, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining())
+            if(channel.read(buffer, offset + buffer.position()) < 0)
+                throw new IOException("Unexpected end of columnar file");
+        return buffer.flip();
+    }
+
+    private static Column readColumn(final Block block, final int size, final ByteBuffer in) {
+        final long[] validity = new long[(size + 63) >>> 6];
+        in.asLongBuffer().get(validity);
+        in.position(in.position() + validity.length * Long.BYTES);
+
+        final String name = block.name();
+        return switch(block.type()) {
+            case NULL -> new NullColumn(name, size);
+            case INTEGER -> {
+                final int[] values = new int[size];
+                in.asIntBuffer().get(values);
+                yield new IntColumn(name, size, validity, values);
+            }
+            case DOUBLE -> {
+                final double[] values = new double[size];
+                in.asDoubleBuffer().get(values);
+                yield new DoubleColumn(name, size, validity, values);
+            }
+            case BOOLEAN -> {
+                final long[] bits = new long[validity.length];
+                in.asLongBuffer().get(bits);
+                yield new BooleanColumn(name, size, validity, bits);
+            }
+            case STRING -> {
+                final String[] dictionary = new String[in.getInt()];
+                for(int i = 0; i < dictionary.length; i++)
+                    dictionary[i] = readString(in);
+                final int[] codes = new int[size];
+                in.asIntBuffer().get(codes);
+                yield new StringColumn(name, size, validity, dictionary, codes);
+            }
+            case VALUE -> {
+                final Object[] values = new Object[size];
+                for(int row = 0; row < size; row++) {
+                    if((validity[row >>> 6] & (1L << row)) == 0)
+                        continue;
+                    final int length = in.getInt();
+                    values[row] = freeze(BinaryJSON.decode(in.slice(in.position(), length)));
+                    in.position(in.position() + length);
+                }
+                yield new ValueColumn(name, size, validity, values);
+            }
+        };
+    }
+
+    private static Object freeze(final Object value) {
+        if(value instanceof final JSONObject jsonObject)
+            return jsonObject.freeze();
+        if(value instanceof final JSONArray jsonArray)
+            return jsonArray.freeze();
+        return value;
+    }
+
+    private static String readString(final ByteBuffer in) {
+        final int length = in.getInt();
+        final String string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return string;
+    }
+}
@@ -0,0 +1,142 @@
+package com.jelly.columnar;
+
+import com.jelly.lexer.TokenType;
+import com.jelly.parser.JSONReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rows of JSONObjects shredded into one column vector per field.
+ * <p>
+ * {@link #shred(JSONReader, Set)} streams an array of objects, or a sequence of newline-delimited objects, through a {@link JSONReader}
+ * without materializing any row. Numbers, booleans and Strings go straight into primitive vectors and dictionaries,
+ * fields that are not selected are skipped token by token. Tables can be written to a columnar file with {@link #write(File)},
+ * from which {@link #read(File, String...)} loads only the columns asked for.
+ */
+public final class ColumnarTable {
+    private final int rowCount;
+    private final Map<String, Column> columns;
+
+    ColumnarTable(final int rowCount, final Map<String, Column> columns) {
+        this.rowCount = rowCount;
+        this.columns = Collections.unmodifiableMap(columns);
+    }
+
+    public static ColumnarTable shred(final String source) throws IOException {
+        try(final JSONReader reader = new JSONReader(source)) {
+            return shred(reader, null);
+        }
+    }
+
+    public static ColumnarTable shred(final File path) throws IOException {
+        return shred(path, null);
+    }
+
+    public static ColumnarTable shred(final File path, final Set<String> fields) throws IOException {
+        try(final JSONReader reader = new JSONReader(path)) {
+            return shred(reader, fields);
+        }
+    }
+
+    /**
+     * Shreds the rows read from {@code reader}, either the elements of an array or all top-level values.
+     *
+     * @param fields names of the fields to keep, all fields are kept if {@code null}.
+     *               Selected fields no row holds become {@link NullColumn}s.
+     * @throws IllegalArgumentException if a row is not a JSONObject.
+     */
+    public static ColumnarTable shred(final JSONReader reader, final Set<String> fields) throws IOException {
+        final Map<String, ColumnBuilder> builders = new LinkedHashMap<>();
+        if(fields != null)
+            for(final String field : fields)
+                builders.put(field, new ColumnBuilder(field));
+
+        int rows = 0;
+        if(reader.peek() == TokenType.LEFT_SQUARE_BRACKET) {
+            reader.beginArray();
+            while(reader.hasNext())
+                shredRow(reader, rows++, builders, fields);
+            reader.endArray();
+        } else {
+            while(reader.peek() != null)
+                shredRow(reader, rows++, builders, fields);
+        }
+
+        final Map<String, Column> columns = new LinkedHashMap<>();
+        for(final Map.Entry<String, ColumnBuilder> builder : builders.entrySet())
+            columns.put(builder.getKey(), builder.getValue().build(rows));
+        return new ColumnarTable(rows, columns);
+    }
+
+    private static void shredRow(final JSONReader reader, final int row, final Map<String, ColumnBuilder> builders, final Set<String> fields) throws IOException {
+        if(reader.peek() != TokenType.LEFT_CURLY_BRACE)
+            throw new IllegalArgumentException("row " + row + " is not an object");
+
+        reader.beginObject();
+        while(reader.hasNext()) {
+            final String fieldName = reader.nextName();
+            ColumnBuilder builder = builders.get(fieldName);
+            if(builder == null) {
+                if(fields != null) {
+                    reader.skipValue();
+                    continue;
+                }
+                builder = new ColumnBuilder(fieldName);
+                builders.put(fieldName, builder);
+            }
+
+            switch(reader.peek()) {
+                case INTEGER -> builder.setInteger(row, reader.nextInteger());
+                case FLOAT -> builder.setFloat(row, reader.nextFloat());
+                case STRING -> builder.setString(row, reader.nextString());
+                case TRUE, FALSE -> builder.setBoolean(row, reader.nextBoolean());
+                case NULL -> reader.nextNull();
+                default -> builder.setValue(row, reader.readValue());
+            }
+        }
+        reader.endObject();
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the names of all columns in the order their fields were first seen or selected.
+     */
+    public Set<String> columnNames() {
+        return columns.keySet();
+    }
+
+    /**
+     * Returns the column of the field with the specified name, {@code null} if there is none.
+     */
+    public Column column(final String name) {
+        return columns.get(name);
+    }
+
+    /**
+     * Writes all columns to a columnar file, each column in a block of its own that can be read without reading the others.
+     */
+    public void write(final File path) throws IOException {
+        ColumnarFile.write(this, path);
+    }
+
+    /**
+     * Reads the columns with the specified names from a file written by {@link #write(File)}, all columns if no names are given.
+     *
+     * @throws IllegalArgumentException if the file holds no column of one of the specified names.
+     */
+    public static ColumnarTable read(final File path, final String... columns) throws IOException {
+        return ColumnarFile.read(path, columns);
+    }
+
+    Map<String, Column> columns() {
+        return columns;
+    }
+}
@@ -0,0 +1,34 @@
+package com.jelly.columnar;
+
+public final class DoubleColumn extends Column {
+    private final double[] values;
+
+    DoubleColumn(final String name, final int size, final long[] validity, final double[] values) {
+        super(name, size, validity);
+        this.values = values;
+    }
+
+    @Override
+    public ColumnType type() {
+        return ColumnType.DOUBLE;
+    }
+
+    /**
+     * Returns the value of {@code row}, {@code 0} if it holds none.
+     */
+    public double getDouble(final int row) {
+        return isNull(row) ? 0 : values[row];
+    }
+
+    /**
+     * Returns the vector backing this column, it is not copied and must not be modified.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    @Override
+    public Object get(final int row) {
+        return isNull(row) ? null : values[row];
+    }
+}
@@ -0,0 +1,21 @@
+package com.jelly.columnar;
+
+/**
+ * Column of a field that never holds a value other than {@code null}.
+ */
+public final class NullColumn extends Column {
+    NullColumn(final String name, final int size) {
+        super(name, size, new long[(size + 63) >>> 6]);
+    }
+
+    @Override
+    public ColumnType type() {
+        return ColumnType.NULL;
+    }
+
+    @Override
+    public Object get(final int row) {
+        isNull(row);
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.jelly.columnar;
+
+/**
+ * Dictionary-encoded Strings, every distinct String is stored once and rows refer to it by its index in the dictionary.
+ */
+public final class StringColumn extends Column {
+    private final String[] dictionary;
+    private final int[] codes;
+
+    StringColumn(final String name, final int size, final long[] validity, final String[] dictionary, final int[] codes) {
+        super(name, size, validity);
+        this.dictionary = dictionary;
+        this.codes = codes;
+    }
+
+    @Override
+    public ColumnType type() {
+        return ColumnType.STRING;
+    }
+
+    public String getString(final int row) {
+        return isNull(row) ? null : dictionary[codes[row]];
+    }
+
+    /**
+     * Returns the distinct Strings of this column, it is not copied and must not be modified.
+     */
+    public String[] dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the dictionary index of the value of every row, it is not copied and must not be modified.
+     */
+    public int[] codes() {
+        return codes;
+    }
+
+    @Override
+    public Object get(final int row) {
+        return getString(row);
+    }
+}
@@ -0,0 +1,28 @@
+package com.jelly.columnar;
+
+/**
+ * Values that fit no vector, nested JSONObjects and JSONArrays and fields holding values of different types.
+ * They are kept {@linkplain com.jelly.json.JSONObject#freeze() frozen}.
+ */
+public final class ValueColumn extends Column {
+    private final Object[] values;
+
+    ValueColumn(final String name, final int size, final long[] validity, final Object[] values) {
+        super(name, size, validity);
+        this.values = values;
+    }
+
+    @Override
+    public ColumnType type() {
+        return ColumnType.VALUE;
+    }
+
+    @Override
+    public Object get(final int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    Object[] values() {
+        return values;
+    }
+}
@@ -0,0 +1,66 @@
+package com.jelly.json;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+
+/**
+ * Elements of a frozen {@link JSONArray} in an array of exactly their number.
+ * <p>
+ * Small arrays are copied on update, larger ones are converted into a {@link VectorElements} once, which then shares structure
+ * between versions.
+ */
+final class CompactElements implements ImmutableElements {
+    private static final int COPY_THRESHOLD = 32;
+
+    static final CompactElements EMPTY = new CompactElements(new Object[0]);
+
+    private final Object[] elements;
+
+    CompactElements(final Object[] elements) {
+        this.elements = elements;
+    }
+
+    @Override
+    public Object get(final int idx) {
+        return elements[Objects.checkIndex(idx, elements.length)];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public ImmutableElements with(final int idx, final Object value) {
+        Objects.checkIndex(idx, elements.length);
+        if(elements[idx] == value)
+            return this;
+        if(elements.length > COPY_THRESHOLD)
+            return VectorElements.of(this).with(idx, value);
+
+        final Object[] updated = elements.clone();
+        updated[idx] = value;
+        return new CompactElements(updated);
+    }
+
+    @Override
+    public ImmutableElements withAppended(final Object value) {
+        if(elements.length >= COPY_THRESHOLD)
+            return VectorElements.of(this).withAppended(value);
+
+        final Object[] updated = Arrays.copyOf(elements, elements.length + 1);
+        updated[elements.length] = value;
+        return new CompactElements(updated);
+    }
+
+    @Override
+    public Spliterator<Object> spliterator() {
+        return Arrays.spliterator(elements);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(elements);
+    }
+}
@@ -0,0 +1,188 @@
+package com.jelly.json;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only storage of a frozen {@link JSONObject}.
+ * <p>
+ * Names and values are kept in two arrays of exactly the number of fields, larger objects additionally get an open-addressing table
+ * of indices together with the precomputed hash codes of their names, so a lookup only calls {@code equals} on a likely match.
+ * All fields are final, which makes the storage safe to publish to other threads without synchronization.
+ * <p>
+ * Small objects are copied on update, larger ones are converted into a {@link TrieFields} once, which then shares structure
+ * between versions.
+ */
+final class CompactFields implements ImmutableFields {
+    /**
+     * Objects with at most this many fields are searched linearly, which beats hashing for tiny objects.
+     */
+    private static final int LINEAR_SEARCH_THRESHOLD = 8;
+
+    static final CompactFields EMPTY = new CompactFields(new String[0], new Object[0]);
+
+    private final String[] names;
+    private final Object[] values;
+    private final int[] hashes;
+    private final int[] table;
+
+    CompactFields(final String[] names, final Object[] values) {
+        this.names = names;
+        this.values = values;
+
+        if(names.length <= LINEAR_SEARCH_THRESHOLD) {
+            hashes = null;
+            table = null;
+            return;
+        }
+
+        hashes = new int[names.length];
+        table = new int[Integer.highestOneBit(names.length * 2 - 1) << 1];
+        Arrays.fill(table, -1);
+
+        final int mask = table.length - 1;
+        for(int i = 0; i < names.length; i++) {
+            hashes[i] = names[i].hashCode();
+            int slot = spread(hashes[i]) & mask;
+            while(table[slot] != -1)
+                slot = (slot + 1) & mask;
+            table[slot] = i;
+        }
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    int indexOf(final Object name) {
+        if(table == null) {
+            for(int i = 0; i < names.length; i++)
+                if(names[i].equals(name))
+                    return i;
+            return -1;
+        }
+
+        if(name == null)
+            return -1;
+
+        final int hash = name.hashCode();
+        final int mask = table.length - 1;
+        for(int slot = spread(hash) & mask; table[slot] != -1; slot = (slot + 1) & mask) {
+            final int idx = table[slot];
+            if(hashes[idx] == hash && names[idx].equals(name))
+                return idx;
+        }
+        return -1;
+    }
+
+    @Override
+    public Object get(final String name) {
+        final int idx = indexOf(name);
+        return (idx == -1) ? null : values[idx];
+    }
+
+    @Override
+    public boolean contains(final Object name) {
+        return indexOf(name) != -1;
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public void forEach(final BiConsumer<String, Object> action) {
+        for(int i = 0; i < names.length; i++)
+            action.accept(names[i], values[i]);
+    }
+
+    @Override
+    public Spliterator<Map.Entry<String, Object>> spliterator() {
+        return new IndexSpliterator<>(i -> new AbstractMap.SimpleImmutableEntry<>(names[i], values[i]), 0, names.length, Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    @Override
+    public ImmutableFields with(final String name, final Object value) {
+        final int idx = indexOf(name);
+        if(idx != -1 && values[idx] == value)
+            return this;
+        if(table != null || (idx == -1 && names.length == LINEAR_SEARCH_THRESHOLD))
+            return TrieFields.of(this).with(name, value);
+
+        if(idx != -1) {
+            final Object[] updatedValues = values.clone();
+            updatedValues[idx] = value;
+            return new CompactFields(names, updatedValues);
+        }
+
+        final String[] updatedNames = Arrays.copyOf(names, names.length + 1);
+        final Object[] updatedValues = Arrays.copyOf(values, values.length + 1);
+        updatedNames[names.length] = name;
+        updatedValues[values.length] = value;
+        return new CompactFields(updatedNames, updatedValues);
+    }
+
+    @Override
+    public ImmutableFields without(final String name) {
+        final int idx = indexOf(name);
+        if(idx == -1)
+            return this;
+        if(table != null)
+            return TrieFields.of(this).without(name);
+
+        final String[] updatedNames = new String[names.length - 1];
+        final Object[] updatedValues = new Object[values.length - 1];
+        System.arraycopy(names, 0, updatedNames, 0, idx);
+        System.arraycopy(names, idx + 1, updatedNames, idx, names.length - idx - 1);
+        System.arraycopy(values, 0, updatedValues, 0, idx);
+        System.arraycopy(values, idx + 1, updatedValues, idx, values.length - idx - 1);
+        return new CompactFields(updatedNames, updatedValues);
+    }
+
+    @Override
+    public Set<String> nameSet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<>() {
+                    private int idx;
+
+                    @Override
+                    public boolean hasNext() {
+                        return idx < names.length;
+                    }
+
+                    @Override
+                    public String next() {
+                        if(idx == names.length)
+                            throw new NoSuchElementException();
+                        return names[idx++];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return indexOf(o) != -1;
+            }
+
+            @Override
+            public int size() {
+                return names.length;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return ImmutableFields.toString(this);
+    }
+}
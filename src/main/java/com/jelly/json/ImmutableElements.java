@@ -0,0 +1,35 @@
+package com.jelly.json;
+
+import java.util.Spliterator;
+
+/**
+ * Storage of a frozen {@link JSONArray}, updates return a new storage.
+ *
+ * @see ImmutableFields
+ */
+interface ImmutableElements {
+    Object get(int idx);
+
+    int size();
+
+    ImmutableElements with(int idx, Object value);
+
+    ImmutableElements withAppended(Object value);
+
+    /**
+     * Returns a spliterator over the elements that splits by index range, so both halves of every split are sized.
+     */
+    default Spliterator<Object> spliterator() {
+        return new IndexSpliterator<>(this::get, 0, size(), 0);
+    }
+
+    static String toString(final ImmutableElements elements) {
+        final StringBuilder string = new StringBuilder("[");
+        for(int i = 0; i < elements.size(); i++) {
+            if(i > 0)
+                string.append(", ");
+            string.append(elements.get(i));
+        }
+        return string.append(']').toString();
+    }
+}
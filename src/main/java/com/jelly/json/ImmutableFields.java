@@ -0,0 +1,48 @@
+package com.jelly.json;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+
+/**
+ * Storage of a frozen {@link JSONObject}. Updates never modify the storage but return a new one,
+ * implementations decide how much of their structure the new storage shares with the old one.
+ */
+interface ImmutableFields {
+    Object get(String name);
+
+    boolean contains(Object name);
+
+    int size();
+
+    Set<String> nameSet();
+
+    void forEach(BiConsumer<String, Object> action);
+
+    ImmutableFields with(String name, Object value);
+
+    ImmutableFields without(String name);
+
+    /**
+     * Returns a spliterator over the fields, by default collecting them into a list first so that it splits evenly.
+     */
+    default Spliterator<Map.Entry<String, Object>> spliterator() {
+        final List<Map.Entry<String, Object>> entries = new ArrayList<>(size());
+        forEach((name, value) -> entries.add(new AbstractMap.SimpleImmutableEntry<>(name, value)));
+        return entries.spliterator();
+    }
+
+    static String toString(final ImmutableFields fields) {
+        final StringBuilder string = new StringBuilder("{");
+        fields.forEach((name, value) -> {
+            if(string.length() > 1)
+                string.append(", ");
+            string.append(name).append('=').append(value);
+        });
+        return string.append('}').toString();
+    }
+}
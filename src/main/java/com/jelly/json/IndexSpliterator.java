@@ -0,0 +1,67 @@
+package com.jelly.json;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Spliterator over the indices {@code [index, fence)} of a storage that is read by index, splitting the range in halves.
+ * <p>
+ * Both halves of every split know their exact size, so parallel streams over frozen JSONArrays and JSONObjects divide the work evenly.
+ *
+ * @param <T> the type of the values read at the indices.
+ */
+final class IndexSpliterator<T> implements Spliterator<T> {
+    private final IntFunction<? extends T> reader;
+    private int index;
+    private final int fence;
+    private final int characteristics;
+
+    /**
+     * @param reader function reading the value at an index.
+     * @param characteristics characteristics in addition to {@link #ORDERED}, {@link #SIZED}, {@link #SUBSIZED} and {@link #IMMUTABLE}.
+     */
+    IndexSpliterator(final IntFunction<? extends T> reader, final int index, final int fence, final int characteristics) {
+        this.reader = reader;
+        this.index = index;
+        this.fence = fence;
+        this.characteristics = characteristics | ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        if(index >= fence)
+            return false;
+        action.accept(reader.apply(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+        final int end = fence;
+        for(int i = index; i < end; i++)
+            action.accept(reader.apply(i));
+        index = end;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        final int mid = (index + fence) >>> 1;
+        if(mid <= index)
+            return null;
+
+        final Spliterator<T> prefix = new IndexSpliterator<>(reader, index, mid, characteristics);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
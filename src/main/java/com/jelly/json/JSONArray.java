@@ -1,22 +1,64 @@
 package com.jelly.json;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Runtime-Representation of the array type in JSON.
  * <p>
  * This class is implemented as an ArrayList-Delegator with additional type-checking
  * and an enhanced {@link #toString()} method to generate a valid JSON-String to represent this JSONArray.
+ * <p>
+ * JSONArrays are equal if they contain equal elements in the same order, the structural hash code is cached
+ * for frozen JSONArrays only, like the one of {@link JSONObject}.
+ * <p>
+ * Elements can be iterated and streamed directly over the backing storage. The spliterators split by index range
+ * into halves of known size, so parallel streams over large JSONArrays divide the work evenly between all cores.
  * @author Tom Berends
  */
-public final class JSONArray {
+public final class JSONArray implements Iterable<Object> {
     /**
-     * ArrayList holding all objects in this JSONArray.
+     * ArrayList holding all objects in this JSONArray, {@code null} if this JSONArray is frozen.
      */
     private final ArrayList<Object> list;
 
+    /**
+     * Storage of a frozen JSONArray, {@code null} if this JSONArray is mutable.
+     */
+    private final ImmutableElements frozen;
+
+    /**
+     * Cached structural hash code of a frozen JSONArray, {@code 0} if it has not been computed yet or this JSONArray is mutable.
+     */
+    private int hash;
+
     public JSONArray() {
         list = new ArrayList<>();
+        frozen = null;
+    }
+
+    private JSONArray(final ImmutableElements frozen) {
+        list = null;
+        this.frozen = frozen;
+    }
+
+    private JSONArray(final ImmutableElements frozen, final int hash) {
+        this(frozen);
+        this.hash = hash;
+    }
+
+    private void append(final Object value) {
+        if(frozen != null)
+            throw new UnsupportedOperationException("JSONArray is frozen");
+        list.add(value);
     }
 
     /**
@@ -39,7 +81,7 @@ public final class JSONArray {
      */
     public void add(final Object value) {
         if (value == null)
-            list.add(null);
+            append(null);
         else if (value instanceof Boolean)
             add((boolean) value);
         else if (value instanceof Integer)
@@ -61,7 +103,7 @@ public final class JSONArray {
      * @param value boolean to be added
      */
     public void add(final boolean value) {
-        list.add(value);
+        append(value);
     }
 
     /**
@@ -69,7 +111,7 @@ public final class JSONArray {
      * @param value integer to be added
      */
     public void add(final int value) {
-        list.add(value);
+        append(value);
     }
 
     /**
@@ -77,7 +119,7 @@ public final class JSONArray {
      * @param value float to be added
      */
     public void add(final float value) {
-        list.add(value);
+        append(value);
     }
 
     /**
@@ -85,7 +127,7 @@ public final class JSONArray {
      * @param value String to be added.
      */
     public void add(final String value) {
-        list.add(value);
+        append(value);
     }
 
     /**
@@ -94,7 +136,7 @@ public final class JSONArray {
      * @see JSONObject
      */
     public void add(final JSONObject value) {
-        list.add(value);
+        append(value);
     }
 
     /**
@@ -103,7 +145,7 @@ public final class JSONArray {
      * @see JSONArray
      */
     public void add(final JSONArray value) {
-        list.add(value);
+        append(value);
     }
 
     /**
@@ -113,6 +155,8 @@ public final class JSONArray {
      * @return the Object at the specified position in this JSONArray.
      */
     public Object get(final int idx) {
+        if(frozen != null)
+            return frozen.get(idx);
         return list.get(idx);
     }
 
@@ -208,6 +252,220 @@ public final class JSONArray {
         return (JSONArray) get(idx);
     }
 
+    /**
+     * Returns the number of Objects in this JSONArray.
+     *
+     * @return the number of Objects in this JSONArray.
+     */
+    public int size() {
+        if(frozen != null)
+            return frozen.size();
+        return list.size();
+    }
+
+    /**
+     * Returns an iterator over the elements of this JSONArray that does not support removal.
+     *
+     * @return an iterator over the elements in order.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns a spliterator over the elements of this JSONArray.
+     * <p>
+     * The spliterator reports {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED} and splits the backing storage by index range.
+     * Mutable JSONArrays must not be modified while it is in use.
+     *
+     * @return a spliterator over the elements in order.
+     */
+    @Override
+    public Spliterator<Object> spliterator() {
+        if(frozen != null)
+            return frozen.spliterator();
+        return list.spliterator();
+    }
+
+    /**
+     * Returns a sequential stream over the elements of this JSONArray.
+     *
+     * @return a stream of the elements in order.
+     * @see #parallelStream()
+     */
+    public Stream<Object> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the elements of this JSONArray.
+     *
+     * @return a possibly parallel stream of the elements.
+     * @see #spliterator()
+     */
+    public Stream<Object> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a sequential stream over the elements of this JSONArray as integer values, call {@link IntStream#parallel()} to aggregate them in parallel.
+     *
+     * @return a stream of the integer elements in order.
+     * @throws ClassCastException when the stream reaches an element that is not an integer value.
+     * @see #getInteger(int)
+     */
+    public IntStream intStream() {
+        return stream().mapToInt(value -> (int) value);
+    }
+
+    /**
+     * Returns a sequential stream over the elements of this JSONArray as double values, integers and floats are widened alike.
+     * Call {@link DoubleStream#parallel()} to aggregate them in parallel.
+     *
+     * @return a stream of the numeric elements in order.
+     * @throws ClassCastException when the stream reaches an element that is not a number.
+     * @see #getFloat(int)
+     */
+    public DoubleStream doubleStream() {
+        return stream().mapToDouble(value -> ((Number) value).doubleValue());
+    }
+
+    /**
+     * Performs {@code action} for every element of this JSONArray together with its position, on the threads of the common ForkJoinPool.
+     * <p>
+     * Actions are performed in no particular order and concurrently, so {@code action} has to be thread-safe.
+     *
+     * @param action action to be performed for each element and its position.
+     * @see #parallelStream()
+     */
+    public void forEachParallel(final ObjIntConsumer<Object> action) {
+        Objects.requireNonNull(action);
+        IntStream.range(0, size()).parallel().forEach(idx -> action.accept(get(idx), idx));
+    }
+
+    /**
+     * Returns a deeply immutable version of this JSONArray.
+     *
+     * @return this JSONArray if it is already frozen, a frozen copy otherwise.
+     * @throws UnsupportedOperationException when any add method is called on the returned JSONArray.
+     * @see JSONObject#freeze()
+     */
+    public JSONArray freeze() {
+        if(frozen != null)
+            return this;
+
+        final Object[] elements = new Object[list.size()];
+        for(int i = 0; i < elements.length; i++)
+            elements[i] = JSONObject.freeze(list.get(i));
+        return new JSONArray((elements.length == 0) ? CompactElements.EMPTY : new CompactElements(elements));
+    }
+
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
+    /**
+     * Returns a frozen version of this JSONArray with {@code value} appended, leaving this JSONArray unchanged.
+     * <p>
+     * Large frozen JSONArrays are backed by a persistent vector, the returned version shares all but the last few elements
+     * with this one. Mutable JSONArrays are frozen first, so updates should be chained on the returned versions.
+     *
+     * @param value value to be appended, frozen if it is a mutable JSONObject or JSONArray.
+     * @return the updated version.
+     * @throws IllegalArgumentException if {@code value} is not a valid JSON-Type.
+     * @see JSONObject#with(String, Object)
+     */
+    public JSONArray withAppended(final Object value) {
+        final JSONArray base = freeze();
+        final Object frozenValue = JSONObject.freeze(JSONObject.requireJSONValue(value));
+        return new JSONArray(base.frozen.withAppended(frozenValue), (base.hash == 0) ? 0 : 31*base.hash + Objects.hashCode(frozenValue));
+    }
+
+    /**
+     * Returns a frozen version of this JSONArray with the element at the specified position replaced by {@code value},
+     * leaving this JSONArray unchanged.
+     *
+     * @param idx position of the element to replace.
+     * @param value value the element is to be replaced with, frozen if it is a mutable JSONObject or JSONArray.
+     * @return the updated version.
+     * @throws IndexOutOfBoundsException if {@code idx} is out of range.
+     * @see #withAppended(Object)
+     */
+    public JSONArray with(final int idx, final Object value) {
+        final JSONArray base = freeze();
+        final ImmutableElements updated = base.frozen.with(idx, JSONObject.freeze(JSONObject.requireJSONValue(value)));
+        return (updated == base.frozen) ? base : new JSONArray(updated);
+    }
+
+    /**
+     * Removes all elements so that this JSONArray can be handed out again by a {@link NodePool}.
+     *
+     * @return whether this JSONArray held at most {@code maxSize} elements, larger ones are not worth keeping at their capacity.
+     */
+    boolean recycle(final int maxSize) {
+        final boolean small = list.size() <= maxSize;
+        list.clear();
+        return small;
+    }
+
+    /**
+     * Returns a deep copy of this JSONArray that can be modified, regardless of whether this JSONArray is frozen.
+     *
+     * @return a mutable deep copy of this JSONArray.
+     */
+    public JSONArray copy() {
+        final JSONArray copy = new JSONArray();
+        copy.list.ensureCapacity(size());
+        for(int i = 0; i < size(); i++)
+            copy.list.add(JSONObject.copy(get(i)));
+        return copy;
+    }
+
+    /**
+     * Compares this JSONArray to another one element by element, nested values are compared recursively.
+     * <p>
+     * If both JSONArrays are frozen their cached hash codes are compared first, so unequal ones are usually told apart without comparing their elements.
+     *
+     * @param o the object to compare with.
+     * @return {@code true} if {@code o} is a JSONArray containing equal elements in the same order, regardless of whether either is frozen.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if(o == this)
+            return true;
+        if(!(o instanceof final JSONArray other) || size() != other.size())
+            return false;
+        if(frozen != null && other.frozen != null && hashCode() != other.hashCode())
+            return false;
+
+        for(int i = 0; i < size(); i++)
+            if(!Objects.equals(get(i), other.get(i)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns the structural hash code of this JSONArray, computed like {@link java.util.List#hashCode()}.
+     * <p>
+     * The hash code of a frozen JSONArray is computed once and cached. Versions derived through {@link #withAppended(Object)}
+     * extend the cached hash code of their base instead of recomputing it.
+     *
+     * @return the structural hash code of this JSONArray.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if(h == 0) {
+            h = 1;
+            for(int i = 0; i < size(); i++)
+                h = 31*h + Objects.hashCode(get(i));
+            if(frozen != null)
+                hash = h;
+        }
+        return h;
+    }
+
     /**
      * Produces a valid JSON-String describing this JSONArray.
      *
@@ -215,6 +473,8 @@ public final class JSONArray {
      */
     @Override
     public String toString() {
+        if(frozen != null)
+            return frozen.toString();
         return list.toString();
     }
 }
@@ -1,23 +1,63 @@
 package com.jelly.json;
 
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Runtime-Representation of the object type in JSON.
  * <p>
  * This class is implemented as an HashMap-Delegator with additional type-checking
  * and an enhanced {@link #toString()} method to generate a valid JSON-String to represent this JSONObject.
+ * <p>
+ * JSONObjects are equal if they have the same field names mapped to equal values. The structural hash code of a frozen JSONObject
+ * is computed once and cached, the one of a mutable JSONObject is computed on every call as its nested values can change at any time.
+ * Mutable JSONObjects must therefore not be modified while used as a key, just like any other key of a hash based collection.
  * @author Tom Berends
  */
 public final class JSONObject {
     /**
-     * HashMap holding all fields in this JSONObject.
+     * HashMap holding all fields in this JSONObject, {@code null} if this JSONObject is frozen.
      */
     private final HashMap<String, Object> fields;
 
+    /**
+     * Storage of a frozen JSONObject, {@code null} if this JSONObject is mutable.
+     */
+    private final ImmutableFields frozen;
+
+    /**
+     * Cached structural hash code of a frozen JSONObject, {@code 0} if it has not been computed yet or this JSONObject is mutable.
+     */
+    private int hash;
+
     public JSONObject() {
         fields = new HashMap<>();
+        frozen = null;
+    }
+
+    private JSONObject(final ImmutableFields frozen) {
+        fields = null;
+        this.frozen = frozen;
+    }
+
+    private JSONObject(final ImmutableFields frozen, final int hash) {
+        this(frozen);
+        this.hash = hash;
+    }
+
+    private void put(final String fieldName, final Object value) {
+        if(frozen != null)
+            throw new UnsupportedOperationException("JSONObject is frozen");
+        fields.put(Objects.requireNonNull(fieldName), value);
     }
 
     /**
@@ -41,7 +81,7 @@ public final class JSONObject {
      */
     public void set(final String fieldName, final Object value) {
         if (value == null)
-            fields.put(Objects.requireNonNull(fieldName), null);
+            put(fieldName, null);
         else if (value instanceof Boolean)
             set(fieldName, (boolean) value);
         else if (value instanceof Integer)
@@ -64,7 +104,7 @@ public final class JSONObject {
      * @param value value the field is to be set to.
      */
     public void set(final String fieldName, final boolean value) {
-        fields.put(Objects.requireNonNull(fieldName), value);
+        put(fieldName, value);
     }
 
     /**
@@ -73,7 +113,7 @@ public final class JSONObject {
      * @param value value the field is to be set to.
      */
     public void set(final String fieldName, final int value) {
-        fields.put(Objects.requireNonNull(fieldName), value);
+        put(fieldName, value);
     }
 
     /**
@@ -82,7 +122,7 @@ public final class JSONObject {
      * @param value value the field is to be set to.
      */
     public void set(final String fieldName, final float value) {
-        fields.put(Objects.requireNonNull(fieldName), value);
+        put(fieldName, value);
     }
 
     /**
@@ -91,7 +131,7 @@ public final class JSONObject {
      * @param value value the field is to be set to..
      */
     public void set(final String fieldName, final String value) {
-        fields.put(Objects.requireNonNull(fieldName), value);
+        put(fieldName, value);
     }
 
     /**
@@ -101,7 +141,7 @@ public final class JSONObject {
      * @see JSONObject
      */
     public void set(final String fieldName, final JSONObject value) {
-        fields.put(Objects.requireNonNull(fieldName), value);
+        put(fieldName, value);
     }
 
     /**
@@ -111,7 +151,7 @@ public final class JSONObject {
      * @see JSONArray
      */
     public void set(final String fieldName, final JSONArray value) {
-        fields.put(Objects.requireNonNull(fieldName), value);
+        put(fieldName, value);
     }
 
     /**
@@ -121,6 +161,8 @@ public final class JSONObject {
      * @return the value of the field with the specified name.
      */
     public Object get(final String fieldName) {
+        if(frozen != null)
+            return frozen.get(fieldName);
         return fields.get(fieldName);
     }
 
@@ -216,6 +258,276 @@ public final class JSONObject {
         return (JSONArray) get(fieldName);
     }
 
+    /**
+     * Returns an unmodifiable view of the names of all fields in this JSONObject.
+     *
+     * @return the names of all fields in this JSONObject.
+     */
+    public Set<String> fieldNames() {
+        if(frozen != null)
+            return frozen.nameSet();
+        return Collections.unmodifiableSet(fields.keySet());
+    }
+
+    /**
+     * Returns the number of fields in this JSONObject.
+     *
+     * @return the number of fields in this JSONObject.
+     */
+    public int size() {
+        if(frozen != null)
+            return frozen.size();
+        return fields.size();
+    }
+
+    /**
+     * Performs {@code action} for every field of this JSONObject.
+     *
+     * @param action action to be performed for each field name and value.
+     */
+    public void forEach(final BiConsumer<String, Object> action) {
+        Objects.requireNonNull(action);
+        if(frozen != null)
+            frozen.forEach(action);
+        else
+            fields.forEach(action);
+    }
+
+    /**
+     * Returns a spliterator over the fields of this JSONObject as immutable entries, in no particular order.
+     * <p>
+     * The spliterator of a frozen JSONObject reports {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED},
+     * the one of a mutable JSONObject splits the buckets of its HashMap and only knows its exact size before the first split.
+     * Mutable JSONObjects must not be modified while it is in use.
+     *
+     * @return a spliterator over the fields.
+     */
+    public Spliterator<Map.Entry<String, Object>> spliterator() {
+        if(frozen != null)
+            return frozen.spliterator();
+        return new EntrySpliterator(fields.entrySet().spliterator());
+    }
+
+    /**
+     * Hands out the entries of a HashMap as immutable copies, splitting wherever the spliterator of the HashMap splits.
+     */
+    private static final class EntrySpliterator implements Spliterator<Map.Entry<String, Object>> {
+        private final Spliterator<Map.Entry<String, Object>> entries;
+
+        private EntrySpliterator(final Spliterator<Map.Entry<String, Object>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Map.Entry<String, Object>> action) {
+            return entries.tryAdvance(entry -> action.accept(new AbstractMap.SimpleImmutableEntry<>(entry)));
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super Map.Entry<String, Object>> action) {
+            entries.forEachRemaining(entry -> action.accept(new AbstractMap.SimpleImmutableEntry<>(entry)));
+        }
+
+        @Override
+        public Spliterator<Map.Entry<String, Object>> trySplit() {
+            final Spliterator<Map.Entry<String, Object>> prefix = entries.trySplit();
+            return (prefix == null) ? null : new EntrySpliterator(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return entries.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return entries.characteristics() | NONNULL;
+        }
+    }
+
+    /**
+     * Returns a sequential stream over the fields of this JSONObject.
+     *
+     * @return a stream of the fields as immutable entries.
+     * @see #parallelStream()
+     */
+    public Stream<Map.Entry<String, Object>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the fields of this JSONObject.
+     *
+     * @return a possibly parallel stream of the fields as immutable entries.
+     */
+    public Stream<Map.Entry<String, Object>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a deeply immutable version of this JSONObject.
+     * <p>
+     * The frozen JSONObject and all of its nested JSONObjects and JSONArrays store their contents in arrays trimmed to their size
+     * and reject any modification. They can be shared between threads without copying or locking.
+     *
+     * @return this JSONObject if it is already frozen, a frozen copy otherwise.
+     * @throws UnsupportedOperationException when any setter is called on the returned JSONObject.
+     */
+    public JSONObject freeze() {
+        if(frozen != null)
+            return this;
+
+        final String[] names = new String[fields.size()];
+        final Object[] values = new Object[fields.size()];
+        int i = 0;
+        for(final Map.Entry<String, Object> field : fields.entrySet()) {
+            names[i] = field.getKey();
+            values[i++] = freeze(field.getValue());
+        }
+        return new JSONObject((names.length == 0) ? CompactFields.EMPTY : new CompactFields(names, values));
+    }
+
+    static Object freeze(final Object value) {
+        if(value instanceof final JSONObject jsonObject)
+            return jsonObject.freeze();
+        if(value instanceof final JSONArray jsonArray)
+            return jsonArray.freeze();
+        return value;
+    }
+
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
+    /**
+     * Returns a frozen version of this JSONObject with the field of the specified name set to {@code value}, leaving this JSONObject unchanged.
+     * <p>
+     * Large frozen JSONObjects are backed by a hash trie, the returned version shares everything but the path to the updated field
+     * with this one, so applying many small updates to a large JSONObject does not copy it each time.
+     * Mutable JSONObjects are frozen first, so updates should be chained on the returned versions.
+     *
+     * @param fieldName name of the field to set.
+     * @param value value the field is to be set to, frozen if it is a mutable JSONObject or JSONArray.
+     * @return the updated version.
+     * @throws IllegalArgumentException if {@code value} is not a valid JSON-Type.
+     */
+    public JSONObject with(final String fieldName, final Object value) {
+        Objects.requireNonNull(fieldName);
+        final JSONObject base = freeze();
+        final Object frozenValue = freeze(requireJSONValue(value));
+        final ImmutableFields updated = base.frozen.with(fieldName, frozenValue);
+        if(updated == base.frozen)
+            return base;
+        if(base.hash == 0)
+            return new JSONObject(updated);
+
+        final int removed = base.frozen.contains(fieldName) ? fieldHash(fieldName, base.frozen.get(fieldName)) : 0;
+        return new JSONObject(updated, base.hash - removed + fieldHash(fieldName, frozenValue));
+    }
+
+    /**
+     * Returns a frozen version of this JSONObject without the field of the specified name, leaving this JSONObject unchanged.
+     *
+     * @param fieldName name of the field to remove.
+     * @return the updated version.
+     * @see #with(String, Object)
+     */
+    public JSONObject without(final String fieldName) {
+        final JSONObject base = freeze();
+        final ImmutableFields updated = base.frozen.without(fieldName);
+        if(updated == base.frozen)
+            return base;
+        return new JSONObject(updated, (base.hash == 0) ? 0 : base.hash - fieldHash(fieldName, base.frozen.get(fieldName)));
+    }
+
+    /**
+     * Removes all fields so that this JSONObject can be handed out again by a {@link NodePool}.
+     *
+     * @return whether this JSONObject held at most {@code maxSize} fields, larger ones are not worth keeping at their capacity.
+     */
+    boolean recycle(final int maxSize) {
+        final boolean small = fields.size() <= maxSize;
+        fields.clear();
+        return small;
+    }
+
+    static Object requireJSONValue(final Object value) {
+        if(value == null || value instanceof Boolean || value instanceof Integer || value instanceof Float || value instanceof String
+                || value instanceof JSONObject || value instanceof JSONArray)
+            return value;
+        throw new IllegalArgumentException("invalid type " + value.getClass().getSimpleName() + " for JSON value");
+    }
+
+    /**
+     * Returns a deep copy of this JSONObject that can be modified, regardless of whether this JSONObject is frozen.
+     *
+     * @return a mutable deep copy of this JSONObject.
+     */
+    public JSONObject copy() {
+        final JSONObject copy = new JSONObject();
+        for(final String fieldName : fieldNames())
+            copy.fields.put(fieldName, copy(get(fieldName)));
+        return copy;
+    }
+
+    static Object copy(final Object value) {
+        if(value instanceof final JSONObject jsonObject)
+            return jsonObject.copy();
+        if(value instanceof final JSONArray jsonArray)
+            return jsonArray.copy();
+        return value;
+    }
+
+    /**
+     * Compares this JSONObject to another one field by field, nested values are compared recursively.
+     * <p>
+     * If both JSONObjects are frozen their cached hash codes are compared first, so unequal ones are usually told apart without comparing their fields.
+     *
+     * @param o the object to compare with.
+     * @return {@code true} if {@code o} is a JSONObject with the same field names mapped to equal values, regardless of whether either is frozen.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if(o == this)
+            return true;
+        if(!(o instanceof final JSONObject other) || size() != other.size())
+            return false;
+        if(frozen != null && other.frozen != null && hashCode() != other.hashCode())
+            return false;
+
+        for(final String fieldName : fieldNames()) {
+            final Object value = get(fieldName);
+            final Object otherValue = other.get(fieldName);
+            if(value == null ? (otherValue != null || !other.fieldNames().contains(fieldName)) : !value.equals(otherValue))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the structural hash code of this JSONObject, the sum of the hash codes of its fields like {@link Map#hashCode()}.
+     * <p>
+     * The hash code of a frozen JSONObject is computed once and cached. Versions derived through {@link #with(String, Object)}
+     * and {@link #without(String)} update the cached hash code of their base instead of recomputing it.
+     *
+     * @return the structural hash code of this JSONObject.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if(h == 0) {
+            for(final String fieldName : fieldNames())
+                h += fieldHash(fieldName, get(fieldName));
+            if(frozen != null)
+                hash = h;
+        }
+        return h;
+    }
+
+    private static int fieldHash(final String fieldName, final Object value) {
+        return fieldName.hashCode() ^ Objects.hashCode(value);
+    }
+
     /**
      * Produces a valid JSON-String describing this JSONObject.
      *
@@ -223,6 +535,8 @@ public final class JSONObject {
      */
     @Override
     public String toString() {
+        if(frozen != null)
+            return frozen.toString();
         return fields.toString();
     }
 }
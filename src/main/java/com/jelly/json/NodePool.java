@@ -0,0 +1,112 @@
+package com.jelly.json;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recycles JSONObjects and JSONArrays for workloads that parse a tree, process it and drop it right away.
+ * <p>
+ * JSONObjects and JSONArrays handed out by a pool are leased until the next call of {@link #release()}, which clears all of them
+ * at once and keeps them, together with the capacity of their HashMaps and ArrayLists, for the next trees. Once the pool is warmed up,
+ * parsing trees of similar shape no longer allocates containers at all. Containers that held more than {@link #MAX_RETAINED_SIZE}
+ * fields or elements are not kept, a single huge one would otherwise slow down iterating every tree it is reused in.
+ * <p>
+ * None of the leased JSONObjects and JSONArrays may be used after releasing them, not even through references that escaped
+ * the processing of the tree. Values that have to outlive it must be {@linkplain JSONObject#freeze() frozen} or
+ * {@linkplain JSONObject#copy() copied} before. Pools are not thread-safe, {@link #local()} provides one pool per thread.
+ */
+public final class NodePool {
+    /**
+     * Default maximum number of JSONObjects and of JSONArrays kept for reuse, containers released beyond that are left to the garbage collector.
+     */
+    public static final int DEFAULT_MAX_RETAINED = 4096;
+
+    /**
+     * Maximum number of fields or elements of a JSONObject or JSONArray kept for reuse, their HashMaps and ArrayLists keep that capacity.
+     */
+    public static final int MAX_RETAINED_SIZE = 256;
+
+    private static final ThreadLocal<NodePool> LOCAL = ThreadLocal.withInitial(NodePool::new);
+
+    private final int maxRetained;
+
+    private final ArrayDeque<JSONObject> freeObjects = new ArrayDeque<>();
+    private final ArrayDeque<JSONArray> freeArrays = new ArrayDeque<>();
+    private final List<JSONObject> leasedObjects = new ArrayList<>();
+    private final List<JSONArray> leasedArrays = new ArrayList<>();
+
+    public NodePool() {
+        this(DEFAULT_MAX_RETAINED);
+    }
+
+    /**
+     * @param maxRetained maximum number of JSONObjects and of JSONArrays kept for reuse.
+     */
+    public NodePool(final int maxRetained) {
+        if(maxRetained < 0)
+            throw new IllegalArgumentException("maxRetained must not be negative");
+        this.maxRetained = maxRetained;
+    }
+
+    /**
+     * Returns the pool of the current thread.
+     *
+     * @return the pool of the current thread.
+     */
+    public static NodePool local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Returns an empty JSONObject, leased until the next {@link #release()}.
+     *
+     * @return an empty JSONObject.
+     */
+    public JSONObject newJSONObject() {
+        JSONObject jsonObject = freeObjects.pollLast();
+        if(jsonObject == null)
+            jsonObject = new JSONObject();
+        leasedObjects.add(jsonObject);
+        return jsonObject;
+    }
+
+    /**
+     * Returns an empty JSONArray, leased until the next {@link #release()}.
+     *
+     * @return an empty JSONArray.
+     */
+    public JSONArray newJSONArray() {
+        JSONArray jsonArray = freeArrays.pollLast();
+        if(jsonArray == null)
+            jsonArray = new JSONArray();
+        leasedArrays.add(jsonArray);
+        return jsonArray;
+    }
+
+    /**
+     * Clears all JSONObjects and JSONArrays leased since the last release and takes them back for reuse.
+     */
+    public void release() {
+        for(final JSONObject jsonObject : leasedObjects) {
+            if(jsonObject.recycle(MAX_RETAINED_SIZE) && freeObjects.size() < maxRetained)
+                freeObjects.addLast(jsonObject);
+        }
+        leasedObjects.clear();
+
+        for(final JSONArray jsonArray : leasedArrays) {
+            if(jsonArray.recycle(MAX_RETAINED_SIZE) && freeArrays.size() < maxRetained)
+                freeArrays.addLast(jsonArray);
+        }
+        leasedArrays.clear();
+    }
+
+    /**
+     * Returns the number of JSONObjects and JSONArrays currently leased.
+     *
+     * @return the number of leased JSONObjects and JSONArrays.
+     */
+    public int leased() {
+        return leasedObjects.size() + leasedArrays.size();
+    }
+}
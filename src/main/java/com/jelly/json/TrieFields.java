@@ -0,0 +1,341 @@
+package com.jelly.json;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Persistent hash array mapped trie holding the fields of a frozen {@link JSONObject}.
+ * <p>
+ * Every node consumes five bits of the hash of a name and keeps its entries and child nodes in one array sized to their number,
+ * entries from the front and child nodes from the back. Updates copy the nodes on the path to the changed entry and share
+ * all others with the version they were applied to. Names whose hashes collide in all 32 bits end up in a collision node
+ * that is searched linearly.
+ */
+final class TrieFields implements ImmutableFields {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final Node EMPTY_NODE = new Node(0, 0, new Object[0]);
+    static final TrieFields EMPTY = new TrieFields(EMPTY_NODE, 0);
+
+    private final Node root;
+    private final int size;
+
+    private TrieFields(final Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static TrieFields of(final ImmutableFields fields) {
+        final TrieFields[] trie = {EMPTY};
+        fields.forEach((name, value) -> trie[0] = trie[0].with(name, value));
+        return trie[0];
+    }
+
+    /**
+     * Records whether an update changed the number of fields.
+     */
+    private static final class Change {
+        private int sizeDelta;
+    }
+
+    private static final class Node {
+        private final int dataMap;
+        private final int nodeMap;
+        private final Object[] content;
+
+        private Node(final int dataMap, final int nodeMap, final Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private int dataIndex(final int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(final int bit) {
+            return content.length - 1 - Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        private boolean isEmpty() {
+            return content.length == 0;
+        }
+
+        private Object get(final String name, final int hash, final int shift) {
+            if(shift >= Integer.SIZE)
+                return getCollision(name);
+
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if((dataMap & bit) != 0) {
+                final int idx = dataIndex(bit);
+                return content[2*idx].equals(name) ? content[2*idx + 1] : NOT_FOUND;
+            }
+            if((nodeMap & bit) != 0)
+                return ((Node) content[nodeIndex(bit)]).get(name, hash, shift + BITS);
+            return NOT_FOUND;
+        }
+
+        private Object getCollision(final String name) {
+            for(int i = 0; i < content.length; i += 2)
+                if(content[i].equals(name))
+                    return content[i + 1];
+            return NOT_FOUND;
+        }
+
+        private Node with(final String name, final int hash, final Object value, final int shift, final Change change) {
+            if(shift >= Integer.SIZE)
+                return withCollision(name, value, change);
+
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if((dataMap & bit) != 0) {
+                final int idx = dataIndex(bit);
+                final String existing = (String) content[2*idx];
+                if(existing.equals(name)) {
+                    if(content[2*idx + 1] == value)
+                        return this;
+                    final Object[] updated = content.clone();
+                    updated[2*idx + 1] = value;
+                    return new Node(dataMap, nodeMap, updated);
+                }
+
+                change.sizeDelta = 1;
+                final Node child = merge(existing, existing.hashCode(), content[2*idx + 1], name, hash, value, shift + BITS);
+                return replaceEntryWithNode(bit, idx, child);
+            }
+
+            if((nodeMap & bit) != 0) {
+                final int idx = nodeIndex(bit);
+                final Node child = (Node) content[idx];
+                final Node updatedChild = child.with(name, hash, value, shift + BITS, change);
+                if(updatedChild == child)
+                    return this;
+                final Object[] updated = content.clone();
+                updated[idx] = updatedChild;
+                return new Node(dataMap, nodeMap, updated);
+            }
+
+            change.sizeDelta = 1;
+            final int idx = dataIndex(bit);
+            final Object[] updated = new Object[content.length + 2];
+            System.arraycopy(content, 0, updated, 0, 2*idx);
+            updated[2*idx] = name;
+            updated[2*idx + 1] = value;
+            System.arraycopy(content, 2*idx, updated, 2*idx + 2, content.length - 2*idx);
+            return new Node(dataMap | bit, nodeMap, updated);
+        }
+
+        private Node withCollision(final String name, final Object value, final Change change) {
+            for(int i = 0; i < content.length; i += 2) {
+                if(content[i].equals(name)) {
+                    if(content[i + 1] == value)
+                        return this;
+                    final Object[] updated = content.clone();
+                    updated[i + 1] = value;
+                    return new Node(0, 0, updated);
+                }
+            }
+
+            change.sizeDelta = 1;
+            final Object[] updated = Arrays.copyOf(content, content.length + 2);
+            updated[content.length] = name;
+            updated[content.length + 1] = value;
+            return new Node(0, 0, updated);
+        }
+
+        private Node replaceEntryWithNode(final int bit, final int dataIdx, final Node child) {
+            final int nodeIdx = content.length - 2 - Integer.bitCount(nodeMap & (bit - 1));
+            final Object[] updated = new Object[content.length - 1];
+            System.arraycopy(content, 0, updated, 0, 2*dataIdx);
+            System.arraycopy(content, 2*dataIdx + 2, updated, 2*dataIdx, nodeIdx - 2*dataIdx);
+            updated[nodeIdx] = child;
+            System.arraycopy(content, nodeIdx + 2, updated, nodeIdx + 1, content.length - nodeIdx - 2);
+            return new Node(dataMap ^ bit, nodeMap | bit, updated);
+        }
+
+        private static Node merge(final String name1, final int hash1, final Object value1,
+                                  final String name2, final int hash2, final Object value2, final int shift) {
+            if(shift >= Integer.SIZE)
+                return new Node(0, 0, new Object[] {name1, value1, name2, value2});
+
+            final int fragment1 = (hash1 >>> shift) & MASK;
+            final int fragment2 = (hash2 >>> shift) & MASK;
+            if(fragment1 == fragment2)
+                return new Node(0, 1 << fragment1, new Object[] {merge(name1, hash1, value1, name2, hash2, value2, shift + BITS)});
+
+            final Object[] content = (fragment1 < fragment2)
+                    ? new Object[] {name1, value1, name2, value2}
+                    : new Object[] {name2, value2, name1, value1};
+            return new Node((1 << fragment1) | (1 << fragment2), 0, content);
+        }
+
+        private Node without(final String name, final int hash, final int shift, final Change change) {
+            if(shift >= Integer.SIZE) {
+                for(int i = 0; i < content.length; i += 2) {
+                    if(content[i].equals(name)) {
+                        change.sizeDelta = -1;
+                        return new Node(0, 0, removePair(content, i));
+                    }
+                }
+                return this;
+            }
+
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if((dataMap & bit) != 0) {
+                final int idx = dataIndex(bit);
+                if(!content[2*idx].equals(name))
+                    return this;
+                change.sizeDelta = -1;
+                return new Node(dataMap ^ bit, nodeMap, removePair(content, 2*idx));
+            }
+
+            if((nodeMap & bit) != 0) {
+                final int idx = nodeIndex(bit);
+                final Node child = (Node) content[idx];
+                final Node updatedChild = child.without(name, hash, shift + BITS, change);
+                if(updatedChild == child)
+                    return this;
+
+                if(updatedChild.isEmpty()) {
+                    final Object[] updated = new Object[content.length - 1];
+                    System.arraycopy(content, 0, updated, 0, idx);
+                    System.arraycopy(content, idx + 1, updated, idx, content.length - idx - 1);
+                    return new Node(dataMap, nodeMap ^ bit, updated);
+                }
+
+                final Object[] updated = content.clone();
+                updated[idx] = updatedChild;
+                return new Node(dataMap, nodeMap, updated);
+            }
+
+            return this;
+        }
+
+        private static Object[] removePair(final Object[] content, final int idx) {
+            final Object[] updated = new Object[content.length - 2];
+            System.arraycopy(content, 0, updated, 0, idx);
+            System.arraycopy(content, idx + 2, updated, idx, content.length - idx - 2);
+            return updated;
+        }
+
+        private int entryCount() {
+            return (dataMap == 0 && nodeMap == 0) ? content.length / 2 : Integer.bitCount(dataMap);
+        }
+
+        private int childCount() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        private void forEach(final BiConsumer<String, Object> action) {
+            for(int i = 0; i < entryCount(); i++)
+                action.accept((String) content[2*i], content[2*i + 1]);
+            for(int i = 0; i < childCount(); i++)
+                ((Node) content[content.length - 1 - i]).forEach(action);
+        }
+    }
+
+    @Override
+    public Object get(final String name) {
+        final Object value = root.get(name, name.hashCode(), 0);
+        return (value == NOT_FOUND) ? null : value;
+    }
+
+    @Override
+    public boolean contains(final Object name) {
+        return name instanceof final String string && root.get(string, string.hashCode(), 0) != NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TrieFields with(final String name, final Object value) {
+        final Change change = new Change();
+        final Node updated = root.with(name, name.hashCode(), value, 0, change);
+        return (updated == root) ? this : new TrieFields(updated, size + change.sizeDelta);
+    }
+
+    @Override
+    public TrieFields without(final String name) {
+        final Change change = new Change();
+        final Node updated = root.without(name, name.hashCode(), 0, change);
+        return (updated == root) ? this : new TrieFields(updated, size + change.sizeDelta);
+    }
+
+    @Override
+    public void forEach(final BiConsumer<String, Object> action) {
+        root.forEach(action);
+    }
+
+    @Override
+    public Set<String> nameSet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new NameIterator(root);
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return TrieFields.this.contains(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Walks the trie depth-first, visiting the entries of a node before its children like {@link #forEach(BiConsumer)} does.
+     */
+    private static final class NameIterator implements Iterator<String> {
+        private final Deque<Node> pending = new ArrayDeque<>();
+        private Node node;
+        private int entry;
+
+        private NameIterator(final Node root) {
+            node = root;
+            advance();
+        }
+
+        private void advance() {
+            while(node != null && entry == node.entryCount()) {
+                for(int i = node.childCount() - 1; i >= 0; i--)
+                    pending.push((Node) node.content[node.content.length - 1 - i]);
+                node = pending.poll();
+                entry = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return node != null;
+        }
+
+        @Override
+        public String next() {
+            if(node == null)
+                throw new NoSuchElementException();
+            final String name = (String) node.content[2 * entry++];
+            advance();
+            return name;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ImmutableFields.toString(this);
+    }
+}
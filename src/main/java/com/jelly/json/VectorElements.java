@@ -0,0 +1,129 @@
+package com.jelly.json;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Persistent vector of the elements of a frozen {@link JSONArray}.
+ * <p>
+ * Elements are stored in a trie of 32-element nodes plus a tail holding the last up to 32 elements.
+ * Appending copies only the tail and, every 32 elements, one path of the trie; replacing an element copies one path.
+ * Every other node is shared with the version the update was applied to.
+ */
+final class VectorElements implements ImmutableElements {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final VectorElements EMPTY = new VectorElements(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private VectorElements(final int size, final int shift, final Object[] root, final Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    static VectorElements of(final ImmutableElements elements) {
+        VectorElements vector = EMPTY;
+        for(int i = 0; i < elements.size(); i++)
+            vector = vector.withAppended(elements.get(i));
+        return vector;
+    }
+
+    private int tailOffset() {
+        return (size < WIDTH) ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    @Override
+    public Object get(final int idx) {
+        Objects.checkIndex(idx, size);
+        if(idx >= tailOffset())
+            return tail[idx & MASK];
+
+        Object[] node = root;
+        for(int level = shift; level > 0; level -= BITS)
+            node = (Object[]) node[(idx >>> level) & MASK];
+        return node[idx & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public VectorElements with(final int idx, final Object value) {
+        if(get(idx) == value)
+            return this;
+        if(idx >= tailOffset()) {
+            final Object[] updated = tail.clone();
+            updated[idx & MASK] = value;
+            return new VectorElements(size, shift, root, updated);
+        }
+        return new VectorElements(size, shift, assoc(shift, root, idx, value), tail);
+    }
+
+    private static Object[] assoc(final int level, final Object[] node, final int idx, final Object value) {
+        final Object[] updated = node.clone();
+        if(level == 0)
+            updated[idx & MASK] = value;
+        else {
+            final int child = (idx >>> level) & MASK;
+            updated[child] = assoc(level - BITS, (Object[]) node[child], idx, value);
+        }
+        return updated;
+    }
+
+    @Override
+    public VectorElements withAppended(final Object value) {
+        if(size - tailOffset() < WIDTH) {
+            final Object[] updated = Arrays.copyOf(tail, tail.length + 1);
+            updated[tail.length] = value;
+            return new VectorElements(size + 1, shift, root, updated);
+        }
+
+        final Object[] newRoot;
+        int newShift = shift;
+        if((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else
+            newRoot = pushTail(shift, root, tail);
+
+        return new VectorElements(size + 1, newShift, newRoot, new Object[] {value});
+    }
+
+    private Object[] pushTail(final int level, final Object[] parent, final Object[] tailNode) {
+        final int child = ((size - 1) >>> level) & MASK;
+        final Object[] updated = parent.clone();
+        if(level == BITS)
+            updated[child] = tailNode;
+        else {
+            final Object[] childNode = (Object[]) parent[child];
+            updated[child] = (childNode == null) ? newPath(level - BITS, tailNode) : pushTail(level - BITS, childNode, tailNode);
+        }
+        return updated;
+    }
+
+    private static Object[] newPath(final int level, final Object[] node) {
+        if(level == 0)
+            return node;
+        final Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return ImmutableElements.toString(this);
+    }
+}
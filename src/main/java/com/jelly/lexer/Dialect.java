@@ -0,0 +1,220 @@
+package com.jelly.lexer;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static com.jelly.lexer.TokenType.*;
+
+/**
+ * Syntax accepted by a {@link Lexer}, compiled once into lookup tables.
+ * <p>
+ * Every character a token may start with is mapped to a character class deciding how the token is lexed, and every character
+ * inside of a string to whether it is taken as is, starts an escape sequence or is rejected. A feature of a dialect is
+ * therefore expressed by the tables it compiles to, e.g. {@code '/'} only starts a comment in dialects with {@link Feature#COMMENTS}.
+ * The lexer does not check for features character by character, so supporting additional dialects costs the strict ones nothing.
+ * <p>
+ * Values keep the types of the data model regardless of the dialect, integers have to fit into an {@code int}.
+ */
+public final class Dialect {
+    /**
+     * Part of the syntax a dialect may accept in addition to the original Jelly grammar.
+     */
+    public enum Feature {
+        /**
+         * Negative numbers, exponents, and no leading zeros, as in RFC 8259.
+         * The range of numbers is still that of the data model: integers outside of the range of an {@code int}
+         * and floats outside of the range of a {@code float} are rejected, as RFC 8259 allows implementations to limit it.
+         */
+        RFC_NUMBERS,
+        /**
+         * Escape sequences in strings, as in RFC 8259. Control characters have to be escaped.
+         */
+        ESCAPES,
+        /**
+         * Line comments starting with {@code //} and block comments enclosed in {@code /*} and <code>*&#47;</code>.
+         */
+        COMMENTS,
+        /**
+         * A separator after the last field of an object or the last element of an array.
+         */
+        TRAILING_COMMAS,
+        /**
+         * Strings enclosed in single quotes.
+         */
+        SINGLE_QUOTES,
+        /**
+         * Field names written as identifiers of ASCII letters, digits, {@code _} and {@code $} without quotes.
+         */
+        UNQUOTED_NAMES,
+        /**
+         * Leading {@code +}, leading and trailing decimal points, hexadecimal integers, {@code Infinity} and {@code NaN}.
+         */
+        JSON5_NUMBERS,
+        /**
+         * The additional escape sequences of JSON5 and escaped line breaks, requires {@link #ESCAPES}.
+         */
+        JSON5_ESCAPES,
+        /**
+         * Vertical tabs and form feeds as whitespace.
+         */
+        JSON5_WHITESPACE
+    }
+
+    /**
+     * The original Jelly grammar: double-quoted strings without escape sequences and unsigned numbers without exponents.
+     */
+    public static final Dialect JELLY = of(EnumSet.noneOf(Feature.class));
+
+    /**
+     * JSON as specified by RFC 8259, with the limits on numbers set by the data model, see {@link Feature#RFC_NUMBERS}.
+     * A document like {@code [3000000000]} is valid JSON but rejected, as its integer does not fit into an {@code int}.
+     */
+    public static final Dialect STRICT = of(EnumSet.of(Feature.RFC_NUMBERS, Feature.ESCAPES));
+
+    /**
+     * JSON with comments and trailing commas, as accepted for configuration files by many editors.
+     */
+    public static final Dialect JSONC = of(EnumSet.of(Feature.RFC_NUMBERS, Feature.ESCAPES, Feature.COMMENTS, Feature.TRAILING_COMMAS));
+
+    /**
+     * JSON5, limited to ASCII identifiers for unquoted field names.
+     */
+    public static final Dialect JSON5 = of(EnumSet.allOf(Feature.class));
+
+    static final int TABLE_SIZE = 128;
+
+    // character classes of the first character of a token
+    static final byte INVALID = 0;
+    static final byte STRUCTURAL = 1;
+    static final byte WHITESPACE = 2;
+    static final byte LINE_FEED = 3;
+    static final byte RETURN = 4;
+    static final byte QUOTE = 5;
+    static final byte NUMBER = 6;
+    static final byte KEYWORD = 7;
+    static final byte IDENTIFIER = 8;
+    static final byte COMMENT = 9;
+    static final byte TRAILING_SEPARATOR = 10;
+
+    // character classes inside of strings
+    static final byte PLAIN = 0;
+    static final byte ESCAPE = 1;
+    static final byte REJECTED = 2;
+
+    private final Set<Feature> features;
+
+    final byte[] classes = new byte[TABLE_SIZE];
+    final TokenType[] structuralTypes = new TokenType[TABLE_SIZE];
+    final byte[] stringClasses = new byte[TABLE_SIZE];
+
+    final boolean rfcNumbers;
+    final boolean json5Numbers;
+    final boolean json5Escapes;
+    final boolean unquotedNames;
+
+    private Dialect(final Set<Feature> features) {
+        this.features = Collections.unmodifiableSet(features);
+        rfcNumbers = features.contains(Feature.RFC_NUMBERS);
+        json5Numbers = features.contains(Feature.JSON5_NUMBERS);
+        json5Escapes = features.contains(Feature.JSON5_ESCAPES);
+        unquotedNames = features.contains(Feature.UNQUOTED_NAMES);
+
+        structural('{', LEFT_CURLY_BRACE);
+        structural('}', RIGHT_CURLY_BRACE);
+        structural('[', LEFT_SQUARE_BRACKET);
+        structural(']', RIGHT_SQUARE_BRACKET);
+        structural(':', COLON);
+        structural(',', SEPARATOR);
+        if(features.contains(Feature.TRAILING_COMMAS))
+            classes[','] = TRAILING_SEPARATOR;
+
+        classes[' '] = WHITESPACE;
+        classes['\t'] = WHITESPACE;
+        if(features.contains(Feature.JSON5_WHITESPACE)) {
+            classes[0x0B] = WHITESPACE;
+            classes['\f'] = WHITESPACE;
+        }
+        classes['\n'] = LINE_FEED;
+        classes['\r'] = RETURN;
+
+        classes['"'] = QUOTE;
+        if(features.contains(Feature.SINGLE_QUOTES))
+            classes['\''] = QUOTE;
+
+        for(char c = '0'; c <= '9'; c++)
+            classes[c] = NUMBER;
+        if(rfcNumbers || json5Numbers)
+            classes['-'] = NUMBER;
+        if(json5Numbers) {
+            classes['+'] = NUMBER;
+            classes['.'] = NUMBER;
+        }
+
+        if(unquotedNames) {
+            for(char c = 'a'; c <= 'z'; c++)
+                classes[c] = IDENTIFIER;
+            for(char c = 'A'; c <= 'Z'; c++)
+                classes[c] = IDENTIFIER;
+            classes['_'] = IDENTIFIER;
+            classes['$'] = IDENTIFIER;
+        } else {
+            classes['t'] = KEYWORD;
+            classes['f'] = KEYWORD;
+            classes['n'] = KEYWORD;
+            if(json5Numbers) {
+                classes['I'] = IDENTIFIER;
+                classes['N'] = IDENTIFIER;
+            }
+        }
+
+        if(features.contains(Feature.COMMENTS))
+            classes['/'] = COMMENT;
+
+        stringClasses['\n'] = REJECTED;
+        stringClasses['\r'] = REJECTED;
+        if(features.contains(Feature.ESCAPES)) {
+            stringClasses['\\'] = ESCAPE;
+            for(char c = 0; c < 0x20; c++)
+                stringClasses[c] = REJECTED;
+        }
+    }
+
+    private void structural(final char c, final TokenType type) {
+        classes[c] = STRUCTURAL;
+        structuralTypes[c] = type;
+    }
+
+    /**
+     * Compiles a dialect accepting the original Jelly grammar extended by {@code features}.
+     *
+     * @throws IllegalArgumentException if {@link Feature#JSON5_ESCAPES} is requested without {@link Feature#ESCAPES}.
+     */
+    public static Dialect of(final Set<Feature> features) {
+        final EnumSet<Feature> copy = features.isEmpty() ? EnumSet.noneOf(Feature.class) : EnumSet.copyOf(features);
+        if(copy.contains(Feature.JSON5_ESCAPES) && !copy.contains(Feature.ESCAPES))
+            throw new IllegalArgumentException("JSON5_ESCAPES requires ESCAPES");
+        return new Dialect(copy);
+    }
+
+    public Set<Feature> features() {
+        return features;
+    }
+
+    public boolean supports(final Feature feature) {
+        return features.contains(feature);
+    }
+
+    byte classOf(final char c) {
+        return (c < TABLE_SIZE) ? classes[c] : INVALID;
+    }
+
+    byte stringClassOf(final char c) {
+        return (c < TABLE_SIZE) ? stringClasses[c] : PLAIN;
+    }
+
+    @Override
+    public String toString() {
+        return "Dialect" + features;
+    }
+}
@@ -1,13 +1,25 @@
 package com.jelly.lexer;
 
 
+import com.jelly.metrics.ParseMetrics;
 import com.jelly.scanner.Scanner;
 import com.jelly.util.ParsingException;
+import com.jelly.util.SourceLocator;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
 
 import static com.jelly.lexer.TokenType.*;
 
+/**
+ * Splits the characters handed out by a {@link Scanner} into tokens of the syntax defined by a {@link Dialect}, {@link Dialect#JELLY} by default.
+ * <p>
+ * The first character of every token is looked up in the character classes of the dialect, which select how the rest of the token is lexed.
+ * Separators after the last value of an object or array and unquoted field names can only be told apart by the token following them,
+ * dialects allowing them make the lexer read ahead until that token. Comments are handed out as {@link TokenType#WHITE_SPACE}.
+ */
 public class Lexer implements AutoCloseable {
     private static final char[] TRUE = {'t', 'r', 'u', 'e'};
     private static final char[] FALSE = {'f', 'a', 'l', 's', 'e'};
@@ -16,11 +28,43 @@ public class Lexer implements AutoCloseable {
     private Scanner scanner;
     private boolean closed;
 
+    private final ParseMetrics metrics;
+    private final Dialect dialect;
+    private boolean stackTraces = true;
+
+    private long tokenStart;
+
     private Result buffer;
     private boolean removed = true;
 
+    /**
+     * Tokens lexed ahead of {@link #buffer} to resolve trailing separators and unquoted field names.
+     */
+    private final Deque<Lexed> ahead = new ArrayDeque<>();
+
+    private record Lexed(Result result, long start) { }
+
+    /**
+     * Type of the last token handed out that is not whitespace, a trailing separator has to follow a value.
+     */
+    private TokenType previous;
+
     public Lexer(final Scanner scanner) {
+        this(scanner, null, Dialect.JELLY);
+    }
+
+    public Lexer(final Scanner scanner, final ParseMetrics metrics) {
+        this(scanner, metrics, Dialect.JELLY);
+    }
+
+    public Lexer(final Scanner scanner, final Dialect dialect) {
+        this(scanner, null, dialect);
+    }
+
+    public Lexer(final Scanner scanner, final ParseMetrics metrics, final Dialect dialect) {
         this.scanner = scanner;
+        this.metrics = metrics;
+        this.dialect = Objects.requireNonNull(dialect);
     }
 
     private char nextChar() throws IOException {
@@ -37,54 +81,187 @@ public class Lexer implements AutoCloseable {
         return next;
     }
 
+    private boolean isEnd(final char c) throws IOException {
+        return c == (char) -1 && !scanner.hasNext();
+    }
+
     private Result processString() throws IOException {
         final char quote = readAndRemoveChar();
 
         final StringBuilder builder = new StringBuilder();
         char curr = readAndRemoveChar();
         while(curr != quote) {
-            if(curr == '\n' || curr == '\r')
-                return Result.from(new UnexpectedCharacterException(curr, quote));
-            builder.append(curr);
+            switch(dialect.stringClassOf(curr)) {
+                case Dialect.PLAIN -> {
+                    if(isEnd(curr))
+                        return Result.from(new UnexpectedCharacterException(curr, quote));
+                    builder.append(curr);
+                }
+                case Dialect.ESCAPE -> {
+                    final LexicalException error = processEscape(builder);
+                    if(error != null)
+                        return Result.from(error);
+                }
+                default -> {
+                    return Result.from(new UnexpectedCharacterException(curr, quote));
+                }
+            }
             curr = readAndRemoveChar();
         }
 
         return Result.from(STRING, builder.toString());
     }
 
-    private Result processInteger() throws IOException {
-        final StringBuilder integerBuilder = new StringBuilder();
+    /**
+     * Appends the character denoted by the escape sequence following a backslash.
+     *
+     * @return the error if the escape sequence is invalid, {@code null} otherwise.
+     */
+    private LexicalException processEscape(final StringBuilder builder) throws IOException {
+        final char escaped = readAndRemoveChar();
+        switch(escaped) {
+            case '"', '\\', '/' -> builder.append(escaped);
+            case 'b' -> builder.append('\b');
+            case 'f' -> builder.append('\f');
+            case 'n' -> builder.append('\n');
+            case 'r' -> builder.append('\r');
+            case 't' -> builder.append('\t');
+            case 'u' -> {
+                return processHexEscape(builder, 4);
+            }
+            default -> {
+                if(!dialect.json5Escapes || isEnd(escaped) || ('1' <= escaped && escaped <= '9'))
+                    return new LexicalException("Invalid escape sequence \\" + escaped);
+                switch(escaped) {
+                    case 'v' -> builder.append((char) 0x0B);
+                    case '0' -> builder.append('\0');
+                    case 'x' -> {
+                        return processHexEscape(builder, 2);
+                    }
+                    case '\n' -> { } // escaped line break, not part of the string
+                    case '\r' -> {
+                        if(nextChar() == '\n')
+                            removeChar();
+                    }
+                    default -> builder.append(escaped);
+                }
+            }
+        }
+        return null;
+    }
+
+    private LexicalException processHexEscape(final StringBuilder builder, final int digits) throws IOException {
+        int value = 0;
+        for(int i = 0; i < digits; i++) {
+            final char curr = readAndRemoveChar();
+            final int digit = Character.digit(curr, 16);
+            if(digit < 0)
+                return new UnexpectedCharacterException(curr);
+            value = (value << 4) | digit;
+        }
+        builder.append((char) value);
+        return null;
+    }
+
+    private String readDigits(final int radix) throws IOException {
+        final StringBuilder builder = new StringBuilder();
 
         char curr = nextChar();
-        while('0' <= curr && curr <= '9') {
+        while(Character.digit(curr, radix) >= 0 && curr < Dialect.TABLE_SIZE) {
             removeChar();
-            integerBuilder.append(curr);
+            builder.append(curr);
             curr = nextChar();
         }
 
-        return Result.from(INTEGER, Integer.parseInt(integerBuilder.toString()));
+        return builder.toString();
     }
 
     private Result processNumber() throws IOException {
-        final Result mantissaResult = processInteger();
-
-        if(nextChar() != '.')
-            return mantissaResult;
-        removeChar();
-
-        final StringBuilder fractionBuilder = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
 
         char curr = nextChar();
-        while('0' <= curr && curr <= '9') {
+        if(curr == '-' || curr == '+') {
             removeChar();
-            fractionBuilder.append(curr);
+            literal.append(curr);
             curr = nextChar();
+            if(dialect.json5Numbers && (curr == 'I' || curr == 'N'))
+                return processNamedNumber(literal);
         }
 
-        if(fractionBuilder.isEmpty())
+        final String mantissa = readDigits(10);
+        literal.append(mantissa);
+        curr = nextChar();
+        if(dialect.json5Numbers && mantissa.equals("0") && (curr == 'x' || curr == 'X'))
+            return processHexadecimal(literal.append(readAndRemoveChar()));
+
+        if(mantissa.isEmpty() && !(dialect.json5Numbers && curr == '.'))
             return Result.from(new UnexpectedCharacterException(curr));
+        if(dialect.rfcNumbers && mantissa.length() > 1 && mantissa.charAt(0) == '0')
+            return Result.from(new LexicalException("Leading zeros are not allowed"));
+
+        boolean isFloat = false;
+        if(curr == '.') {
+            removeChar();
+            final String fraction = readDigits(10);
+            if(fraction.isEmpty() && (mantissa.isEmpty() || !dialect.json5Numbers))
+                return Result.from(new UnexpectedCharacterException(nextChar()));
+            literal.append('.').append(fraction);
+            isFloat = true;
+            curr = nextChar();
+        }
+
+        if(dialect.rfcNumbers && (curr == 'e' || curr == 'E')) {
+            literal.append(readAndRemoveChar());
+            curr = nextChar();
+            if(curr == '-' || curr == '+')
+                literal.append(readAndRemoveChar());
+            final String exponent = readDigits(10);
+            if(exponent.isEmpty())
+                return Result.from(new UnexpectedCharacterException(nextChar()));
+            literal.append(exponent);
+            isFloat = true;
+        }
+
+        final String text = literal.toString();
+        if(isFloat) {
+            final float value = Float.parseFloat(text);
+            if(Float.isInfinite(value))
+                return Result.from(new LexicalException("Float out of range"));
+            return Result.from(new Token(FLOAT, value, text));
+        }
 
-        return Result.from(FLOAT, Float.parseFloat(mantissaResult.token.value.toString() + '.' + fractionBuilder));
+        try {
+            return Result.from(new Token(INTEGER, Integer.parseInt(text), text));
+        } catch(final NumberFormatException e) {
+            return Result.from(new LexicalException("Integer out of range"));
+        }
+    }
+
+    private Result processHexadecimal(final StringBuilder literal) throws IOException {
+        final String digits = readDigits(16);
+        if(digits.isEmpty())
+            return Result.from(new UnexpectedCharacterException(nextChar()));
+        literal.append(digits);
+
+        final boolean negative = literal.charAt(0) == '-';
+        try {
+            return Result.from(new Token(INTEGER, Integer.parseInt((negative ? "-" : "") + digits, 16), literal.toString()));
+        } catch(final NumberFormatException e) {
+            return Result.from(new LexicalException("Integer out of range"));
+        }
+    }
+
+    private Result processNamedNumber(final StringBuilder literal) throws IOException {
+        final String name = readIdentifier();
+        final float value;
+        if(name.equals("Infinity"))
+            value = Float.POSITIVE_INFINITY;
+        else if(name.equals("NaN"))
+            value = Float.NaN;
+        else
+            return Result.from(new LexicalException("Unexpected identifier " + name));
+
+        return Result.from(new Token(FLOAT, (literal.charAt(0) == '-') ? -value : value, literal.append(name).toString()));
     }
 
     private Result processKeyword(final TokenType type, final char[] keyword, final Object value) throws IOException {
@@ -109,9 +286,73 @@ public class Lexer implements AutoCloseable {
             return Result.from(new UnexpectedCharacterException(curr));
     }
 
+    private static boolean isIdentifierPart(final char c) {
+        return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || ('0' <= c && c <= '9') || c == '_' || c == '$';
+    }
+
+    private String readIdentifier() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+
+        char curr = nextChar();
+        while(isIdentifierPart(curr)) {
+            removeChar();
+            builder.append(curr);
+            curr = nextChar();
+        }
+
+        return builder.toString();
+    }
+
+    private Result processIdentifier() throws IOException {
+        final String identifier = readIdentifier();
+        if(!dialect.unquotedNames)
+            return resolveIdentifier(identifier, tokenStart);
+        return Result.unresolved(STRING, identifier);
+    }
+
+    /**
+     * Resolves an identifier that is not used as a field name into the keyword or named number it has to be.
+     */
+    private Result resolveIdentifier(final String identifier, final long start) {
+        return switch(identifier) {
+            case "true" -> Result.from(TokenType.TRUE, true);
+            case "false" -> Result.from(TokenType.FALSE, false);
+            case "null" -> Result.from(TokenType.NULL, null);
+            case "Infinity" -> dialect.json5Numbers ? Result.from(new Token(FLOAT, Float.POSITIVE_INFINITY, identifier)) : Result.from(new LexicalException("Unexpected identifier " + identifier, start));
+            case "NaN" -> dialect.json5Numbers ? Result.from(new Token(FLOAT, Float.NaN, identifier)) : Result.from(new LexicalException("Unexpected identifier " + identifier, start));
+            default -> Result.from(new LexicalException("Unexpected identifier " + identifier, start));
+        };
+    }
+
+    private Result processComment() throws IOException {
+        removeChar();
+        final char kind = readAndRemoveChar();
+        if(kind == '/') {
+            char curr = nextChar();
+            while(curr != '\n' && curr != '\r' && !isEnd(curr)) {
+                removeChar();
+                curr = nextChar();
+            }
+            return Result.from(WHITE_SPACE, " ");
+        }
+
+        if(kind != '*')
+            return Result.from(new UnexpectedCharacterException(kind));
+
+        char previous = 0;
+        while(true) {
+            final char curr = readAndRemoveChar();
+            if(isEnd(curr))
+                return Result.from(new LexicalException("Unterminated comment"));
+            if(previous == '*' && curr == '/')
+                return Result.from(WHITE_SPACE, " ");
+            previous = curr;
+        }
+    }
+
     private Result processWhitespace() throws IOException {
         char curr = nextChar();
-        while(curr == ' ' || curr == '\t') {
+        while(dialect.classOf(curr) == Dialect.WHITESPACE) {
             removeChar();
             curr = nextChar();
         }
@@ -120,45 +361,106 @@ public class Lexer implements AutoCloseable {
 
     private Result processNextChar() throws IOException {
         final char curr = nextChar();
+        tokenStart = scanner.getPosition() - 1;
 
         final Result result;
-        switch(curr) {
-            case '{' -> result = Result.from(LEFT_CURLY_BRACE, curr);
-            case '}' -> result = Result.from(RIGHT_CURLY_BRACE, curr);
-            case '[' -> result = Result.from(LEFT_SQUARE_BRACKET, curr);
-            case ']' -> result = Result.from(RIGHT_SQUARE_BRACKET, curr);
-            case ':' -> result = Result.from(COLON, curr);
-            case ',' -> result = Result.from(SEPARATOR, curr);
-            case '\r' -> result = Result.from(CARRIAGE_RETURN, curr);
-            case '\n' -> result = Result.from(NEWLINE, curr);
-            case ' ' -> {
-                return processWhitespace(); //dunno
+        switch(dialect.classOf(curr)) {
+            case Dialect.STRUCTURAL -> result = Result.from(dialect.structuralTypes[curr], curr);
+            case Dialect.TRAILING_SEPARATOR -> result = Result.unresolved(SEPARATOR, curr);
+            case Dialect.LINE_FEED -> result = Result.from(NEWLINE, curr);
+            case Dialect.RETURN -> result = Result.from(CARRIAGE_RETURN, curr);
+            case Dialect.WHITESPACE -> {
+                return processWhitespace();
             }
-            case '"' -> result = processString();
-            default -> {
-                if('0' <= curr && curr <= '9')
-                    return processNumber(); //dunno either
-                else if(curr == 't' || curr == 'f' || curr == 'n') //true false null
-                    result = processKeyword();
-                else
-                    result = Result.from(new UnexpectedCharacterException(curr));
+            case Dialect.QUOTE -> result = processString();
+            case Dialect.NUMBER -> {
+                return processNumber();
             }
+            case Dialect.KEYWORD -> result = processKeyword();
+            case Dialect.IDENTIFIER -> {
+                return processIdentifier();
+            }
+            case Dialect.COMMENT -> {
+                return processComment();
+            }
+            default -> result = Result.from(new UnexpectedCharacterException(curr));
         }
 
         removeChar();
         return result;
     }
 
+    /**
+     * Returns the next token that is lexed ahead already, lexing it if there is none.
+     */
+    private Result nextResult() throws IOException {
+        final Lexed lexed = ahead.poll();
+        if(lexed == null)
+            return processNextChar();
+
+        tokenStart = lexed.start();
+        return lexed.result();
+    }
+
+    /**
+     * Returns the first token after those lexed ahead so far that is not whitespace, lexing ahead until there is one.
+     *
+     * @return the token or {@code null} if the input ends before.
+     */
+    private Result peekSignificant() throws IOException {
+        for(final Lexed lexed : ahead)
+            if(!lexed.result().isIgnorable())
+                return lexed.result();
+
+        while(scanner.hasNext()) {
+            final Result result = processNextChar();
+            ahead.add(new Lexed(result, tokenStart));
+            if(!result.isIgnorable())
+                return result;
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a separator or identifier whose meaning depends on the following token.
+     */
+    private Result resolve(final Result result) throws IOException {
+        final long start = tokenStart;
+        final Result following = peekSignificant();
+        final TokenType followingType = (following != null && following.hasToken()) ? following.token.type : null;
+
+        if(result.token.type == SEPARATOR) {
+            final boolean afterValue = previous != null && previous != LEFT_CURLY_BRACE && previous != LEFT_SQUARE_BRACKET && previous != SEPARATOR && previous != COLON;
+            if(afterValue && (followingType == RIGHT_CURLY_BRACE || followingType == RIGHT_SQUARE_BRACKET))
+                return nextResult();
+            tokenStart = start;
+            return Result.from(result.token);
+        }
+
+        tokenStart = start;
+        if(followingType == COLON)
+            return Result.from(result.token);
+        return resolveIdentifier((String) result.token.value, start);
+    }
+
     public Token next() throws IOException, LexicalException {
         if(!removed)
             return buffer.token;
 
-        buffer = processNextChar();
+        Result result = nextResult();
+        while(result.unresolved())
+            result = resolve(result);
+        buffer = result;
         removed = false;
 
         if(buffer.hasError())
             throw buffer.error;
 
+        if(!buffer.isIgnorable())
+            previous = buffer.token.type;
+        if(metrics != null)
+            metrics.countToken(buffer.token.type);
+
         return buffer.token;
     }
 
@@ -167,7 +469,39 @@ public class Lexer implements AutoCloseable {
     }
 
     public boolean hasNext() throws IOException {
-        return !removed || scanner.hasNext();
+        return !removed || !ahead.isEmpty() || scanner.hasNext();
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public long getPosition() {
+        return scanner.getPosition();
+    }
+
+    /**
+     * Returns the 0-based offset of the first character of the token most recently returned by {@link #next()}.
+     */
+    public long getTokenStart() {
+        return tokenStart;
+    }
+
+    public SourceLocator getLocator() {
+        return scanner.getLocator();
+    }
+
+    /**
+     * Sets whether exceptions thrown by this Lexer fill in their stack trace.
+     * <p>
+     * Disabling stack traces makes rejecting malformed input considerably cheaper.
+     */
+    public void setStackTraces(final boolean stackTraces) {
+        this.stackTraces = stackTraces;
+    }
+
+    public boolean hasStackTraces() {
+        return stackTraces;
     }
 
     @Override
@@ -181,17 +515,21 @@ public class Lexer implements AutoCloseable {
     }
 
     class LexicalException extends ParsingException { //add FILE
-        LexicalException(final String msg) throws IOException {
-            super(msg, scanner.getLine(), scanner.getLineNumber(), scanner.getColumn());
+        LexicalException(final String msg) {
+            this(msg, scanner.getPosition() - 1);
+        }
+
+        LexicalException(final String msg, final long offset) {
+            super(msg, offset, scanner.getLocator(), stackTraces);
         }
     }
 
     class UnexpectedCharacterException extends LexicalException {
-        UnexpectedCharacterException(final char unexpected) throws IOException {
+        UnexpectedCharacterException(final char unexpected) {
             super("Unexpected " + stringify(unexpected));
         }
 
-        UnexpectedCharacterException(final char unexpected, final char expected) throws IOException {
+        UnexpectedCharacterException(final char unexpected, final char expected) {
             super("Unexpected " + stringify(unexpected) + " expected " + stringify(expected));
         }
 
@@ -200,22 +538,35 @@ public class Lexer implements AutoCloseable {
                 return "newline";
             else if(ch == '\r')
                 return "carriage return";
+            else if(ch == (char) -1)
+                return "end of input";
             else
                 return "'" + ch + "'";
         }
     }
 
-    private record Result(Token token, LexicalException error) {
+    /**
+     * Lexed token or error, {@code unresolved} if the token is a separator or identifier whose meaning depends on the following token.
+     */
+    private record Result(Token token, LexicalException error, boolean unresolved) {
         private static Result from(final Token token) {
-            return new Result(token, null);
+            return new Result(token, null, false);
         }
 
         private static Result from(final TokenType type, final Object value) {
-            return new Result(new Token(type, value), null);
+            return new Result(new Token(type, value), null, false);
         }
 
         private static Result from(final LexicalException error) {
-            return new Result(null, error);
+            return new Result(null, error, false);
+        }
+
+        private static Result unresolved(final TokenType type, final Object value) {
+            return new Result(new Token(type, value), null, true);
+        }
+
+        private boolean isIgnorable() {
+            return token != null && (token.type == WHITE_SPACE || token.type == NEWLINE || token.type == CARRIAGE_RETURN);
         }
 
         private boolean hasToken() {
@@ -6,10 +6,16 @@ import static com.jelly.lexer.TokenType.NEWLINE;
 public class Token {
     final TokenType type;
     final Object value;
+    final String literal;
 
     public Token(final TokenType type, final Object value) {
+        this(type, value, null);
+    }
+
+    public Token(final TokenType type, final Object value, final String literal) {
         this.type = type;
         this.value = value;
+        this.literal = literal;
     }
 
     public TokenType getType() {
@@ -20,6 +26,15 @@ public class Token {
         return value;
     }
 
+    /**
+     * Returns the source text of a number token, which may carry more digits than its value.
+     *
+     * @return the literal of an {@link TokenType#INTEGER} or {@link TokenType#FLOAT} token, {@code null} for other tokens.
+     */
+    public String getLiteral() {
+        return literal;
+    }
+
     @Override
     public String toString() {
         if(type == NEWLINE || type == CARRIAGE_RETURN)
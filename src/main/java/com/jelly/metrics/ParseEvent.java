@@ -0,0 +1,39 @@
+package com.jelly.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jelly.Parse")
+@Label("JSON Document Parsed")
+@Category("Jelly")
+@Description("Parsing of a single JSON document")
+@StackTrace(false)
+final class ParseEvent extends Event {
+    @Label("Characters Scanned")
+    @DataAmount
+    long scannedCharacters;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Strings")
+    int strings;
+
+    @Label("Numbers")
+    int numbers;
+
+    @Label("Maximum Depth")
+    int maxDepth;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Successful")
+    boolean successful;
+}
@@ -0,0 +1,11 @@
+package com.jelly.metrics;
+
+/**
+ * Receives the {@link ParseMetrics} of every document parsed while it is registered with {@link ParseMonitoring}.
+ * <p>
+ * Listeners are called on the parsing thread right after the document has been parsed and should return quickly.
+ */
+@FunctionalInterface
+public interface ParseListener {
+    void onDocumentParsed(ParseMetrics metrics);
+}
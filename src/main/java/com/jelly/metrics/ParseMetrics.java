@@ -0,0 +1,116 @@
+package com.jelly.metrics;
+
+import com.jelly.lexer.TokenType;
+
+import static com.jelly.lexer.TokenType.FLOAT;
+import static com.jelly.lexer.TokenType.INTEGER;
+import static com.jelly.lexer.TokenType.STRING;
+
+/**
+ * Counters collected while parsing a single document.
+ * <p>
+ * Instances are only created by {@link ParseMonitoring#start()} while monitoring is enabled.
+ * The parser, lexer and scanner hold {@code null} otherwise so that the only cost left on their hot paths is a null check.
+ * This class is final so that the counting methods are never dispatched virtually.
+ */
+public final class ParseMetrics {
+    private final int[] tokenCounts = new int[TokenType.values().length];
+    private int depth;
+    private int maxDepth;
+
+    private long scannedCharacters;
+    private long startNanos;
+    private long durationNanos;
+    private long startAllocatedBytes;
+    private long allocatedBytes = -1;
+    private boolean successful;
+
+    final ParseEvent event;
+
+    ParseMetrics(final ParseEvent event) {
+        this.event = event;
+    }
+
+    void begin(final long startNanos, final long startAllocatedBytes) {
+        this.startNanos = startNanos;
+        this.startAllocatedBytes = startAllocatedBytes;
+    }
+
+    void end(final long endNanos, final long endAllocatedBytes) {
+        durationNanos = endNanos - startNanos;
+        if(startAllocatedBytes >= 0 && endAllocatedBytes >= 0)
+            allocatedBytes = endAllocatedBytes - startAllocatedBytes;
+    }
+
+    public void countToken(final TokenType type) {
+        tokenCounts[type.ordinal()]++;
+    }
+
+    public void enterContainer() {
+        if(++depth > maxDepth)
+            maxDepth = depth;
+    }
+
+    public void exitContainer() {
+        depth--;
+    }
+
+    public void setScannedCharacters(final long scannedCharacters) {
+        this.scannedCharacters = scannedCharacters;
+    }
+
+    public void setSuccessful(final boolean successful) {
+        this.successful = successful;
+    }
+
+    public int getTokenCount(final TokenType type) {
+        return tokenCounts[type.ordinal()];
+    }
+
+    public int getTokenCount() {
+        int count = 0;
+        for(final int tokenCount : tokenCounts)
+            count += tokenCount;
+        return count;
+    }
+
+    public int getStringCount() {
+        return getTokenCount(STRING);
+    }
+
+    public int getNumberCount() {
+        return getTokenCount(INTEGER) + getTokenCount(FLOAT);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getScannedCharacters() {
+        return scannedCharacters;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Returns the number of bytes the parsing thread allocated while parsing the document.
+     *
+     * @return the allocated bytes or {@code -1} if the JVM does not support measuring thread allocation.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    @Override
+    public String toString() {
+        return "[scanned=" + scannedCharacters + ", tokens=" + getTokenCount() + ", strings=" + getStringCount()
+                + ", numbers=" + getNumberCount() + ", maxDepth=" + maxDepth + ", durationNanos=" + durationNanos
+                + ", allocatedBytes=" + allocatedBytes + ", successful=" + successful + "]";
+    }
+}
@@ -0,0 +1,90 @@
+package com.jelly.metrics;
+
+import jdk.jfr.EventType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Global switch for per-document parse metrics.
+ * <p>
+ * Monitoring is enabled while a {@link ParseListener} is registered or while a JFR recording has the {@code com.jelly.Parse} event enabled.
+ * Otherwise {@link #start()} returns {@code null} and parsing runs without collecting anything.
+ */
+public final class ParseMonitoring {
+    private static final EventType EVENT_TYPE = EventType.getEventType(ParseEvent.class);
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = allocationMXBean();
+
+    private static volatile ParseListener listener;
+
+    private ParseMonitoring() { }
+
+    private static com.sun.management.ThreadMXBean allocationMXBean() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if(threadMXBean instanceof final com.sun.management.ThreadMXBean allocationMXBean && allocationMXBean.isThreadAllocatedMemorySupported())
+            return allocationMXBean;
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        if(THREAD_MX_BEAN == null || !THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled())
+            return -1;
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Registers the listener receiving the metrics of all subsequently parsed documents, replacing the previous one.
+     *
+     * @param listener listener to register, {@code null} to disable listening.
+     */
+    public static void setListener(final ParseListener listener) {
+        ParseMonitoring.listener = listener;
+    }
+
+    public static boolean isEnabled() {
+        return listener != null || EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Starts collecting metrics for a new document.
+     *
+     * @return the metrics to be filled while parsing or {@code null} if monitoring is disabled.
+     */
+    public static ParseMetrics start() {
+        if(!isEnabled())
+            return null;
+
+        final ParseEvent event = new ParseEvent();
+        event.begin();
+
+        final ParseMetrics metrics = new ParseMetrics(event);
+        metrics.begin(System.nanoTime(), allocatedBytes());
+        return metrics;
+    }
+
+    /**
+     * Completes {@code metrics} and publishes it to the registered listener and JFR.
+     *
+     * @param metrics metrics returned by {@link #start()}.
+     */
+    public static void finish(final ParseMetrics metrics) {
+        metrics.end(System.nanoTime(), allocatedBytes());
+
+        final ParseEvent event = metrics.event;
+        event.end();
+        if(event.shouldCommit()) {
+            event.scannedCharacters = metrics.getScannedCharacters();
+            event.tokens = metrics.getTokenCount();
+            event.strings = metrics.getStringCount();
+            event.numbers = metrics.getNumberCount();
+            event.maxDepth = metrics.getMaxDepth();
+            event.allocatedBytes = metrics.getAllocatedBytes();
+            event.successful = metrics.isSuccessful();
+            event.commit();
+        }
+
+        final ParseListener currentListener = listener;
+        if(currentListener != null)
+            currentListener.onDocumentParsed(metrics);
+    }
+}
@@ -0,0 +1,368 @@
+package com.jelly.parser;
+
+import com.jelly.lexer.Dialect;
+import com.jelly.scanner.Scanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sidecar index of the elements of a file holding a single top-level array, for reading elements without parsing everything before them.
+ * <p>
+ * {@link #build(File, int)} scans the file once and records the byte offset of every {@code stride}-th element in a sidecar file
+ * next to it. Reading an element then starts at the closest recorded offset before it and skips at most {@code stride - 1}
+ * elements, so the cost of a lookup depends on the stride instead of the position of the element.
+ * The sidecar remembers size and modification time of the file it was built for, {@link #open(File)} refuses it once the file changed.
+ * It also records the dialect the file is written in, elements are read in that dialect.
+ * <p>
+ * Indexing only tracks nesting and the boundaries of strings and comments, it does not validate the file.
+ * Malformed elements are reported when they are read.
+ */
+public final class ArrayIndex {
+    public static final int DEFAULT_STRIDE = 1024;
+    public static final String SIDECAR_SUFFIX = ".idx";
+
+    private static final byte[] MAGIC = {'J', 'L', 'X'};
+    private static final byte VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // states of the scan in between tokens that span several bytes
+    private static final byte CODE = 0;
+    private static final byte STRING = 1;
+    private static final byte ESCAPED = 2;
+    private static final byte SLASH = 3;
+    private static final byte LINE_COMMENT = 4;
+    private static final byte BLOCK_COMMENT = 5;
+    private static final byte BLOCK_COMMENT_STAR = 6;
+
+    private final File source;
+    private final Dialect dialect;
+    private final int stride;
+    private final long size;
+    private final long[] checkpoints;
+
+    private ArrayIndex(final File source, final Dialect dialect, final int stride, final long size, final long[] checkpoints) {
+        this.source = source;
+        this.dialect = dialect;
+        this.stride = stride;
+        this.size = size;
+        this.checkpoints = checkpoints;
+    }
+
+    public static File sidecar(final File source) {
+        return new File(source.getPath() + SIDECAR_SUFFIX);
+    }
+
+    public static ArrayIndex build(final File source) throws IOException {
+        return build(source, DEFAULT_STRIDE);
+    }
+
+    public static ArrayIndex build(final File source, final int stride) throws IOException {
+        return build(source, stride, Dialect.JELLY);
+    }
+
+    /**
+     * Indexes the top-level array in {@code source} and writes the index to its {@linkplain #sidecar(File) sidecar} file.
+     *
+     * @param stride number of elements between two recorded offsets, lower values make lookups faster and the index larger.
+     * @param dialect dialect {@code source} is written in, it decides which quotes, escape sequences and comments are skipped.
+     * @throws IOException if {@code source} does not hold an array.
+     */
+    public static ArrayIndex build(final File source, final int stride, final Dialect dialect) throws IOException {
+        if(stride <= 0)
+            throw new IllegalArgumentException("stride must be positive");
+
+        final long lastModified = source.lastModified();
+        final ArrayIndex index = scan(source, stride, dialect);
+        index.write(sidecar(source), lastModified);
+        return index;
+    }
+
+    private static ArrayIndex scan(final File source, final int stride, final Dialect dialect) throws IOException {
+        final boolean escapes = dialect.supports(Dialect.Feature.ESCAPES);
+        final boolean singleQuotes = dialect.supports(Dialect.Feature.SINGLE_QUOTES);
+        final boolean comments = dialect.supports(Dialect.Feature.COMMENTS);
+        final boolean json5Whitespace = dialect.supports(Dialect.Feature.JSON5_WHITESPACE);
+
+        final List<Long> checkpoints = new ArrayList<>();
+        long count = 0;
+
+        int depth = 0;
+        byte state = CODE;
+        byte quote = '"';
+        boolean expectElement = false;
+        boolean started = false;
+
+        try(final FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long offset = 0;
+            while(channel.read(buffer.clear()) > 0) {
+                final byte[] bytes = buffer.array();
+                for(int i = 0; i < buffer.position(); i++, offset++) {
+                    final byte b = bytes[i];
+                    if(state != CODE) {
+                        if(state == STRING) {
+                            if(b == quote)
+                                state = CODE;
+                            else if(b == '\\' && escapes)
+                                state = ESCAPED;
+                            continue;
+                        } else if(state == ESCAPED) {
+                            state = STRING;
+                            continue;
+                        } else if(state == LINE_COMMENT) {
+                            if(b == '\n')
+                                state = CODE;
+                            continue;
+                        } else if(state == BLOCK_COMMENT) {
+                            if(b == '*')
+                                state = BLOCK_COMMENT_STAR;
+                            continue;
+                        } else if(state == BLOCK_COMMENT_STAR) {
+                            state = (b == '/') ? CODE : (b == '*') ? BLOCK_COMMENT_STAR : BLOCK_COMMENT;
+                            continue;
+                        }
+
+                        // a slash not starting a comment is malformed, it is left for the reader to report
+                        state = CODE;
+                        if(b == '/' || b == '*') {
+                            state = (b == '/') ? LINE_COMMENT : BLOCK_COMMENT;
+                            continue;
+                        }
+                    }
+                    if(b == ' ' || b == '\t' || b == '\n' || b == '\r' || (json5Whitespace && (b == 0x0B || b == '\f')))
+                        continue;
+                    if(b == '/' && comments) {
+                        state = SLASH;
+                        continue;
+                    }
+
+                    if(!started) {
+                        if(b != '[')
+                            throw new IOException(source + " does not hold an array");
+                        started = true;
+                        depth = 1;
+                        expectElement = true;
+                        continue;
+                    }
+
+                    if(depth == 1 && expectElement && b != ']') {
+                        expectElement = false;
+                        if(count % stride == 0)
+                            checkpoints.add(offset);
+                        count++;
+                    }
+
+                    switch(b) {
+                        case '"' -> {
+                            state = STRING;
+                            quote = b;
+                        }
+                        case '\'' -> {
+                            if(singleQuotes) {
+                                state = STRING;
+                                quote = b;
+                            }
+                        }
+                        case '[', '{' -> depth++;
+                        case ']', '}' -> depth--;
+                        case ',' -> expectElement = depth == 1;
+                        default -> { }
+                    }
+                }
+            }
+        }
+
+        if(!started)
+            throw new IOException(source + " does not hold an array");
+
+        final long[] offsets = new long[checkpoints.size()];
+        for(int i = 0; i < offsets.length; i++)
+            offsets[i] = checkpoints.get(i);
+        return new ArrayIndex(source, dialect, stride, count, offsets);
+    }
+
+    private void write(final File sidecar, final long lastModified) throws IOException {
+        try(final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(sidecar)))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(featureBits(dialect.features()));
+            out.writeLong(source.length());
+            out.writeLong(lastModified);
+            out.writeInt(stride);
+            out.writeLong(size);
+            out.writeInt(checkpoints.length);
+
+            long previous = 0;
+            for(final long checkpoint : checkpoints) {
+                writeVarint(out, checkpoint - previous);
+                previous = checkpoint;
+            }
+        }
+    }
+
+    /**
+     * Opens the index of {@code source} from its {@linkplain #sidecar(File) sidecar} file, in whatever dialect it was built.
+     *
+     * @throws IOException if there is no sidecar file or {@code source} has been modified since it was indexed.
+     */
+    public static ArrayIndex open(final File source) throws IOException {
+        return open(source, null);
+    }
+
+    /**
+     * Opens the index of {@code source} from its {@linkplain #sidecar(File) sidecar} file.
+     *
+     * @param dialect dialect the index has to be built in, {@code null} for any.
+     * @throws IOException if there is no sidecar file, it was built in another dialect or {@code source} has been modified since it was indexed.
+     */
+    public static ArrayIndex open(final File source, final Dialect dialect) throws IOException {
+        try(final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecar(source))))) {
+            final byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if(!Arrays.equals(magic, MAGIC) || in.readByte() != VERSION)
+                throw new IOException(sidecar(source) + " is not an array index");
+
+            final Dialect indexed = dialect(in.readInt());
+            if(dialect != null && !indexed.features().equals(dialect.features()))
+                throw new IOException(sidecar(source) + " has been built for " + indexed);
+
+            final long length = in.readLong();
+            final long lastModified = in.readLong();
+            if(length != source.length() || lastModified != source.lastModified())
+                throw new IOException(sidecar(source) + " is out of date");
+
+            final int stride = in.readInt();
+            final long size = in.readLong();
+            final long[] checkpoints = new long[in.readInt()];
+            long previous = 0;
+            for(int i = 0; i < checkpoints.length; i++)
+                checkpoints[i] = previous += readVarint(in);
+
+            return new ArrayIndex(source, indexed, stride, size, checkpoints);
+        }
+    }
+
+    public static ArrayIndex openOrBuild(final File source, final int stride) throws IOException {
+        return openOrBuild(source, stride, Dialect.JELLY);
+    }
+
+    /**
+     * Opens the index of {@code source}, building it first if it is missing, out of date or built in another dialect.
+     */
+    public static ArrayIndex openOrBuild(final File source, final int stride, final Dialect dialect) throws IOException {
+        if(sidecar(source).isFile()) {
+            try {
+                return open(source, dialect);
+            } catch(final IOException ignored) {
+                // rebuilt below
+            }
+        }
+        return build(source, stride, dialect);
+    }
+
+    private static int featureBits(final Set<Dialect.Feature> features) {
+        int bits = 0;
+        for(final Dialect.Feature feature : features)
+            bits |= 1 << feature.ordinal();
+        return bits;
+    }
+
+    private static Dialect dialect(final int bits) throws IOException {
+        final Dialect.Feature[] all = Dialect.Feature.values();
+        if((bits & -(1 << all.length)) != 0)
+            throw new IOException("Unknown dialect features " + Integer.toBinaryString(bits));
+
+        final Set<Dialect.Feature> features = EnumSet.noneOf(Dialect.Feature.class);
+        for(final Dialect.Feature feature : all)
+            if((bits & (1 << feature.ordinal())) != 0)
+                features.add(feature);
+        try {
+            return Dialect.of(features);
+        } catch(final IllegalArgumentException e) {
+            throw new IOException("Invalid dialect " + features, e);
+        }
+    }
+
+    private static void writeVarint(final DataOutputStream out, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarint(final DataInputStream in) throws IOException {
+        long value = 0;
+        for(int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Returns the number of elements of the indexed array.
+     */
+    public long size() {
+        return size;
+    }
+
+    public int stride() {
+        return stride;
+    }
+
+    public Dialect dialect() {
+        return dialect;
+    }
+
+    /**
+     * Parses the element at position {@code idx} of the indexed array.
+     *
+     * @throws IndexOutOfBoundsException if {@code idx} is out of range.
+     */
+    public Object get(final long idx) throws IOException {
+        return range(idx, idx + 1).get(0);
+    }
+
+    /**
+     * Parses the elements from position {@code from}, inclusive, to {@code to}, exclusive.
+     *
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     */
+    public List<Object> range(final long from, final long to) throws IOException {
+        if(from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds for size " + size);
+
+        final List<Object> elements = new ArrayList<>((int) Math.min(to - from, Integer.MAX_VALUE));
+        if(from == to)
+            return elements;
+
+        final int checkpoint = (int) (from / stride);
+        try(final JSONReader reader = new JSONReader(new Scanner(source, checkpoints[checkpoint]), dialect)) {
+            reader.resumeArray();
+            for(long i = (long) checkpoint * stride; i < from; i++)
+                reader.skipValue();
+            for(long i = from; i < to; i++)
+                elements.add(reader.readValue());
+        }
+        return elements;
+    }
+}
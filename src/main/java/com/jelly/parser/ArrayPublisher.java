@@ -0,0 +1,130 @@
+package com.jelly.parser;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cold publisher emitting the elements of a top-level JSON array one by one.
+ * <p>
+ * Every subscriber gets its own reader over the source. Elements are only parsed while the subscriber has outstanding demand,
+ * so at most the element currently being emitted is held in memory. JSON null elements are emitted as {@link Parser#NULL_ELEMENT}.
+ */
+final class ArrayPublisher implements Flow.Publisher<Object> {
+    private final Callable<JSONReader> source;
+    private final Executor executor;
+
+    ArrayPublisher(final Callable<JSONReader> source, final Executor executor) {
+        this.source = Objects.requireNonNull(source);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super Object> subscriber) {
+        final ElementSubscription subscription = new ElementSubscription(Objects.requireNonNull(subscriber));
+        subscriber.onSubscribe(subscription);
+    }
+
+    private final class ElementSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Object> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        private JSONReader reader;
+        private boolean done;
+
+        private ElementSubscription(final Flow.Subscriber<? super Object> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if(n <= 0)
+                invalidRequest = new IllegalArgumentException("non-positive request " + n);
+            else
+                demand.getAndAccumulate(n, (current, added) -> (current + added < 0) ? Long.MAX_VALUE : current + added);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if(pending.getAndIncrement() == 0)
+                executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = pending.addAndGet(-missed);
+            } while(missed != 0);
+        }
+
+        private void drain() {
+            if(done)
+                return;
+
+            if(cancelled) {
+                finish();
+                return;
+            }
+
+            if(invalidRequest != null) {
+                finish();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+
+            try {
+                if(reader == null) {
+                    reader = source.call();
+                    reader.beginArray();
+                }
+
+                while(demand.get() > 0 && !cancelled) {
+                    if(!reader.hasNext()) {
+                        reader.endArray();
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+
+                    demand.decrementAndGet();
+                    final Object element = reader.readValue();
+                    subscriber.onNext((element == null) ? Parser.NULL_ELEMENT : element);
+                }
+
+                if(cancelled)
+                    finish();
+            } catch(final Exception e) {
+                finish();
+                subscriber.onError(e);
+            }
+        }
+
+        private void finish() {
+            done = true;
+            if(reader == null)
+                return;
+
+            try {
+                reader.close();
+            } catch(final Exception ignored) {
+                // the subscriber is not interested in the source anymore
+            }
+            reader = null;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.jelly.parser;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parses many independent files concurrently, handing out the results in the order they complete.
+ * <p>
+ * At most {@code maxConcurrency} files are parsed at once. Instead of blocking a thread on a permit,
+ * every finished file schedules the next pending one, so a plain thread pool works as well as virtual threads.
+ */
+final class BulkParser {
+    static final int DEFAULT_MAX_CONCURRENCY = 128;
+
+    private final List<Path> paths;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    private final AtomicInteger nextPath = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final BlockingQueue<FileResult> results = new LinkedBlockingQueue<>();
+    private volatile boolean cancelled;
+
+    private BulkParser(final List<Path> paths, final Executor executor, final ExecutorService ownedExecutor) {
+        this.paths = paths;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+        remaining = new AtomicInteger(paths.size());
+    }
+
+    static Stream<FileResult> parseAll(final List<Path> paths, final Executor executor, final int maxConcurrency) {
+        if(maxConcurrency <= 0)
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+
+        final ExecutorService ownedExecutor = (executor == null) ? newDefaultExecutor() : null;
+        final BulkParser bulkParser = new BulkParser(paths, (executor == null) ? ownedExecutor : executor, ownedExecutor);
+        bulkParser.start(maxConcurrency);
+
+        return StreamSupport.stream(bulkParser.new ResultSpliterator(), false).onClose(bulkParser::cancel);
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor on runtimes that provide one and a cached pool of daemon threads otherwise.
+     */
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch(final ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "jelly-bulk-parser");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void start(final int maxConcurrency) {
+        if(paths.isEmpty()) {
+            shutdown();
+            return;
+        }
+
+        for(int i = 0; i < Math.min(maxConcurrency, paths.size()); i++)
+            scheduleNext();
+    }
+
+    /**
+     * Hands the next pending file to the executor, files the executor rejects are recorded as failed right away.
+     */
+    private void scheduleNext() {
+        while(!cancelled) {
+            final int idx = nextPath.getAndIncrement();
+            if(idx >= paths.size())
+                return;
+
+            final Path path = paths.get(idx);
+            try {
+                executor.execute(() -> parse(path));
+                return;
+            } catch(final RejectedExecutionException e) {
+                if(!complete(FileResult.failure(path, e)))
+                    return;
+            }
+        }
+    }
+
+    private void parse(final Path path) {
+        FileResult result;
+        try {
+            result = FileResult.success(path, Parser.parse(path.toFile()));
+        } catch(final Throwable t) {
+            result = FileResult.failure(path, t);
+        }
+
+        if(complete(result))
+            scheduleNext();
+    }
+
+    /**
+     * Records the result of a file, every file has to be completed exactly once for the result stream to end.
+     *
+     * @return whether results of other files are still outstanding.
+     */
+    private boolean complete(final FileResult result) {
+        results.add(result);
+        if(remaining.decrementAndGet() > 0)
+            return true;
+
+        shutdown();
+        return false;
+    }
+
+    private void cancel() {
+        cancelled = true;
+        shutdown();
+    }
+
+    private void shutdown() {
+        if(ownedExecutor != null)
+            ownedExecutor.shutdown();
+    }
+
+    private final class ResultSpliterator extends Spliterators.AbstractSpliterator<FileResult> {
+        private int taken;
+
+        private ResultSpliterator() {
+            super(paths.size(), Spliterator.SIZED | Spliterator.NONNULL);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super FileResult> action) {
+            if(taken == paths.size())
+                return false;
+            if(cancelled)
+                throw new CancellationException();
+
+            try {
+                action.accept(results.take());
+            } catch(final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CancellationException("interrupted while waiting for the next result");
+            }
+
+            taken++;
+            return true;
+        }
+    }
+}
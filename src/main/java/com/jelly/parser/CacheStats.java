@@ -0,0 +1,17 @@
+package com.jelly.parser;
+
+/**
+ * Snapshot of the statistics of a {@link ParseCache}.
+ *
+ * @param hits number of lookups answered from the cache.
+ * @param misses number of lookups that had to parse.
+ * @param evictions number of entries evicted to stay within the maximum weight.
+ * @param size number of entries currently cached.
+ * @param weight total weight of the entries currently cached.
+ */
+public record CacheStats(long hits, long misses, long evictions, int size, long weight) {
+    public double hitRate() {
+        final long lookups = hits + misses;
+        return (lookups == 0) ? 0 : (double) hits / lookups;
+    }
+}
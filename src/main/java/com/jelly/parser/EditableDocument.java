@@ -0,0 +1,423 @@
+package com.jelly.parser;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+import com.jelly.lexer.Lexer;
+import com.jelly.lexer.Token;
+import com.jelly.lexer.TokenType;
+import com.jelly.scanner.Scanner;
+import com.jelly.util.ParsingException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.jelly.lexer.TokenType.*;
+
+/**
+ * Retained parse of a document that is kept up to date while the document is edited, e.g. by the backend of an editor.
+ * <p>
+ * The source range of every JSONObject and JSONArray is recorded in a tree of spans. An edit only re-parses the smallest
+ * JSONObject or JSONArray whose brackets enclose the edited range and splices the result into the tree. If the edit changed
+ * where that value ends, the enclosing one is re-parsed instead, and so on up to the whole document. The cost of an edit therefore
+ * depends on the size of the innermost value around it instead of the size of the document. The text is scanned in place, it is never copied.
+ * <p>
+ * Roots are frozen. Every edit returns a new version sharing all values outside of the re-parsed one with the previous version.
+ * An edit leaving the document malformed keeps the last valid root, the next edit then parses the whole document again.
+ */
+public final class EditableDocument {
+    private static final int DEFAULT_CHILDREN_SIZE = 4;
+    private static final int SIZE_FACTOR = 2;
+
+    private final StringBuilder text;
+
+    private Object root;
+    /**
+     * Span of the root, {@code null} if the root is not a JSONObject or JSONArray or if the text is malformed.
+     */
+    private Span rootSpan;
+    private boolean valid;
+
+    /**
+     * Lexer of the parse in progress.
+     */
+    private Lexer lexer;
+
+    /**
+     * Source range of a JSONObject or JSONArray, from its opening to its closing bracket.
+     */
+    private static final class Span {
+        private static final Span[] NO_CHILDREN = new Span[0];
+
+        private Span parent;
+        /**
+         * Field name or index of the value in its parent.
+         */
+        private Object key;
+        /**
+         * Offset relative to the start of the parent, absolute for the root.
+         */
+        private int start;
+        private int length;
+        private Object node;
+
+        private Span[] children = NO_CHILDREN;
+        private int childCount;
+
+        private void addChild(final Span child) {
+            if(childCount == children.length)
+                children = Arrays.copyOf(children, Math.max(DEFAULT_CHILDREN_SIZE, children.length * SIZE_FACTOR));
+            children[childCount++] = child;
+            child.parent = this;
+        }
+
+        private void removeChildren(final Object key) {
+            int size = 0;
+            for(int i = 0; i < childCount; i++)
+                if(!children[i].key.equals(key))
+                    children[size++] = children[i];
+            Arrays.fill(children, size, childCount, null);
+            childCount = size;
+        }
+
+        /**
+         * Returns the index of the last child starting before {@code offset}, relative to the start of this span.
+         *
+         * @return the index of the child or {@code -1} if there is none.
+         */
+        private int childBefore(final int offset) {
+            int low = 0;
+            int high = childCount - 1;
+            while(low <= high) {
+                final int mid = (low + high) >>> 1;
+                if(children[mid].start < offset)
+                    low = mid + 1;
+                else
+                    high = mid - 1;
+            }
+            return high;
+        }
+    }
+
+    /**
+     * Parses {@code source} and retains its spans.
+     *
+     * @throws ParsingException if {@code source} is malformed.
+     */
+    public EditableDocument(final String source) {
+        text = new StringBuilder(source);
+        reparse();
+    }
+
+    /**
+     * Returns the value of the last version of the document that was well-formed.
+     */
+    public Object getRoot() {
+        return root;
+    }
+
+    public String getText() {
+        return text.toString();
+    }
+
+    public int length() {
+        return text.length();
+    }
+
+    /**
+     * Returns whether the current text is well-formed, i.e. whether {@link #getRoot()} reflects it.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Replaces {@code length} characters starting at {@code offset} with {@code replacement} and updates the root accordingly.
+     *
+     * @return the new root.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws ParsingException if the edited text is malformed, the text is edited regardless.
+     */
+    public Object edit(final int offset, final int length, final String replacement) {
+        Objects.checkFromIndexSize(offset, length, text.length());
+        text.replace(offset, offset + length, replacement);
+        final int delta = replacement.length() - length;
+
+        if(valid && rootSpan != null) {
+            for(Span span = enclosing(offset, offset + length); span != null; span = span.parent) {
+                final int start = absoluteStart(span);
+                final Span reparsed = tryParse(start, start + span.length + delta);
+                if(reparsed != null) {
+                    splice(span, reparsed, delta);
+                    return root;
+                }
+            }
+        }
+
+        return reparse();
+    }
+
+    public Object insert(final int offset, final String insertion) {
+        return edit(offset, 0, insertion);
+    }
+
+    public Object delete(final int offset, final int length) {
+        return edit(offset, length, "");
+    }
+
+    /**
+     * Returns the innermost span whose brackets enclose the range from {@code from} to {@code to}.
+     *
+     * @return the span or {@code null} if the range is not inside of the root.
+     */
+    private Span enclosing(final int from, final int to) {
+        if(!encloses(rootSpan.start, rootSpan.length, from, to))
+            return null;
+
+        Span span = rootSpan;
+        int start = rootSpan.start;
+        while(true) {
+            final int idx = span.childBefore(from - start);
+            if(idx < 0)
+                return span;
+            final Span child = span.children[idx];
+            if(!encloses(start + child.start, child.length, from, to))
+                return span;
+            span = child;
+            start += child.start;
+        }
+    }
+
+    private static boolean encloses(final int start, final int length, final int from, final int to) {
+        return start < from && to < start + length;
+    }
+
+    private static int absoluteStart(final Span span) {
+        int start = 0;
+        for(Span s = span; s != null; s = s.parent)
+            start += s.start;
+        return start;
+    }
+
+    /**
+     * Replaces {@code span} by {@code reparsed}, shifting everything after it by {@code delta}, and updates all values on the path to the root.
+     */
+    private void splice(final Span span, final Span reparsed, final int delta) {
+        final Span parent = span.parent;
+        reparsed.key = span.key;
+        if(parent == null) {
+            reparsed.parent = null;
+            rootSpan = reparsed;
+            root = reparsed.node;
+            return;
+        }
+
+        reparsed.start = span.start;
+        int idx = parent.childBefore(span.start + 1);
+        parent.children[idx] = reparsed;
+        reparsed.parent = parent;
+
+        Span child = reparsed;
+        for(Span s = parent; s != null; s = s.parent) {
+            s.length += delta;
+            for(int i = idx + 1; i < s.childCount; i++)
+                s.children[i].start += delta;
+            s.node = with(s.node, child.key, child.node);
+
+            if(s.parent != null)
+                idx = s.parent.childBefore(s.start + 1);
+            child = s;
+        }
+        root = rootSpan.node;
+    }
+
+    private static Object with(final Object container, final Object key, final Object value) {
+        if(container instanceof final JSONObject jsonObject)
+            return jsonObject.with((String) key, value);
+        return ((JSONArray) container).with((Integer) key, value);
+    }
+
+    private Object reparse() {
+        valid = false;
+        rootSpan = null;
+        final Span holder = parse(0, text.length(), true);
+        root = freeze(holder.node);
+        if(holder.childCount > 0) {
+            rootSpan = holder.children[0];
+            rootSpan.parent = null;
+            bind(rootSpan, root);
+        }
+        valid = true;
+        return root;
+    }
+
+    /**
+     * Parses the JSONObject or JSONArray from {@code from} to {@code to}.
+     *
+     * @return its span or {@code null} if the range does not hold exactly one well-formed value.
+     */
+    private Span tryParse(final int from, final int to) {
+        final Span holder;
+        try {
+            holder = parse(from, to, false);
+        } catch(final ParsingException e) {
+            return null;
+        }
+
+        final Span span = holder.children[0];
+        bind(span, freeze(span.node));
+        return span;
+    }
+
+    /**
+     * Parses the range from {@code from} to {@code to}, collecting the span of a JSONObject or JSONArray in a placeholder parent starting at 0.
+     */
+    private Span parse(final int from, final int to, final boolean stackTraces) {
+        final Span holder = new Span();
+        try(final Lexer lexer = new Lexer(new Scanner(text, from, to))) {
+            lexer.setStackTraces(stackTraces);
+            this.lexer = lexer;
+
+            holder.node = parseValue(nextToken(), holder, null, 0);
+            final Token trailing = nextToken();
+            if(trailing != null)
+                throw new UnexpectedTokenException(trailing, "end of input");
+        } catch(final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            this.lexer = null;
+        }
+        return holder;
+    }
+
+    private Token nextToken() throws IOException {
+        while(lexer.hasNext()) {
+            final Token token = lexer.next();
+            lexer.remove();
+            final TokenType type = token.getType();
+            if(type != WHITE_SPACE && type != NEWLINE && type != CARRIAGE_RETURN)
+                return token;
+        }
+        return null;
+    }
+
+    private Object parseValue(final Token token, final Span parent, final Object key, final int parentStart) throws IOException {
+        if(token == null)
+            throw new UnexpectedEndException();
+
+        return switch(token.getType()) {
+            case LEFT_CURLY_BRACE -> parseJSONObject(openSpan(parent, key, parentStart));
+            case LEFT_SQUARE_BRACKET -> parseJSONArray(openSpan(parent, key, parentStart));
+            case STRING, INTEGER, FLOAT, TRUE, FALSE, NULL -> token.getValue();
+            default -> throw new UnexpectedTokenException(token, "value");
+        };
+    }
+
+    private Span openSpan(final Span parent, final Object key, final int parentStart) {
+        final Span span = new Span();
+        span.key = key;
+        span.start = (int) lexer.getTokenStart() - parentStart;
+        parent.addChild(span);
+        return span;
+    }
+
+    private Object closeSpan(final Span span, final int start, final Object node) {
+        span.length = (int) lexer.getTokenStart() + 1 - start;
+        span.node = node;
+        return node;
+    }
+
+    private JSONObject parseJSONObject(final Span span) throws IOException {
+        final int start = absoluteStart(span);
+        final JSONObject jsonObject = new JSONObject();
+
+        Token token = nextToken();
+        if(token != null && token.getType() == RIGHT_CURLY_BRACE)
+            return (JSONObject) closeSpan(span, start, jsonObject);
+
+        while(true) {
+            if(token == null)
+                throw new UnexpectedEndException();
+            if(token.getType() != STRING)
+                throw new UnexpectedTokenException(token, "name");
+            final String name = (String) token.getValue();
+
+            final Token colon = nextToken();
+            if(colon == null)
+                throw new UnexpectedEndException();
+            if(colon.getType() != COLON)
+                throw new UnexpectedTokenException(colon, ":");
+
+            // only the last of several fields with the same name ends up in the tree, edits in the others re-parse this JSONObject
+            if(jsonObject.fieldNames().contains(name))
+                span.removeChildren(name);
+            jsonObject.set(name, parseValue(nextToken(), span, name, start));
+
+            token = nextToken();
+            if(token == null)
+                throw new UnexpectedEndException();
+            if(token.getType() == RIGHT_CURLY_BRACE)
+                return (JSONObject) closeSpan(span, start, jsonObject);
+            if(token.getType() != SEPARATOR)
+                throw new UnexpectedTokenException(token, ", or }");
+            token = nextToken();
+        }
+    }
+
+    private JSONArray parseJSONArray(final Span span) throws IOException {
+        final int start = absoluteStart(span);
+        final JSONArray jsonArray = new JSONArray();
+
+        Token token = nextToken();
+        if(token != null && token.getType() == RIGHT_SQUARE_BRACKET)
+            return (JSONArray) closeSpan(span, start, jsonArray);
+
+        while(true) {
+            jsonArray.add(parseValue(token, span, jsonArray.size(), start));
+
+            token = nextToken();
+            if(token == null)
+                throw new UnexpectedEndException();
+            if(token.getType() == RIGHT_SQUARE_BRACKET)
+                return (JSONArray) closeSpan(span, start, jsonArray);
+            if(token.getType() != SEPARATOR)
+                throw new UnexpectedTokenException(token, ", or ]");
+            token = nextToken();
+        }
+    }
+
+    private static Object freeze(final Object value) {
+        if(value instanceof final JSONObject jsonObject)
+            return jsonObject.freeze();
+        if(value instanceof final JSONArray jsonArray)
+            return jsonArray.freeze();
+        return value;
+    }
+
+    /**
+     * Points {@code span} and its descendants to the values of the frozen {@code node}.
+     */
+    private static void bind(final Span span, final Object node) {
+        span.node = node;
+        for(int i = 0; i < span.childCount; i++) {
+            final Span child = span.children[i];
+            if(node instanceof final JSONObject jsonObject)
+                bind(child, jsonObject.get((String) child.key));
+            else
+                bind(child, ((JSONArray) node).get((Integer) child.key));
+        }
+    }
+
+    class UnexpectedTokenException extends ParsingException {
+        UnexpectedTokenException(final Token unexpected, final String expected) {
+            super("Unexpected \"" + unexpected.getValue() + "\" expected \"" + expected + "\"", lexer.getTokenStart(), lexer.getLocator(), lexer.hasStackTraces());
+        }
+    }
+
+    class UnexpectedEndException extends ParsingException {
+        UnexpectedEndException() {
+            super("Unexpected end of input", lexer.getPosition(), lexer.getLocator(), lexer.hasStackTraces());
+        }
+    }
+}
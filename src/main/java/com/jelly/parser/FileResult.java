@@ -0,0 +1,24 @@
+package com.jelly.parser;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of parsing a single file as part of {@link Parser#parseAll(java.util.Collection)}.
+ *
+ * @param path the parsed file.
+ * @param value the parsed value, {@code null} if parsing failed.
+ * @param error the exception or error parsing failed with, {@code null} if parsing succeeded.
+ */
+public record FileResult(Path path, Object value, Throwable error) {
+    static FileResult success(final Path path, final Object value) {
+        return new FileResult(path, value, null);
+    }
+
+    static FileResult failure(final Path path, final Throwable error) {
+        return new FileResult(path, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
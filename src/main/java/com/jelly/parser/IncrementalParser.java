@@ -0,0 +1,379 @@
+package com.jelly.parser;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+import com.jelly.util.ParsingException;
+import com.jelly.util.SourceLocation;
+import com.jelly.util.SourceLocator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Push-style parser that is fed with arbitrary chunks of UTF-8 encoded input as they arrive, e.g. from a non-blocking channel.
+ * <p>
+ * All state is kept between calls to {@link #feed(ByteBuffer)} so that a chunk may end anywhere, even in the middle of a string or a multibyte character.
+ * Each top-level value is handed to the consumer as soon as it is complete, top-level values may follow each other (newline-delimited JSON).
+ * Values are materialized the same way {@link Parser#parse(String)} does.
+ */
+public final class IncrementalParser {
+    private static final int DEFAULT_STACK_SIZE = 32;
+    private static final int DEFAULT_BUFFER_SIZE = 64;
+    private static final int SIZE_FACTOR = 2;
+
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    // structural states
+    private static final byte VALUE = 0;
+    private static final byte OBJECT_NAME_OR_END = 1;
+    private static final byte OBJECT_NAME = 2;
+    private static final byte OBJECT_COLON = 3;
+    private static final byte OBJECT_SEPARATOR_OR_END = 4;
+    private static final byte ARRAY_VALUE_OR_END = 5;
+    private static final byte ARRAY_SEPARATOR_OR_END = 6;
+
+    // lexical states
+    private static final byte NONE = 0;
+    private static final byte IN_STRING = 1;
+    private static final byte IN_INTEGER = 2;
+    private static final byte IN_FRACTION_START = 3;
+    private static final byte IN_FRACTION = 4;
+    private static final byte IN_KEYWORD = 5;
+
+    private final Consumer<Object> consumer;
+
+    private byte state = VALUE;
+    private byte lexicalState = NONE;
+    private boolean nameExpected;
+
+    private Object[] containers = new Object[DEFAULT_STACK_SIZE];
+    private String[] names = new String[DEFAULT_STACK_SIZE];
+    private int depth;
+
+    private byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+    private int bufferSize;
+
+    private byte[] keyword;
+    private int keywordIdx;
+
+    private long offset;
+    private int lineNumber = 1;
+    private int column;
+
+    private boolean ended;
+
+    public IncrementalParser(final Consumer<Object> consumer) {
+        this.consumer = Objects.requireNonNull(consumer);
+    }
+
+    /**
+     * Consumes all remaining bytes of {@code chunk}, emitting every top-level value that gets completed by them.
+     *
+     * @param chunk next chunk of input, its position is advanced to its limit.
+     * @throws ParsingException if the input is malformed.
+     */
+    public void feed(final ByteBuffer chunk) {
+        if(ended)
+            throw new IllegalStateException("input has already ended");
+
+        while(chunk.hasRemaining())
+            process(chunk.get());
+    }
+
+    /**
+     * Consumes {@code length} bytes of {@code chunk} starting at {@code start}.
+     *
+     * @see #feed(ByteBuffer)
+     */
+    public void feed(final byte[] chunk, final int start, final int length) {
+        feed(ByteBuffer.wrap(chunk, start, length));
+    }
+
+    /**
+     * Signals that no more input follows, completing a pending top-level number.
+     *
+     * @throws ParsingException if the input ends inside of a value.
+     */
+    public void end() {
+        if(ended)
+            return;
+
+        if(lexicalState == IN_INTEGER || lexicalState == IN_FRACTION)
+            finishNumber();
+        if(lexicalState != NONE || depth > 0)
+            throw new UnexpectedEndException();
+        ended = true;
+    }
+
+    /**
+     * Returns whether the parser is currently in between two top-level values.
+     *
+     * @return whether no value is partially parsed.
+     */
+    public boolean isIdle() {
+        return depth == 0 && lexicalState == NONE;
+    }
+
+    private void process(final byte b) {
+        switch(lexicalState) {
+            case IN_STRING -> {
+                if(b == '"') {
+                    lexicalState = NONE;
+                    final String string = new String(buffer, 0, bufferSize, StandardCharsets.UTF_8);
+                    if(nameExpected)
+                        completeName(string);
+                    else
+                        completeValue(string);
+                } else if(b == '\n' || b == '\r')
+                    throw new UnexpectedByteException(b, '"');
+                else
+                    buffer(b);
+                advance(b);
+                return;
+            }
+            case IN_INTEGER -> {
+                if('0' <= b && b <= '9') {
+                    buffer(b);
+                    advance(b);
+                    return;
+                } else if(b == '.') {
+                    buffer(b);
+                    lexicalState = IN_FRACTION_START;
+                    advance(b);
+                    return;
+                }
+                finishNumber();
+            }
+            case IN_FRACTION_START -> {
+                if(b < '0' || '9' < b)
+                    throw new UnexpectedByteException(b);
+                buffer(b);
+                lexicalState = IN_FRACTION;
+                advance(b);
+                return;
+            }
+            case IN_FRACTION -> {
+                if('0' <= b && b <= '9') {
+                    buffer(b);
+                    advance(b);
+                    return;
+                }
+                finishNumber();
+            }
+            case IN_KEYWORD -> {
+                if(b != keyword[keywordIdx])
+                    throw new UnexpectedByteException(b, (char) keyword[keywordIdx]);
+                advance(b);
+                if(++keywordIdx == keyword.length) {
+                    lexicalState = NONE;
+                    completeValue((keyword == TRUE) ? Boolean.TRUE : (keyword == FALSE) ? Boolean.FALSE : null);
+                }
+                return;
+            }
+        }
+
+        processStructural(b);
+        advance(b);
+    }
+
+    private void processStructural(final byte b) {
+        if(b == ' ' || b == '\t' || b == '\n' || b == '\r')
+            return;
+
+        switch(state) {
+            case VALUE, ARRAY_VALUE_OR_END -> {
+                if(b == ']' && state == ARRAY_VALUE_OR_END)
+                    closeContainer();
+                else
+                    startValue(b);
+            }
+            case OBJECT_NAME_OR_END, OBJECT_NAME -> {
+                if(b == '}' && state == OBJECT_NAME_OR_END)
+                    closeContainer();
+                else if(b == '"') {
+                    nameExpected = true;
+                    startString();
+                } else
+                    throw new UnexpectedByteException(b, '"');
+            }
+            case OBJECT_COLON -> {
+                if(b != ':')
+                    throw new UnexpectedByteException(b, ':');
+                state = VALUE;
+            }
+            case OBJECT_SEPARATOR_OR_END -> {
+                if(b == ',')
+                    state = OBJECT_NAME;
+                else if(b == '}')
+                    closeContainer();
+                else
+                    throw new UnexpectedByteException(b, '}');
+            }
+            case ARRAY_SEPARATOR_OR_END -> {
+                if(b == ',')
+                    state = VALUE;
+                else if(b == ']')
+                    closeContainer();
+                else
+                    throw new UnexpectedByteException(b, ']');
+            }
+        }
+    }
+
+    private void startValue(final byte b) {
+        switch(b) {
+            case '{' -> openContainer(new JSONObject(), OBJECT_NAME_OR_END);
+            case '[' -> openContainer(new JSONArray(), ARRAY_VALUE_OR_END);
+            case '"' -> {
+                nameExpected = false;
+                startString();
+            }
+            case 't' -> startKeyword(TRUE);
+            case 'f' -> startKeyword(FALSE);
+            case 'n' -> startKeyword(NULL);
+            default -> {
+                if(b < '0' || '9' < b)
+                    throw new UnexpectedByteException(b);
+                bufferSize = 0;
+                buffer(b);
+                lexicalState = IN_INTEGER;
+            }
+        }
+    }
+
+    private void startString() {
+        bufferSize = 0;
+        lexicalState = IN_STRING;
+    }
+
+    private void startKeyword(final byte[] keyword) {
+        this.keyword = keyword;
+        keywordIdx = 1;
+        lexicalState = IN_KEYWORD;
+    }
+
+    private void finishNumber() {
+        final String number = new String(buffer, 0, bufferSize, StandardCharsets.US_ASCII);
+        final boolean isFloat = lexicalState == IN_FRACTION;
+        lexicalState = NONE;
+
+        if(isFloat) {
+            final float value = Float.parseFloat(number);
+            if(Float.isInfinite(value))
+                throw new NumberOutOfRangeException("Float out of range", column - bufferSize);
+            completeValue(value);
+            return;
+        }
+
+        try {
+            completeValue(Integer.parseInt(number));
+        } catch(final NumberFormatException e) {
+            throw new NumberOutOfRangeException("Integer out of range", column - bufferSize);
+        }
+    }
+
+    private void openContainer(final Object container, final byte containerState) {
+        if(depth == containers.length) {
+            containers = Arrays.copyOf(containers, containers.length * SIZE_FACTOR);
+            names = Arrays.copyOf(names, names.length * SIZE_FACTOR);
+        }
+        containers[depth++] = container;
+        state = containerState;
+    }
+
+    private void closeContainer() {
+        final Object container = containers[--depth];
+        containers[depth] = null;
+        completeValue(container);
+    }
+
+    private void completeName(final String name) {
+        names[depth-1] = name;
+        state = OBJECT_COLON;
+    }
+
+    private void completeValue(final Object value) {
+        if(depth == 0) {
+            state = VALUE;
+            consumer.accept(value);
+            return;
+        }
+
+        final Object container = containers[depth-1];
+        if(container instanceof final JSONObject jsonObject) {
+            jsonObject.set(names[depth-1], value);
+            names[depth-1] = null;
+            state = OBJECT_SEPARATOR_OR_END;
+        } else {
+            ((JSONArray) container).add(value);
+            state = ARRAY_SEPARATOR_OR_END;
+        }
+    }
+
+    private void buffer(final byte b) {
+        if(bufferSize == buffer.length)
+            buffer = Arrays.copyOf(buffer, buffer.length * SIZE_FACTOR);
+        buffer[bufferSize++] = b;
+    }
+
+    private void advance(final byte b) {
+        offset++;
+        if(b == '\n') {
+            lineNumber++;
+            column = 0;
+        } else
+            column++;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns a locator for an error in the current line, the chunks fed so far are not kept, so no snippet of the line is available.
+     *
+     * @param at 0-based column of the error.
+     */
+    private SourceLocator locator(final int at) {
+        final SourceLocation location = new SourceLocation(lineNumber, at + 1, "");
+        return ignored -> location;
+    }
+
+    class UnexpectedByteException extends ParsingException {
+        UnexpectedByteException(final byte unexpected) {
+            super("Unexpected " + stringify(unexpected), offset, locator(column), true);
+        }
+
+        UnexpectedByteException(final byte unexpected, final char expected) {
+            super("Unexpected " + stringify(unexpected) + " expected '" + expected + "'", offset, locator(column), true);
+        }
+
+        private static String stringify(final byte b) {
+            if(b == '\n')
+                return "newline";
+            else if(b == '\r')
+                return "carriage return";
+            else if(b < 0x20 || b >= 0x7F)
+                return String.format("byte 0x%02x", b & 0xFF);
+            else
+                return "'" + (char) b + "'";
+        }
+    }
+
+    class UnexpectedEndException extends ParsingException {
+        UnexpectedEndException() {
+            super("Unexpected end of input", offset, locator(column), true);
+        }
+    }
+
+    class NumberOutOfRangeException extends ParsingException {
+        NumberOutOfRangeException(final String msg, final int start) {
+            super(msg, offset - (column - start), locator(start), true);
+        }
+    }
+}
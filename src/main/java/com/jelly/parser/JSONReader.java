@@ -0,0 +1,350 @@
+package com.jelly.parser;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+import com.jelly.lexer.Dialect;
+import com.jelly.lexer.Lexer;
+import com.jelly.lexer.Token;
+import com.jelly.lexer.TokenType;
+import com.jelly.scanner.Scanner;
+import com.jelly.util.ParsingException;
+import com.jelly.util.SourceLocator;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.jelly.lexer.TokenType.*;
+
+/**
+ * Pull-style reader handing out one JSON token at a time without building a tree.
+ * <p>
+ * Top-level values may follow each other (newline-delimited JSON), {@link #peek()} returns {@code null} once the input is exhausted.
+ */
+public final class JSONReader implements AutoCloseable {
+    private static final int DEFAULT_STACK_SIZE = 32;
+    private static final int STACK_SIZE_FACTOR = 2;
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_OBJECT = 2;
+    private static final byte NONEMPTY_OBJECT = 3;
+    private static final byte DANGLING_NAME = 4;
+    private static final byte EMPTY_ARRAY = 5;
+    private static final byte NONEMPTY_ARRAY = 6;
+
+    private Lexer lexer;
+    private boolean closed;
+
+    private byte[] stack = new byte[DEFAULT_STACK_SIZE];
+    private int stackSize = 1;
+
+    private Token peeked;
+
+    public JSONReader(final String source) {
+        this(new Scanner(source));
+    }
+
+    public JSONReader(final File path) throws FileNotFoundException {
+        this(new Scanner(path));
+    }
+
+    public JSONReader(final Scanner scanner) {
+        this(new Lexer(scanner));
+    }
+
+    public JSONReader(final Scanner scanner, final Dialect dialect) {
+        this(new Lexer(scanner, dialect));
+    }
+
+    JSONReader(final Lexer lexer) {
+        this.lexer = lexer;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    private void push(final byte context) {
+        if(stackSize == stack.length)
+            stack = Arrays.copyOf(stack, stack.length * STACK_SIZE_FACTOR);
+        stack[stackSize++] = context;
+    }
+
+    private void replaceTop(final byte context) {
+        stack[stackSize-1] = context;
+    }
+
+    private Token nextToken() throws IOException {
+        while(lexer.hasNext()) {
+            final Token token = lexer.next();
+            if(token.getType() != WHITE_SPACE && token.getType() != NEWLINE && token.getType() != CARRIAGE_RETURN)
+                return token;
+            lexer.remove();
+        }
+        return null;
+    }
+
+    private Token expectToken() throws IOException {
+        final Token token = nextToken();
+        if(token == null)
+            throw new UnexpectedEndException();
+        return token;
+    }
+
+    private void expect(final TokenType type, final String expected) throws IOException {
+        final Token token = expectToken();
+        if(token.getType() != type)
+            throw new UnexpectedTokenException(token, expected);
+        lexer.remove();
+    }
+
+    private Token doPeek() throws IOException {
+        switch(stack[stackSize-1]) {
+            case EMPTY_DOCUMENT -> {
+                replaceTop(NONEMPTY_DOCUMENT);
+                return expectToken();
+            }
+            case NONEMPTY_DOCUMENT -> {
+                return nextToken();
+            }
+            case EMPTY_ARRAY -> {
+                replaceTop(NONEMPTY_ARRAY);
+                return expectToken();
+            }
+            case NONEMPTY_ARRAY -> {
+                final Token token = expectToken();
+                if(token.getType() == RIGHT_SQUARE_BRACKET)
+                    return token;
+                if(token.getType() != SEPARATOR)
+                    throw new UnexpectedTokenException(token, ",");
+                lexer.remove();
+
+                final Token element = expectToken();
+                if(element.getType() == RIGHT_SQUARE_BRACKET)
+                    throw new UnexpectedTokenException(element, "value");
+                return element;
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                Token token = expectToken();
+                if(token.getType() == RIGHT_CURLY_BRACE)
+                    return token;
+                if(stack[stackSize-1] == NONEMPTY_OBJECT) {
+                    if(token.getType() != SEPARATOR)
+                        throw new UnexpectedTokenException(token, ",");
+                    lexer.remove();
+                    token = expectToken();
+                }
+                if(token.getType() != STRING)
+                    throw new UnexpectedTokenException(token.getType(), STRING);
+                replaceTop(DANGLING_NAME);
+                return token;
+            }
+            case DANGLING_NAME -> {
+                expect(COLON, ":");
+                replaceTop(NONEMPTY_OBJECT);
+                return expectToken();
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Returns the type of the next token without consuming it.
+     *
+     * @return the type of the next token or {@code null} if the input is exhausted.
+     */
+    public TokenType peek() throws IOException {
+        if(peeked == null)
+            peeked = doPeek();
+
+        return (peeked == null) ? null : peeked.getType();
+    }
+
+    private Token consume(final TokenType type) throws IOException {
+        final TokenType actual = peek();
+        if(actual == null)
+            throw new UnexpectedEndException();
+        if(actual != type)
+            throw new UnexpectedTokenException(actual, type);
+
+        final Token token = peeked;
+        peeked = null;
+        lexer.remove();
+        return token;
+    }
+
+    /**
+     * Returns the 0-based offset of the token most recently peeked at, to report errors found by the caller.
+     */
+    public long getOffset() {
+        return lexer.getTokenStart();
+    }
+
+    public SourceLocator getLocator() {
+        return lexer.getLocator();
+    }
+
+    public boolean hasNext() throws IOException {
+        final TokenType type = peek();
+        return type != null && type != RIGHT_CURLY_BRACE && type != RIGHT_SQUARE_BRACKET;
+    }
+
+    /**
+     * Ensures nothing but whitespace follows the values read so far.
+     */
+    public void endDocument() throws IOException {
+        if(stackSize != 1)
+            throw new IllegalStateException("the document can only end outside of objects and arrays");
+        if(peek() != null)
+            throw new UnexpectedTokenException(peeked, "end of input");
+    }
+
+    public void beginObject() throws IOException {
+        consume(LEFT_CURLY_BRACE);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        consume(RIGHT_CURLY_BRACE);
+        stackSize--;
+    }
+
+    /**
+     * Continues reading inside an array whose opening bracket is not part of the input, used to start reading at an element in the middle of an array.
+     */
+    void resumeArray() {
+        if(stackSize != 1 || stack[0] != EMPTY_DOCUMENT || peeked != null)
+            throw new IllegalStateException("arrays can only be resumed before anything has been read");
+        replaceTop(NONEMPTY_DOCUMENT);
+        push(EMPTY_ARRAY);
+    }
+
+    public void beginArray() throws IOException {
+        consume(LEFT_SQUARE_BRACKET);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        consume(RIGHT_SQUARE_BRACKET);
+        stackSize--;
+    }
+
+    public String nextName() throws IOException {
+        peek();
+        if(stack[stackSize-1] != DANGLING_NAME)
+            throw new IllegalStateException("names are only allowed inside an object");
+
+        return (String) consume(STRING).getValue();
+    }
+
+    public String nextString() throws IOException {
+        return (String) consume(STRING).getValue();
+    }
+
+    public int nextInteger() throws IOException {
+        return (int) consume(INTEGER).getValue();
+    }
+
+    public float nextFloat() throws IOException {
+        if(peek() == INTEGER)
+            return (int) consume(INTEGER).getValue();
+
+        return (float) consume(FLOAT).getValue();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        if(peek() == TRUE)
+            return (boolean) consume(TRUE).getValue();
+
+        return (boolean) consume(FALSE).getValue();
+    }
+
+    public void nextNull() throws IOException {
+        consume(NULL);
+    }
+
+    /**
+     * Consumes the next value including all of its nested values without materializing any of them.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            final TokenType type = peek();
+            if(type == null)
+                throw new UnexpectedEndException();
+
+            switch(type) {
+                case LEFT_CURLY_BRACE -> { beginObject(); depth++; }
+                case LEFT_SQUARE_BRACKET -> { beginArray(); depth++; }
+                case RIGHT_CURLY_BRACE -> { endObject(); depth--; }
+                case RIGHT_SQUARE_BRACKET -> { endArray(); depth--; }
+                default -> consume(type);
+            }
+        } while(depth > 0);
+    }
+
+    /**
+     * Consumes the next value and materializes it the same way {@link Parser#parse(String)} does.
+     *
+     * @return the next value.
+     */
+    public Object readValue() throws IOException {
+        final TokenType type = peek();
+        if(type == null)
+            throw new UnexpectedEndException();
+
+        return switch(type) {
+            case LEFT_CURLY_BRACE -> readJSONObject();
+            case LEFT_SQUARE_BRACKET -> readJSONArray();
+            case TRUE, FALSE, NULL, INTEGER, FLOAT, STRING -> consume(type).getValue();
+            default -> throw new UnexpectedTokenException(peeked, "value");
+        };
+    }
+
+    public JSONObject readJSONObject() throws IOException {
+        final JSONObject jsonObject = new JSONObject();
+
+        beginObject();
+        while(hasNext())
+            jsonObject.set(nextName(), readValue());
+        endObject();
+
+        return jsonObject;
+    }
+
+    public JSONArray readJSONArray() throws IOException {
+        final JSONArray jsonArray = new JSONArray();
+
+        beginArray();
+        while(hasNext())
+            jsonArray.add(readValue());
+        endArray();
+
+        return jsonArray;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed)
+            return;
+
+        lexer.close();
+        lexer = null;
+        closed = true;
+    }
+
+    class UnexpectedTokenException extends ParsingException {
+        UnexpectedTokenException(final Token unexpected, final String expected) {
+            super("Unexpected \"" + unexpected.getValue() + "\" expected \"" + expected + "\"", lexer.getTokenStart(), lexer.getLocator(), lexer.hasStackTraces());
+        }
+
+        UnexpectedTokenException(final TokenType unexpected, final TokenType expected) {
+            super("Unexpected token of type " + unexpected + " expected " + expected, lexer.getTokenStart(), lexer.getLocator(), lexer.hasStackTraces());
+        }
+    }
+
+    class UnexpectedEndException extends ParsingException {
+        UnexpectedEndException() {
+            super("Unexpected end of input", lexer.getPosition(), lexer.getLocator(), lexer.hasStackTraces());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.jelly.parser;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Cache in front of {@link Parser#parse(String)} and {@link Parser#parse(File)} for workloads parsing the same sources over and over.
+ * <p>
+ * Entries are keyed by a 64-bit hash of the source together with its length and keep the source to compare it on a hit,
+ * so a hit costs hashing and comparing the source instead of parsing it, and colliding sources never share a tree.
+ * Each entry weighs as much as its source has characters or bytes, once the total weight exceeds the maximum
+ * the least recently used entries are evicted.
+ * <p>
+ * Parsed trees are {@linkplain JSONObject#freeze() frozen}, so every caller gets the same shared instance without any copying.
+ * Callers that need to modify a tree have to {@linkplain JSONObject#copy() copy} it.
+ * The cache is thread-safe, concurrent misses for the same source may parse it more than once.
+ */
+public final class ParseCache {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private record Key(long hash, long length) { }
+
+    /**
+     * @param source the String or byte array the value was parsed from.
+     */
+    private record Entry(Object value, long weight, Object source) { }
+
+    private final long maxWeight;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxWeight maximum total number of characters or bytes of the sources whose parsed trees are kept.
+     */
+    public ParseCache(final long maxWeight) {
+        if(maxWeight <= 0)
+            throw new IllegalArgumentException("maxWeight must be positive");
+        this.maxWeight = maxWeight;
+    }
+
+    public Object parse(final String source) throws IOException {
+        long hash = FNV_OFFSET_BASIS;
+        for(int i = 0; i < source.length(); i++)
+            hash = (hash ^ source.charAt(i)) * FNV_PRIME;
+
+        final Key key = new Key(hash, source.length());
+        final Entry cached = lookup(key, source);
+        if(cached != null)
+            return cached.value();
+
+        final Object value = freeze(Parser.parse(source));
+        store(key, new Entry(value, source.length(), source));
+        return value;
+    }
+
+    public Object parse(final File path) throws IOException {
+        final byte[] source = Files.readAllBytes(path.toPath());
+
+        long hash = FNV_OFFSET_BASIS;
+        for(final byte b : source)
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+
+        final Key key = new Key(hash, source.length);
+        final Entry cached = lookup(key, source);
+        if(cached != null)
+            return cached.value();
+
+        // the bytes that were hashed are parsed, mapped to chars one by one like scanners over files do
+        final Object value = freeze(Parser.parse(new String(source, StandardCharsets.ISO_8859_1)));
+        store(key, new Entry(value, source.length, source));
+        return value;
+    }
+
+    private synchronized Entry lookup(final Key key, final Object source) {
+        Entry entry = entries.get(key);
+        if(entry != null && !sameSource(entry.source(), source))
+            entry = null;
+        if(entry == null)
+            misses++;
+        else
+            hits++;
+        return entry;
+    }
+
+    private synchronized void store(final Key key, final Entry entry) {
+        if(entry.weight() > maxWeight)
+            return;
+
+        final Entry previous = entries.put(key, entry);
+        if(previous != null)
+            weight -= previous.weight();
+        weight += entry.weight();
+
+        final Iterator<Entry> eldest = entries.values().iterator();
+        while(weight > maxWeight) {
+            weight -= eldest.next().weight();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    private static boolean sameSource(final Object cached, final Object source) {
+        if(cached instanceof final byte[] cachedBytes && source instanceof final byte[] bytes)
+            return Arrays.equals(cachedBytes, bytes);
+        return cached.equals(source);
+    }
+
+    private static Object freeze(final Object value) {
+        if(value instanceof final JSONObject jsonObject)
+            return jsonObject.freeze();
+        if(value instanceof final JSONArray jsonArray)
+            return jsonArray.freeze();
+        return value;
+    }
+}
@@ -0,0 +1,35 @@
+package com.jelly.parser;
+
+import com.jelly.util.ParsingException;
+
+/**
+ * Outcome of {@link Parser#tryParse(String)}, holding either the parsed value or the reason the source has been rejected.
+ *
+ * @param value the parsed value, {@code null} if parsing failed.
+ * @param error the exception describing why parsing failed, {@code null} if parsing succeeded.
+ */
+public record ParseResult(Object value, ParsingException error) {
+    static ParseResult success(final Object value) {
+        return new ParseResult(value, null);
+    }
+
+    static ParseResult failure(final ParsingException error) {
+        return new ParseResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Returns the parsed value.
+     *
+     * @return the parsed value.
+     * @throws ParsingException if parsing failed.
+     */
+    public Object orElseThrow() {
+        if(error != null)
+            throw error;
+        return value;
+    }
+}
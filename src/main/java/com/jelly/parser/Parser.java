@@ -2,56 +2,289 @@ package com.jelly.parser;
 
 import com.jelly.json.JSONArray;
 import com.jelly.json.JSONObject;
+import com.jelly.json.NodePool;
+import com.jelly.lexer.Dialect;
 import com.jelly.lexer.Lexer;
 import com.jelly.lexer.Token;
 import com.jelly.lexer.TokenType;
+import com.jelly.metrics.ParseMetrics;
+import com.jelly.metrics.ParseMonitoring;
 import com.jelly.scanner.Scanner;
 import com.jelly.util.ParsingException;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 import static com.jelly.lexer.TokenType.*;
 
 public final class Parser implements AutoCloseable {
+    /**
+     * Emitted by the publishers of {@link #publishJSONArray(String)} in place of JSON null elements, Reactive Streams forbid {@code null} signals.
+     */
+    public static final Object NULL_ELEMENT = new Object() {
+        @Override
+        public String toString() {
+            return "null";
+        }
+    };
+
     public static Object parse(final String source) throws IOException {
         try(final Parser parser = new Parser(source)) {
-            return convertResult(parser.parseObject());
+            return parser.convertResult(parser.parseObject());
         }
     }
 
     public static JSONObject parseJSONObject(final String source) throws IOException {
         try(final Parser parser = new Parser(source)) {
-            return (JSONObject) convertResult(parser.parseJSONObject());
+            return (JSONObject) parser.convertResult(parser.parseJSONObject());
         }
     }
 
     public static JSONArray parseJSONArray(final String source) throws IOException {
         try(final Parser parser = new Parser(source)) {
-            return (JSONArray) convertResult(parser.parseJSONArray());
+            return (JSONArray) parser.convertResult(parser.parseJSONArray());
+        }
+    }
+
+    /**
+     * Parses {@code source} without throwing if it is malformed.
+     * <p>
+     * Exceptions reported by the returned result carry no stack trace and only derive their line and column when asked for,
+     * which keeps rejecting malformed input cheap for workloads where that happens frequently.
+     *
+     * @param source JSON-Code to be parsed.
+     * @return the parsed value or the reason {@code source} has been rejected.
+     */
+    public static ParseResult tryParse(final String source) throws IOException {
+        try(final Parser parser = new Parser(source)) {
+            return parser.tryConvert();
+        }
+    }
+
+    /**
+     * Parses the file at {@code path} without throwing if it is malformed.
+     *
+     * @see #tryParse(String)
+     */
+    public static ParseResult tryParse(final File path) throws IOException {
+        try(final Parser parser = new Parser(path)) {
+            return parser.tryConvert();
         }
     }
 
     public static Object parse(final File path) throws IOException {
         try(final Parser parser = new Parser(path)) {
-            return convertResult(parser.parseObject());
+            return parser.convertResult(parser.parseObject());
         }
     }
 
     public static JSONObject parseJSONObject(final File path) throws IOException {
         try(final Parser parser = new Parser(path)) {
-            return (JSONObject) convertResult(parser.parseJSONObject());
+            return (JSONObject) parser.convertResult(parser.parseJSONObject());
         }
     }
 
     public static JSONArray parseJSONArray(final File path) throws IOException {
         try(final Parser parser = new Parser(path)) {
-            return (JSONArray) convertResult(parser.parseJSONArray());
+            return (JSONArray) parser.convertResult(parser.parseJSONArray());
+        }
+    }
+
+    /**
+     * Parses {@code source} into JSONObjects and JSONArrays leased from {@code pool}, which recycles them on its next {@link NodePool#release()}.
+     * <p>
+     * Meant for trees that never outlive the processing of a request, releasing the pool afterwards lets the next request reuse the containers.
+     */
+    public static Object parse(final String source, final NodePool pool) throws IOException {
+        try(final Parser parser = new Parser(source)) {
+            parser.pool = Objects.requireNonNull(pool);
+            return parser.convertResult(parser.parseObject());
+        }
+    }
+
+    public static JSONObject parseJSONObject(final String source, final NodePool pool) throws IOException {
+        try(final Parser parser = new Parser(source)) {
+            parser.pool = Objects.requireNonNull(pool);
+            return (JSONObject) parser.convertResult(parser.parseJSONObject());
+        }
+    }
+
+    public static JSONArray parseJSONArray(final String source, final NodePool pool) throws IOException {
+        try(final Parser parser = new Parser(source)) {
+            parser.pool = Objects.requireNonNull(pool);
+            return (JSONArray) parser.convertResult(parser.parseJSONArray());
+        }
+    }
+
+    /**
+     * Parses everything {@code scanner} hands out, for example the decompressed contents of a {@linkplain Scanner#gzip(File) gzip file}.
+     * The scanner is closed once parsing is done.
+     */
+    public static Object parse(final Scanner scanner) throws IOException {
+        try(final Parser parser = new Parser(scanner)) {
+            return parser.convertResult(parser.parseObject());
+        }
+    }
+
+    /**
+     * Parses {@code source} written in {@code dialect}, for example {@link Dialect#JSONC} for configuration files with comments.
+     */
+    public static Object parse(final String source, final Dialect dialect) throws IOException {
+        return parse(new Scanner(source), dialect);
+    }
+
+    public static Object parse(final File path, final Dialect dialect) throws IOException {
+        return parse(new Scanner(path), dialect);
+    }
+
+    public static Object parse(final Scanner scanner, final Dialect dialect) throws IOException {
+        try(final Parser parser = new Parser(scanner, dialect)) {
+            return parser.convertResult(parser.parseObject());
         }
     }
 
-    private static Object convertResult(final Result result) {
+    public static JSONObject parseJSONObject(final Scanner scanner) throws IOException {
+        try(final Parser parser = new Parser(scanner)) {
+            return (JSONObject) parser.convertResult(parser.parseJSONObject());
+        }
+    }
+
+    public static JSONArray parseJSONArray(final Scanner scanner) throws IOException {
+        try(final Parser parser = new Parser(scanner)) {
+            return (JSONArray) parser.convertResult(parser.parseJSONArray());
+        }
+    }
+
+    /**
+     * Checks whether {@code source} is well-formed without building any value.
+     * <p>
+     * Validation accepts exactly what parsing accepts, except that nothing but whitespace may follow the top-level value.
+     * No tokens, Strings, boxed numbers or JSON values are created, reporting an error only costs a single stackless exception
+     * whose line and column are derived on demand.
+     *
+     * @param source JSON-Code to be validated.
+     * @return the validation result holding the first error, if any.
+     */
+    public static ValidationResult validate(final String source) {
+        return Validator.validate(source);
+    }
+
+    /**
+     * Checks whether the UTF-8 encoded {@code source} is well-formed without building any value.
+     * Error offsets are byte offsets.
+     *
+     * @see #validate(String)
+     */
+    public static ValidationResult validate(final byte[] source) {
+        return Validator.validate(source, 0, source.length);
+    }
+
+    /**
+     * Checks whether the remaining bytes of {@code source} are well-formed without building any value.
+     * The position of {@code source} is left untouched, error offsets are relative to it.
+     *
+     * @see #validate(String)
+     */
+    public static ValidationResult validate(final ByteBuffer source) {
+        return Validator.validate(source);
+    }
+
+    /**
+     * Checks whether the file at {@code path} is well-formed without building any value.
+     * The file is read in fixed-size chunks, error offsets are byte offsets.
+     *
+     * @see #validate(String)
+     */
+    public static ValidationResult validate(final File path) throws IOException {
+        return Validator.validate(path);
+    }
+
+    /**
+     * Returns a publisher emitting each element of the top-level array in {@code source} as soon as it has been parsed.
+     * <p>
+     * Parsing only proceeds while subscribers signal demand, elements are parsed on {@link ForkJoinPool#commonPool()}.
+     * Elements are materialized like {@link #parse(String)} does, except for JSON null elements, which are emitted as {@link #NULL_ELEMENT}.
+     */
+    public static Flow.Publisher<Object> publishJSONArray(final String source) {
+        return publishJSONArray(source, ForkJoinPool.commonPool());
+    }
+
+    public static Flow.Publisher<Object> publishJSONArray(final String source, final Executor executor) {
+        return new ArrayPublisher(() -> new JSONReader(source), executor);
+    }
+
+    /**
+     * Returns a publisher emitting each element of the top-level array in the file at {@code path} as soon as it has been parsed.
+     * <p>
+     * The file is opened anew for every subscriber and never read further than the subscriber's demand requires.
+     */
+    public static Flow.Publisher<Object> publishJSONArray(final File path) {
+        return publishJSONArray(path, ForkJoinPool.commonPool());
+    }
+
+    public static Flow.Publisher<Object> publishJSONArray(final File path, final Executor executor) {
+        return new ArrayPublisher(() -> new JSONReader(path), executor);
+    }
+
+    /**
+     * Parses all files in {@code paths} concurrently, using virtual threads where the runtime supports them.
+     *
+     * @see #parseAll(Collection, Executor, int)
+     */
+    public static Stream<FileResult> parseAll(final Collection<Path> paths) {
+        return BulkParser.parseAll(List.copyOf(paths), null, BulkParser.DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Parses all files in {@code paths} concurrently on {@code executor}.
+     *
+     * @see #parseAll(Collection, Executor, int)
+     */
+    public static Stream<FileResult> parseAll(final Collection<Path> paths, final Executor executor) {
+        return parseAll(paths, executor, BulkParser.DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Parses all files in {@code paths} concurrently on {@code executor} with at most {@code maxConcurrency} files in flight.
+     * <p>
+     * The returned stream yields one {@link FileResult} per file in the order the files complete, blocking until the next one is available.
+     * A file that fails to parse does not affect the others, its exception is reported in its result instead.
+     * Closing the stream stops scheduling files that have not been started yet.
+     *
+     * @param paths files to parse.
+     * @param executor executor the files are parsed on.
+     * @param maxConcurrency maximum number of files parsed at the same time.
+     * @return the results in completion order.
+     */
+    public static Stream<FileResult> parseAll(final Collection<Path> paths, final Executor executor, final int maxConcurrency) {
+        return BulkParser.parseAll(List.copyOf(paths), Objects.requireNonNull(executor), maxConcurrency);
+    }
+
+    private ParseResult tryConvert() throws IOException {
+        stackTraces = false;
+        lexer.setStackTraces(false);
+
+        try {
+            return ParseResult.success(convertResult(parseObject()));
+        } catch(final ParsingException e) {
+            return ParseResult.failure(e);
+        }
+    }
+
+    private Object convertResult(final Result result) {
+        if(metrics != null)
+            metrics.setSuccessful(!result.hasError());
+
         if(result.hasError())
             throw result.error;
         else
@@ -61,15 +294,31 @@ public final class Parser implements AutoCloseable {
     private Lexer lexer;
     private boolean closed;
 
+    private final ParseMetrics metrics = ParseMonitoring.start();
+    private boolean stackTraces = true;
+
     private Object parsedObject;
     private boolean parsed;
 
+    /**
+     * Pool JSONObjects and JSONArrays are leased from, {@code null} to allocate them.
+     */
+    private NodePool pool;
+
     private Parser(final String source) {
-        this.lexer = new Lexer(new Scanner(source));
+        this.lexer = new Lexer(new Scanner(source), metrics);
     }
 
     private Parser(final File path) throws FileNotFoundException {
-        this.lexer = new Lexer(new Scanner(path));
+        this(new Scanner(path));
+    }
+
+    private Parser(final Scanner scanner) {
+        this(scanner, Dialect.JELLY);
+    }
+
+    private Parser(final Scanner scanner, final Dialect dialect) {
+        this.lexer = new Lexer(scanner, metrics, dialect);
     }
 
     private Token nextToken() throws IOException {
@@ -116,23 +365,34 @@ public final class Parser implements AutoCloseable {
             return Result.from(new UnexpectedTokenException(nextToken(), "{"));
         removeToken();
 
-        final JSONObject jsonObject = new JSONObject();
+        if(metrics != null)
+            metrics.enterContainer();
 
-        do {
-            removeToken();
-            final Result fieldResult = parseField();
+        final JSONObject jsonObject = (pool == null) ? new JSONObject() : pool.newJSONObject();
+
+        if(nextToken().getType() != RIGHT_CURLY_BRACE) {
+            while(true) {
+                final Result fieldResult = parseField();
 
-            if(fieldResult.hasError())
-                return fieldResult;
+                if(fieldResult.hasError())
+                    return fieldResult;
 
-            final Field field = (Field) fieldResult.object;
-            jsonObject.set(field.name, field.value);
-        } while(nextToken().getType() == SEPARATOR);
+                final Field field = (Field) fieldResult.object;
+                jsonObject.set(field.name, field.value);
+
+                if(nextToken().getType() != SEPARATOR)
+                    break;
+                removeToken();
+            }
+        }
 
         if(nextToken().getType() != RIGHT_CURLY_BRACE)
             return Result.from(new UnexpectedTokenException(nextToken(), "}"));
         removeToken();
 
+        if(metrics != null)
+            metrics.exitContainer();
+
         return Result.from(jsonObject);
     }
 
@@ -152,22 +412,33 @@ public final class Parser implements AutoCloseable {
             return Result.from(new UnexpectedTokenException(nextToken(), "["));
         removeToken();
 
-        final JSONArray jsonArray = new JSONArray();
+        if(metrics != null)
+            metrics.enterContainer();
 
-        do {
-            removeToken();
-            final Result objectResult = parseObject();
+        final JSONArray jsonArray = (pool == null) ? new JSONArray() : pool.newJSONArray();
+
+        if(nextToken().getType() != RIGHT_SQUARE_BRACKET) {
+            while(true) {
+                final Result objectResult = parseObject();
 
-            if(objectResult.hasError())
-                return objectResult;
+                if(objectResult.hasError())
+                    return objectResult;
 
-            jsonArray.add(objectResult.object);
-        } while(nextToken().getType() == SEPARATOR);
+                jsonArray.add(objectResult.object);
+
+                if(nextToken().getType() != SEPARATOR)
+                    break;
+                removeToken();
+            }
+        }
 
         if(nextToken().getType() != RIGHT_SQUARE_BRACKET)
             return Result.from(new UnexpectedTokenException(nextToken(), "]"));
         removeToken();
 
+        if(metrics != null)
+            metrics.exitContainer();
+
         return Result.from(jsonArray);
     }
 
@@ -189,6 +460,11 @@ public final class Parser implements AutoCloseable {
         if(closed)
             return;
 
+        if(metrics != null) {
+            metrics.setScannedCharacters(lexer.getPosition());
+            ParseMonitoring.finish(metrics);
+        }
+
         lexer.close();
         lexer = null;
         closed = true;
@@ -196,7 +472,7 @@ public final class Parser implements AutoCloseable {
 
     class SyntacticalException extends ParsingException {
         SyntacticalException(final String msg) {
-            super(msg, "TODO", -1, -1);
+            super(msg, lexer.getTokenStart(), lexer.getLocator(), stackTraces);
         }
     }
 
@@ -0,0 +1,29 @@
+package com.jelly.parser;
+
+import com.jelly.util.ParsingException;
+
+/**
+ * Outcome of {@link Parser#validate(String)}.
+ *
+ * @param error the first error found in the source, {@code null} if the source is well-formed.
+ */
+public record ValidationResult(ParsingException error) {
+    static final ValidationResult VALID = new ValidationResult(null);
+
+    static ValidationResult invalid(final ParsingException error) {
+        return new ValidationResult(error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * Returns the offset of the first error in the source.
+     *
+     * @return the 0-based offset of the first error or {@code -1} if the source is well-formed.
+     */
+    public long getErrorOffset() {
+        return (error == null) ? -1 : error.getOffset();
+    }
+}
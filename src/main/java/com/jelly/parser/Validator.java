@@ -0,0 +1,396 @@
+package com.jelly.parser;
+
+import com.jelly.util.ParsingException;
+import com.jelly.util.SourceLocator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Well-formedness check accepting exactly what {@link Parser} accepts, without materializing any token or value.
+ * <p>
+ * Input is consumed in chunks of bytes, the only state kept is a bit per open container, so validating allocates nothing
+ * apart from a fixed chunk buffer and, for malformed input, the reported exception.
+ * Unlike {@link Parser#parse(String)} anything but whitespace after the top-level value is rejected.
+ */
+final class Validator {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int DEFAULT_STACK_SIZE = 4;
+
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    /**
+     * Stand-in for all non-ASCII characters of String input, none of them is significant outside of strings.
+     */
+    private static final byte NON_ASCII = (byte) 0x80;
+
+    // structural states
+    private static final byte VALUE = 0;
+    private static final byte OBJECT_NAME_OR_END = 1;
+    private static final byte OBJECT_NAME = 2;
+    private static final byte OBJECT_COLON = 3;
+    private static final byte OBJECT_SEPARATOR_OR_END = 4;
+    private static final byte ARRAY_VALUE_OR_END = 5;
+    private static final byte ARRAY_SEPARATOR_OR_END = 6;
+    private static final byte DONE = 7;
+
+    // lexical states
+    private static final byte NONE = 0;
+    private static final byte IN_STRING = 1;
+    private static final byte IN_INTEGER = 2;
+    private static final byte IN_FRACTION_START = 3;
+    private static final byte IN_FRACTION = 4;
+    private static final byte IN_KEYWORD = 5;
+
+    /**
+     * Smallest integer rounding to infinity as a float, halfway between {@link Float#MAX_VALUE} and 2^128.
+     */
+    private static final byte[] FLOAT_LIMIT = "340282356779733661637539395458142568448".getBytes(StandardCharsets.US_ASCII);
+
+    private byte state = VALUE;
+    private byte lexicalState = NONE;
+
+    private long[] objectBits = new long[DEFAULT_STACK_SIZE];
+    private int depth;
+
+    private long integer;
+    /**
+     * Number of digits of the integer part without leading zeros and how its first digits compare to {@link #FLOAT_LIMIT}.
+     */
+    private int significantDigits;
+    private int limitComparison;
+    /**
+     * Offset of the digit an integer exceeds the int range at, {@code -1} if it does not, only an error if no fraction follows.
+     */
+    private long overflowOffset = -1;
+    private byte[] keyword;
+    private int keywordIdx;
+
+    private long offset;
+
+    private String error;
+    private long errorOffset = -1;
+
+    private Validator() { }
+
+    static ValidationResult validate(final String source) {
+        final Validator validator = new Validator();
+        final byte[] chunk = new byte[Math.min(CHUNK_SIZE, Math.max(source.length(), 1))];
+
+        for(int start = 0; start < source.length() && validator.error == null; start += chunk.length) {
+            final int length = Math.min(chunk.length, source.length() - start);
+            for(int i = 0; i < length; i++) {
+                final char c = source.charAt(start + i);
+                chunk[i] = (c < 0x80) ? (byte) c : NON_ASCII;
+            }
+            validator.feed(chunk, 0, length);
+        }
+
+        return validator.finish(SourceLocator.of(source));
+    }
+
+    static ValidationResult validate(final byte[] source, final int start, final int length) {
+        final Validator validator = new Validator();
+        validator.feed(source, start, length);
+        return validator.finish(offset -> SourceLocator.of(new String(source, start, length, StandardCharsets.ISO_8859_1)).locate(offset));
+    }
+
+    static ValidationResult validate(final ByteBuffer source) {
+        final ByteBuffer view = source.slice();
+        if(view.hasArray())
+            return validate(view.array(), view.arrayOffset(), view.remaining());
+
+        final Validator validator = new Validator();
+        final byte[] chunk = new byte[Math.min(CHUNK_SIZE, Math.max(view.remaining(), 1))];
+        while(view.hasRemaining() && validator.error == null) {
+            final int length = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, length);
+            validator.feed(chunk, 0, length);
+        }
+
+        return validator.finish(offset -> {
+            final ByteBuffer copy = source.slice();
+            final byte[] bytes = new byte[copy.remaining()];
+            copy.get(bytes);
+            return SourceLocator.of(new String(bytes, StandardCharsets.ISO_8859_1)).locate(offset);
+        });
+    }
+
+    static ValidationResult validate(final File path) throws IOException {
+        final Validator validator = new Validator();
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+
+        try(final FileChannel channel = new FileInputStream(path).getChannel()) {
+            int length;
+            while(validator.error == null && (length = channel.read(buffer.clear())) != -1)
+                validator.feed(chunk, 0, length);
+        }
+
+        return validator.finish(SourceLocator.of(path));
+    }
+
+    private ValidationResult finish(final SourceLocator locator) {
+        if(error == null) {
+            if(lexicalState == IN_INTEGER) {
+                lexicalState = NONE;
+                completeInteger();
+            } else if(lexicalState == IN_FRACTION) {
+                lexicalState = NONE;
+                completeFloat(offset);
+            }
+            if(error == null && (lexicalState != NONE || state != DONE))
+                fail("Unexpected end of input", offset);
+        }
+
+        if(error == null)
+            return ValidationResult.VALID;
+        return ValidationResult.invalid(new ParsingException(error, errorOffset, locator, false));
+    }
+
+    private void fail(final String reason, final long at) {
+        error = reason;
+        errorOffset = at;
+    }
+
+    private void unexpected(final byte b, final long at) {
+        fail("Unexpected " + stringify(b), at);
+    }
+
+    private static String stringify(final byte b) {
+        if(b == '\n')
+            return "newline";
+        else if(b == '\r')
+            return "carriage return";
+        else if(b < 0x20 || b >= 0x7F)
+            return String.format("byte 0x%02x", b & 0xFF);
+        else
+            return "'" + (char) b + "'";
+    }
+
+    private void feed(final byte[] chunk, final int start, final int length) {
+        final int end = start + length;
+        int i = start;
+
+        while(i < end && error == null) {
+            switch(lexicalState) {
+                case IN_STRING -> {
+                    while(i < end) {
+                        final byte b = chunk[i];
+                        if(b == '"') {
+                            lexicalState = NONE;
+                            completeString();
+                            i++;
+                            break;
+                        } else if(b == '\n' || b == '\r') {
+                            unexpected(b, offset + i - start);
+                            break;
+                        }
+                        i++;
+                    }
+                    continue;
+                }
+                case IN_INTEGER -> {
+                    while(i < end && '0' <= chunk[i] && chunk[i] <= '9') {
+                        countSignificantDigit(chunk[i]);
+                        if(overflowOffset < 0) {
+                            integer = integer * 10 + (chunk[i] - '0');
+                            if(integer > Integer.MAX_VALUE)
+                                overflowOffset = offset + i - start;
+                        }
+                        i++;
+                    }
+                    if(i == end)
+                        continue;
+                    if(chunk[i] == '.') {
+                        lexicalState = IN_FRACTION_START;
+                        i++;
+                        continue;
+                    }
+                    lexicalState = NONE;
+                    completeInteger();
+                    if(error != null)
+                        continue;
+                }
+                case IN_FRACTION_START -> {
+                    if(chunk[i] < '0' || '9' < chunk[i]) {
+                        unexpected(chunk[i], offset + i - start);
+                        continue;
+                    }
+                    lexicalState = IN_FRACTION;
+                    i++;
+                    continue;
+                }
+                case IN_FRACTION -> {
+                    while(i < end && '0' <= chunk[i] && chunk[i] <= '9')
+                        i++;
+                    if(i == end)
+                        continue;
+                    lexicalState = NONE;
+                    completeFloat(offset + i - start);
+                    if(error != null)
+                        continue;
+                }
+                case IN_KEYWORD -> {
+                    if(chunk[i] != keyword[keywordIdx]) {
+                        fail("Unexpected " + stringify(chunk[i]) + " expected '" + (char) keyword[keywordIdx] + "'", offset + i - start);
+                        continue;
+                    }
+                    i++;
+                    if(++keywordIdx == keyword.length) {
+                        lexicalState = NONE;
+                        completeValue();
+                    }
+                    continue;
+                }
+            }
+
+            final byte b = chunk[i];
+            if(b != ' ' && b != '\t' && b != '\n' && b != '\r')
+                processStructural(b, offset + i - start);
+            i++;
+        }
+
+        offset += i - start;
+    }
+
+    private void processStructural(final byte b, final long at) {
+        switch(state) {
+            case VALUE, ARRAY_VALUE_OR_END -> {
+                if(b == ']' && state == ARRAY_VALUE_OR_END)
+                    closeContainer();
+                else
+                    startValue(b, at);
+            }
+            case OBJECT_NAME_OR_END, OBJECT_NAME -> {
+                if(b == '}' && state == OBJECT_NAME_OR_END)
+                    closeContainer();
+                else if(b == '"')
+                    lexicalState = IN_STRING;
+                else
+                    fail("Unexpected " + stringify(b) + " expected '\"'", at);
+            }
+            case OBJECT_COLON -> {
+                if(b == ':')
+                    state = VALUE;
+                else
+                    fail("Unexpected " + stringify(b) + " expected ':'", at);
+            }
+            case OBJECT_SEPARATOR_OR_END -> {
+                if(b == ',')
+                    state = OBJECT_NAME;
+                else if(b == '}')
+                    closeContainer();
+                else
+                    fail("Unexpected " + stringify(b) + " expected '}'", at);
+            }
+            case ARRAY_SEPARATOR_OR_END -> {
+                if(b == ',')
+                    state = VALUE;
+                else if(b == ']')
+                    closeContainer();
+                else
+                    fail("Unexpected " + stringify(b) + " expected ']'", at);
+            }
+            default -> unexpected(b, at);
+        }
+    }
+
+    private void startValue(final byte b, final long at) {
+        switch(b) {
+            case '{' -> openContainer(true);
+            case '[' -> openContainer(false);
+            case '"' -> lexicalState = IN_STRING;
+            case 't' -> startKeyword(TRUE);
+            case 'f' -> startKeyword(FALSE);
+            case 'n' -> startKeyword(NULL);
+            default -> {
+                if(b < '0' || '9' < b) {
+                    unexpected(b, at);
+                    return;
+                }
+                integer = b - '0';
+                overflowOffset = -1;
+                significantDigits = 0;
+                limitComparison = 0;
+                countSignificantDigit(b);
+                lexicalState = IN_INTEGER;
+            }
+        }
+    }
+
+    /**
+     * Completes a number without fraction, which has to fit into an int unlike the integer part of a float.
+     */
+    private void completeInteger() {
+        if(overflowOffset >= 0)
+            fail("Integer out of range", overflowOffset);
+        else
+            completeValue();
+    }
+
+    private void countSignificantDigit(final byte digit) {
+        if(significantDigits == 0 && digit == '0')
+            return;
+        if(significantDigits < FLOAT_LIMIT.length && limitComparison == 0)
+            limitComparison = Integer.compare(digit, FLOAT_LIMIT[significantDigits]);
+        significantDigits++;
+    }
+
+    /**
+     * Completes a number with fraction, whose integer part must stay below {@link #FLOAT_LIMIT} for it not to round to infinity.
+     */
+    private void completeFloat(final long at) {
+        if(significantDigits > FLOAT_LIMIT.length || (significantDigits == FLOAT_LIMIT.length && limitComparison >= 0))
+            fail("Float out of range", at);
+        else
+            completeValue();
+    }
+
+    private void startKeyword(final byte[] keyword) {
+        this.keyword = keyword;
+        keywordIdx = 1;
+        lexicalState = IN_KEYWORD;
+    }
+
+    private void openContainer(final boolean isObject) {
+        if(depth == objectBits.length * Long.SIZE)
+            objectBits = Arrays.copyOf(objectBits, objectBits.length * 2);
+
+        if(isObject)
+            objectBits[depth >> 6] |= 1L << depth;
+        else
+            objectBits[depth >> 6] &= ~(1L << depth);
+
+        depth++;
+        state = isObject ? OBJECT_NAME_OR_END : ARRAY_VALUE_OR_END;
+    }
+
+    private void closeContainer() {
+        depth--;
+        completeValue();
+    }
+
+    private void completeString() {
+        if(state == OBJECT_NAME_OR_END || state == OBJECT_NAME)
+            state = OBJECT_COLON;
+        else
+            completeValue();
+    }
+
+    private void completeValue() {
+        if(depth == 0)
+            state = DONE;
+        else if((objectBits[(depth-1) >> 6] & (1L << (depth-1))) != 0)
+            state = OBJECT_SEPARATOR_OR_END;
+        else
+            state = ARRAY_SEPARATOR_OR_END;
+    }
+}
@@ -0,0 +1,82 @@
+package com.jelly.patch;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes JSON Patches turning one document into another.
+ * <p>
+ * Subtrees are compared by their cached structural hash codes first, identical instances, as shared between versions created through
+ * {@link JSONObject#with(String, Object)}, are recognized without looking at them at all.
+ * Arrays are diffed by trimming their common prefix and suffix and pairing up the remaining elements by position,
+ * which yields minimal patches for appends, single insertions and removals and in-place replacements without computing a longest common subsequence.
+ */
+public final class JSONDiff {
+    private final List<PatchOperation> operations = new ArrayList<>();
+
+    private JSONDiff() { }
+
+    /**
+     * Returns a patch that, applied to {@code source}, yields a document equal to {@code target}.
+     * Operations refer to values of {@code target} instead of copying them.
+     */
+    public static JSONPatch diff(final Object source, final Object target) {
+        final JSONDiff diff = new JSONDiff();
+        diff.diff(source, target, JSONPointer.ROOT);
+        return new JSONPatch(diff.operations);
+    }
+
+    private void diff(final Object source, final Object target, final JSONPointer pointer) {
+        if(Objects.equals(source, target))
+            return;
+
+        if(source instanceof final JSONObject sourceObject && target instanceof final JSONObject targetObject)
+            diffObjects(sourceObject, targetObject, pointer);
+        else if(source instanceof final JSONArray sourceArray && target instanceof final JSONArray targetArray)
+            diffArrays(sourceArray, targetArray, pointer);
+        else
+            operations.add(new PatchOperation(PatchOperation.Type.REPLACE, pointer, null, target));
+    }
+
+    private void diffObjects(final JSONObject source, final JSONObject target, final JSONPointer pointer) {
+        for(final String fieldName : source.fieldNames())
+            if(!target.fieldNames().contains(fieldName))
+                operations.add(new PatchOperation(PatchOperation.Type.REMOVE, pointer.append(fieldName), null, null));
+
+        for(final String fieldName : target.fieldNames()) {
+            if(source.fieldNames().contains(fieldName))
+                diff(source.get(fieldName), target.get(fieldName), pointer.append(fieldName));
+            else
+                operations.add(new PatchOperation(PatchOperation.Type.ADD, pointer.append(fieldName), null, target.get(fieldName)));
+        }
+    }
+
+    private void diffArrays(final JSONArray source, final JSONArray target, final JSONPointer pointer) {
+        final int common = Math.min(source.size(), target.size());
+
+        int prefix = 0;
+        while(prefix < common && Objects.equals(source.get(prefix), target.get(prefix)))
+            prefix++;
+
+        int suffix = 0;
+        while(suffix < common - prefix && Objects.equals(source.get(source.size() - 1 - suffix), target.get(target.size() - 1 - suffix)))
+            suffix++;
+
+        final int sourceMiddle = source.size() - prefix - suffix;
+        final int targetMiddle = target.size() - prefix - suffix;
+        final int paired = Math.min(sourceMiddle, targetMiddle);
+
+        for(int i = prefix; i < prefix + paired; i++)
+            diff(source.get(i), target.get(i), pointer.append(i));
+
+        for(int i = prefix + paired; i < prefix + targetMiddle; i++)
+            operations.add(new PatchOperation(PatchOperation.Type.ADD, pointer.append(i), null, target.get(i)));
+
+        for(int i = paired; i < sourceMiddle; i++)
+            operations.add(new PatchOperation(PatchOperation.Type.REMOVE, pointer.append(prefix + paired), null, null));
+    }
+}
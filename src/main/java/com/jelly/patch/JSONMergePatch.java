@@ -0,0 +1,106 @@
+package com.jelly.patch;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+import com.jelly.lexer.TokenType;
+import com.jelly.parser.JSONReader;
+import com.jelly.writer.JSONWriter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch as defined by RFC 7396.
+ */
+public final class JSONMergePatch {
+    private JSONMergePatch() { }
+
+    /**
+     * Merges {@code patch} into {@code target}.
+     *
+     * @param target the document to patch, it is not modified.
+     * @param patch the merge patch, fields set to {@code null} are removed from the target.
+     * @return the patched document, frozen and sharing all fields the patch did not touch with {@code target}.
+     */
+    public static Object apply(final Object target, final Object patch) {
+        if(!(patch instanceof final JSONObject patchObject)) {
+            if(patch instanceof final JSONArray jsonArray)
+                return jsonArray.freeze();
+            return patch;
+        }
+
+        JSONObject patched = (target instanceof final JSONObject targetObject) ? targetObject.freeze() : new JSONObject().freeze();
+        for(final String fieldName : patchObject.fieldNames()) {
+            final Object value = patchObject.get(fieldName);
+            patched = (value == null) ? patched.without(fieldName) : patched.with(fieldName, apply(patched.get(fieldName), value));
+        }
+        return patched;
+    }
+
+    /**
+     * Reads the next value from {@code in}, merges {@code patch} into it and writes the result to {@code out}.
+     * <p>
+     * Only fields that are replaced are skipped instead of copied, nothing of the target is materialized.
+     */
+    public static void apply(final JSONReader in, final Object patch, final JSONWriter out) throws IOException {
+        if(!(patch instanceof final JSONObject patchObject) || in.peek() != TokenType.LEFT_CURLY_BRACE) {
+            in.skipValue();
+            out.value(apply(null, patch));
+            return;
+        }
+
+        final Set<String> merged = new HashSet<>();
+        in.beginObject();
+        out.beginObject();
+        while(in.hasNext()) {
+            final String name = in.nextName();
+            if(!patchObject.fieldNames().contains(name)) {
+                out.name(name);
+                Transfer.copyValue(in, out);
+                continue;
+            }
+
+            merged.add(name);
+            final Object value = patchObject.get(name);
+            if(value == null)
+                in.skipValue();
+            else {
+                out.name(name);
+                apply(in, value, out);
+            }
+        }
+        in.endObject();
+
+        for(final String fieldName : patchObject.fieldNames()) {
+            final Object value = patchObject.get(fieldName);
+            if(value != null && !merged.contains(fieldName))
+                out.name(fieldName).value(apply(null, value));
+        }
+        out.endObject();
+    }
+
+    /**
+     * Computes a merge patch turning {@code source} into {@code target}.
+     * <p>
+     * Merge patches cannot set a field to {@code null}, such fields of {@code target} are removed by the patch instead.
+     */
+    public static Object diff(final Object source, final Object target) {
+        if(!(source instanceof final JSONObject sourceObject) || !(target instanceof final JSONObject targetObject))
+            return target;
+
+        final JSONObject patch = new JSONObject();
+        for(final String fieldName : sourceObject.fieldNames())
+            if(!targetObject.fieldNames().contains(fieldName))
+                patch.set(fieldName, (Object) null);
+        for(final String fieldName : targetObject.fieldNames()) {
+            final Object targetValue = targetObject.get(fieldName);
+            if(!sourceObject.fieldNames().contains(fieldName))
+                patch.set(fieldName, targetValue);
+            else if(!Objects.equals(sourceObject.get(fieldName), targetValue))
+                patch.set(fieldName, diff(sourceObject.get(fieldName), targetValue));
+        }
+        return patch;
+    }
+}
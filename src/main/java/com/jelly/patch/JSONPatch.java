@@ -0,0 +1,285 @@
+package com.jelly.patch;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+import com.jelly.lexer.TokenType;
+import com.jelly.parser.JSONReader;
+import com.jelly.parser.Parser;
+import com.jelly.writer.JSONWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * JSON Patch as defined by RFC 6902.
+ * <p>
+ * Patches are applied functionally: the document passed in is left unchanged and a {@linkplain JSONObject#freeze() frozen} result is
+ * returned, which shares everything the patch did not touch with the original document.
+ * {@link #apply(JSONReader, JSONWriter)} applies a patch while streaming a document from a reader to a writer instead,
+ * only the smallest subtrees containing everything an operation touches are materialized.
+ */
+public final class JSONPatch {
+    private final List<PatchOperation> operations;
+
+    public JSONPatch(final List<PatchOperation> operations) {
+        this.operations = List.copyOf(operations);
+    }
+
+    public static JSONPatch parse(final JSONArray patch) {
+        final List<PatchOperation> operations = new ArrayList<>(patch.size());
+        for(int i = 0; i < patch.size(); i++) {
+            if(!(patch.get(i) instanceof final JSONObject operation))
+                throw new JSONPatchException("operation " + i + " is not an object");
+            operations.add(PatchOperation.fromJSONObject(operation));
+        }
+        return new JSONPatch(operations);
+    }
+
+    public static JSONPatch parse(final String patch) throws IOException {
+        return parse(Parser.parseJSONArray(patch));
+    }
+
+    public List<PatchOperation> operations() {
+        return operations;
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    public JSONArray toJSONArray() {
+        final JSONArray patch = new JSONArray();
+        for(final PatchOperation operation : operations)
+            patch.add(operation.toJSONObject());
+        return patch;
+    }
+
+    /**
+     * Applies all operations in order.
+     *
+     * @param document the document to patch, it is not modified.
+     * @return the patched document.
+     * @throws JSONPatchException if an operation cannot be applied or a {@code test} fails.
+     */
+    public Object apply(final Object document) {
+        Object patched = freeze(document);
+        for(final PatchOperation operation : operations)
+            patched = apply(patched, operation);
+        return patched;
+    }
+
+    private static Object freeze(final Object value) {
+        if(value instanceof final JSONObject jsonObject)
+            return jsonObject.freeze();
+        if(value instanceof final JSONArray jsonArray)
+            return jsonArray.freeze();
+        return value;
+    }
+
+    private static Object apply(final Object document, final PatchOperation operation) {
+        final JSONPointer path = operation.path();
+        return switch(operation.type()) {
+            case ADD -> add(document, path, operation.value());
+            case REMOVE -> remove(document, path);
+            case REPLACE -> replace(document, path, operation.value());
+            case MOVE -> {
+                if(operation.from().equals(path))
+                    yield document;
+                if(path.startsWith(operation.from()))
+                    throw new JSONPatchException("cannot move \"" + operation.from() + "\" into itself");
+                final Object value = operation.from().evaluate(document);
+                yield add(remove(document, operation.from()), path, value);
+            }
+            case COPY -> add(document, path, operation.from().evaluate(document));
+            case TEST -> {
+                if(!Objects.equals(path.evaluate(document), operation.value()))
+                    throw new JSONPatchException("test of \"" + path + "\" failed");
+                yield document;
+            }
+        };
+    }
+
+    private static Object add(final Object document, final JSONPointer path, final Object value) {
+        if(path.isRoot())
+            return freeze(value);
+
+        final String token = path.lastToken();
+        return update(document, path, 0, parent -> {
+            if(parent instanceof final JSONObject jsonObject)
+                return jsonObject.with(token, value);
+            if(parent instanceof final JSONArray jsonArray) {
+                if(token.equals("-"))
+                    return jsonArray.withAppended(value);
+                final int idx = JSONPointer.index(token, jsonArray.size());
+                return (idx == jsonArray.size()) ? jsonArray.withAppended(value) : splice(jsonArray, idx, 0, value);
+            }
+            throw new JSONPatchException("\"" + path.parent() + "\" is not a container");
+        });
+    }
+
+    private static Object remove(final Object document, final JSONPointer path) {
+        if(path.isRoot())
+            throw new JSONPatchException("cannot remove the whole document");
+
+        final String token = path.lastToken();
+        return update(document, path, 0, parent -> {
+            if(parent instanceof final JSONObject jsonObject && jsonObject.fieldNames().contains(token))
+                return jsonObject.without(token);
+            if(parent instanceof final JSONArray jsonArray)
+                return splice(jsonArray, JSONPointer.index(token, jsonArray.size() - 1), 1, null);
+            throw new JSONPatchException("\"" + path + "\" does not exist");
+        });
+    }
+
+    private static Object replace(final Object document, final JSONPointer path, final Object value) {
+        if(path.isRoot())
+            return freeze(value);
+
+        final String token = path.lastToken();
+        return update(document, path, 0, parent -> {
+            if(parent instanceof final JSONObject jsonObject && jsonObject.fieldNames().contains(token))
+                return jsonObject.with(token, value);
+            if(parent instanceof final JSONArray jsonArray)
+                return jsonArray.with(JSONPointer.index(token, jsonArray.size() - 1), value);
+            throw new JSONPatchException("\"" + path + "\" does not exist");
+        });
+    }
+
+    /**
+     * Rebuilds the path from {@code node} down to the parent of the location of {@code path}, which is replaced by the result of {@code change}.
+     */
+    private static Object update(final Object node, final JSONPointer path, final int depth, final UnaryOperator<Object> change) {
+        if(depth == path.depth() - 1)
+            return change.apply(node);
+
+        final String token = path.tokens().get(depth);
+        if(node instanceof final JSONObject jsonObject && jsonObject.fieldNames().contains(token))
+            return jsonObject.with(token, update(jsonObject.get(token), path, depth + 1, change));
+        if(node instanceof final JSONArray jsonArray) {
+            final int idx = JSONPointer.index(token, jsonArray.size() - 1);
+            return jsonArray.with(idx, update(jsonArray.get(idx), path, depth + 1, change));
+        }
+        throw new JSONPatchException("\"" + path + "\" does not exist");
+    }
+
+    /**
+     * Returns a frozen copy of {@code jsonArray} with {@code deleted} elements removed at {@code idx} and {@code inserted} inserted there, if {@code deleted} is 0.
+     */
+    private static JSONArray splice(final JSONArray jsonArray, final int idx, final int deleted, final Object inserted) {
+        final JSONArray spliced = new JSONArray();
+        for(int i = 0; i < idx; i++)
+            spliced.add(jsonArray.get(i));
+        if(deleted == 0)
+            spliced.add(inserted);
+        for(int i = idx + deleted; i < jsonArray.size(); i++)
+            spliced.add(jsonArray.get(i));
+        return spliced.freeze();
+    }
+
+    /**
+     * Reads the next value from {@code in}, applies this patch to it and writes the result to {@code out}.
+     * <p>
+     * Subtrees no operation reaches into are copied token by token. For every operation the deepest value containing
+     * everything it reads or modifies is materialized and patched as a whole, operations sharing such a value are combined.
+     * If an operation fails, a {@link JSONPatchException} is thrown and the output written so far is incomplete.
+     */
+    public void apply(final JSONReader in, final JSONWriter out) throws IOException {
+        final Map<JSONPointer, List<PatchOperation>> scopes = scopes();
+        final Set<JSONPointer> ancestors = new HashSet<>();
+        for(final JSONPointer scope : scopes.keySet())
+            for(JSONPointer ancestor = scope; !ancestor.isRoot(); )
+                ancestors.add(ancestor = ancestor.parent());
+
+        final Set<JSONPointer> visited = new HashSet<>();
+        stream(in, out, JSONPointer.ROOT, scopes, ancestors, visited);
+
+        for(final JSONPointer scope : scopes.keySet())
+            if(!visited.contains(scope))
+                throw new JSONPatchException("\"" + scope + "\" does not exist");
+    }
+
+    /**
+     * Groups the operations by the outermost scope containing them, keeping their order within each group.
+     */
+    private Map<JSONPointer, List<PatchOperation>> scopes() {
+        final List<JSONPointer> roots = new ArrayList<>();
+        for(final PatchOperation operation : operations) {
+            final JSONPointer scope = operation.scope();
+            if(roots.stream().anyMatch(scope::startsWith))
+                continue;
+            roots.removeIf(root -> root.startsWith(scope));
+            roots.add(scope);
+        }
+
+        final Map<JSONPointer, List<PatchOperation>> scopes = new LinkedHashMap<>();
+        for(final PatchOperation operation : operations) {
+            final JSONPointer scope = operation.scope();
+            for(final JSONPointer root : roots) {
+                if(scope.startsWith(root)) {
+                    scopes.computeIfAbsent(root, ignored -> new ArrayList<>()).add(operation.relativeTo(root));
+                    break;
+                }
+            }
+        }
+        return scopes;
+    }
+
+    private static void stream(final JSONReader in, final JSONWriter out, final JSONPointer pointer,
+                               final Map<JSONPointer, List<PatchOperation>> scopes, final Set<JSONPointer> ancestors,
+                               final Set<JSONPointer> visited) throws IOException {
+        final List<PatchOperation> scoped = scopes.get(pointer);
+        if(scoped != null) {
+            visited.add(pointer);
+            out.value(new JSONPatch(scoped).apply(in.readValue()));
+            return;
+        }
+
+        if(!ancestors.contains(pointer)) {
+            Transfer.copyValue(in, out);
+            return;
+        }
+
+        final TokenType type = in.peek();
+        if(type == TokenType.LEFT_CURLY_BRACE) {
+            in.beginObject();
+            out.beginObject();
+            while(in.hasNext()) {
+                final String name = in.nextName();
+                out.name(name);
+                stream(in, out, pointer.append(name), scopes, ancestors, visited);
+            }
+            in.endObject();
+            out.endObject();
+        } else if(type == TokenType.LEFT_SQUARE_BRACKET) {
+            in.beginArray();
+            out.beginArray();
+            for(int i = 0; in.hasNext(); i++)
+                stream(in, out, pointer.append(i), scopes, ancestors, visited);
+            in.endArray();
+            out.endArray();
+        } else
+            Transfer.copyValue(in, out);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof final JSONPatch patch && operations.equals(patch.operations);
+    }
+
+    @Override
+    public int hashCode() {
+        return operations.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toJSONArray().toString();
+    }
+}
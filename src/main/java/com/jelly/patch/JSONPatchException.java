@@ -0,0 +1,10 @@
+package com.jelly.patch;
+
+/**
+ * Exception thrown when a patch is malformed or cannot be applied to a document.
+ */
+public class JSONPatchException extends RuntimeException {
+    public JSONPatchException(final String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,146 @@
+package com.jelly.patch;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JSON Pointer as defined by RFC 6901, identifying a value inside a JSON document.
+ */
+public final class JSONPointer {
+    public static final JSONPointer ROOT = new JSONPointer(List.of());
+
+    private final List<String> tokens;
+
+    private JSONPointer(final List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Parses a pointer like {@code /a/0/b~1c}.
+     *
+     * @throws JSONPatchException if {@code pointer} is neither empty nor starts with a slash.
+     */
+    public static JSONPointer parse(final String pointer) {
+        if(pointer.isEmpty())
+            return ROOT;
+        if(pointer.charAt(0) != '/')
+            throw new JSONPatchException("JSON Pointer \"" + pointer + "\" must start with '/'");
+
+        final List<String> tokens = new ArrayList<>();
+        for(final String token : pointer.substring(1).split("/", -1))
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        return new JSONPointer(Collections.unmodifiableList(tokens));
+    }
+
+    public List<String> tokens() {
+        return tokens;
+    }
+
+    public int depth() {
+        return tokens.size();
+    }
+
+    public boolean isRoot() {
+        return tokens.isEmpty();
+    }
+
+    public String lastToken() {
+        return tokens.get(tokens.size() - 1);
+    }
+
+    public JSONPointer parent() {
+        return new JSONPointer(tokens.subList(0, tokens.size() - 1));
+    }
+
+    public JSONPointer append(final String token) {
+        final List<String> appended = new ArrayList<>(tokens.size() + 1);
+        appended.addAll(tokens);
+        appended.add(token);
+        return new JSONPointer(Collections.unmodifiableList(appended));
+    }
+
+    public JSONPointer append(final int index) {
+        return append(Integer.toString(index));
+    }
+
+    public boolean startsWith(final JSONPointer prefix) {
+        return prefix.tokens.size() <= tokens.size() && tokens.subList(0, prefix.tokens.size()).equals(prefix.tokens);
+    }
+
+    /**
+     * Returns this pointer relative to {@code prefix}, which has to be a prefix of this pointer.
+     */
+    JSONPointer relativeTo(final JSONPointer prefix) {
+        return new JSONPointer(tokens.subList(prefix.tokens.size(), tokens.size()));
+    }
+
+    /**
+     * Returns the longest common prefix of this pointer and {@code other}.
+     */
+    JSONPointer commonPrefix(final JSONPointer other) {
+        int length = 0;
+        while(length < tokens.size() && length < other.tokens.size() && tokens.get(length).equals(other.tokens.get(length)))
+            length++;
+        return new JSONPointer(tokens.subList(0, length));
+    }
+
+    /**
+     * Returns the value this pointer refers to in {@code document}.
+     *
+     * @throws JSONPatchException if the value does not exist.
+     */
+    public Object evaluate(final Object document) {
+        Object current = document;
+        for(int i = 0; i < tokens.size(); i++) {
+            final String token = tokens.get(i);
+            if(current instanceof final JSONObject jsonObject && jsonObject.fieldNames().contains(token))
+                current = jsonObject.get(token);
+            else if(current instanceof final JSONArray jsonArray)
+                current = jsonArray.get(index(token, jsonArray.size() - 1));
+            else
+                throw new JSONPatchException("\"" + this + "\" does not exist");
+        }
+        return current;
+    }
+
+    /**
+     * Parses an array index token.
+     *
+     * @param max the largest valid index.
+     * @throws JSONPatchException if {@code token} is not an index between 0 and {@code max}.
+     */
+    static int index(final String token, final int max) {
+        if(token.isEmpty() || token.length() > 10 || (token.length() > 1 && token.charAt(0) == '0'))
+            throw new JSONPatchException("invalid array index \"" + token + "\"");
+        for(int i = 0; i < token.length(); i++)
+            if(token.charAt(i) < '0' || token.charAt(i) > '9')
+                throw new JSONPatchException("invalid array index \"" + token + "\"");
+
+        final long index = Long.parseLong(token);
+        if(index > max)
+            throw new JSONPatchException("array index " + index + " out of bounds");
+        return (int) index;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof final JSONPointer pointer && tokens.equals(pointer.tokens);
+    }
+
+    @Override
+    public int hashCode() {
+        return tokens.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder pointer = new StringBuilder();
+        for(final String token : tokens)
+            pointer.append('/').append(token.replace("~", "~0").replace("/", "~1"));
+        return pointer.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package com.jelly.patch;
+
+import com.jelly.json.JSONObject;
+
+import java.util.Objects;
+
+/**
+ * Single operation of a {@link JSONPatch}.
+ *
+ * @param type the kind of operation.
+ * @param path the location the operation is applied to.
+ * @param from the source location of {@code move} and {@code copy}, {@code null} for all other operations.
+ * @param value the value of {@code add}, {@code replace} and {@code test}, {@code null} for all other operations.
+ */
+public record PatchOperation(Type type, JSONPointer path, JSONPointer from, Object value) {
+    public enum Type {
+        ADD("add"),
+        REMOVE("remove"),
+        REPLACE("replace"),
+        MOVE("move"),
+        COPY("copy"),
+        TEST("test");
+
+        private final String name;
+
+        Type(final String name) {
+            this.name = name;
+        }
+
+        static Type named(final String name) {
+            for(final Type type : values())
+                if(type.name.equals(name))
+                    return type;
+            throw new JSONPatchException("unknown operation \"" + name + "\"");
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public PatchOperation {
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(path);
+        if((type == Type.MOVE || type == Type.COPY) && from == null)
+            throw new JSONPatchException(type + " requires \"from\"");
+    }
+
+    public static PatchOperation add(final String path, final Object value) {
+        return new PatchOperation(Type.ADD, JSONPointer.parse(path), null, value);
+    }
+
+    public static PatchOperation remove(final String path) {
+        return new PatchOperation(Type.REMOVE, JSONPointer.parse(path), null, null);
+    }
+
+    public static PatchOperation replace(final String path, final Object value) {
+        return new PatchOperation(Type.REPLACE, JSONPointer.parse(path), null, value);
+    }
+
+    public static PatchOperation move(final String from, final String path) {
+        return new PatchOperation(Type.MOVE, JSONPointer.parse(path), JSONPointer.parse(from), null);
+    }
+
+    public static PatchOperation copy(final String from, final String path) {
+        return new PatchOperation(Type.COPY, JSONPointer.parse(path), JSONPointer.parse(from), null);
+    }
+
+    public static PatchOperation test(final String path, final Object value) {
+        return new PatchOperation(Type.TEST, JSONPointer.parse(path), null, value);
+    }
+
+    static PatchOperation fromJSONObject(final JSONObject operation) {
+        if(!(operation.get("op") instanceof final String op) || !(operation.get("path") instanceof final String path))
+            throw new JSONPatchException("operation " + operation + " requires \"op\" and \"path\"");
+
+        final Type type = Type.named(op);
+        if((type == Type.ADD || type == Type.REPLACE || type == Type.TEST) && !operation.fieldNames().contains("value"))
+            throw new JSONPatchException(type + " requires \"value\"");
+
+        final Object from = operation.get("from");
+        if(from != null && !(from instanceof String))
+            throw new JSONPatchException("\"from\" must be a string");
+
+        return new PatchOperation(type, JSONPointer.parse(path), (from == null) ? null : JSONPointer.parse((String) from), operation.get("value"));
+    }
+
+    JSONObject toJSONObject() {
+        final JSONObject operation = new JSONObject();
+        operation.set("op", type.toString());
+        operation.set("path", path.toString());
+        if(from != null)
+            operation.set("from", from.toString());
+        if(type == Type.ADD || type == Type.REPLACE || type == Type.TEST)
+            operation.set("value", value);
+        return operation;
+    }
+
+    /**
+     * Returns this operation with its locations made relative to {@code root}, which has to be a prefix of them.
+     */
+    PatchOperation relativeTo(final JSONPointer root) {
+        return new PatchOperation(type, path.relativeTo(root), (from == null) ? null : from.relativeTo(root), value);
+    }
+
+    /**
+     * Returns the location of the deepest value containing everything this operation reads or modifies.
+     */
+    JSONPointer scope() {
+        JSONPointer scope = (type == Type.TEST || path.isRoot()) ? path : path.parent();
+        if(from != null)
+            scope = scope.commonPrefix(from.isRoot() ? from : from.parent());
+        return scope;
+    }
+}
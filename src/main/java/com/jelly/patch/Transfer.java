@@ -0,0 +1,50 @@
+package com.jelly.patch;
+
+import com.jelly.lexer.TokenType;
+import com.jelly.parser.JSONReader;
+import com.jelly.writer.JSONWriter;
+
+import java.io.IOException;
+
+/**
+ * Copies values from a reader to a writer token by token without materializing them.
+ */
+final class Transfer {
+    private Transfer() { }
+
+    static void copyValue(final JSONReader in, final JSONWriter out) throws IOException {
+        final TokenType type = in.peek();
+        if(type == null)
+            throw new JSONPatchException("unexpected end of input");
+
+        switch(type) {
+            case LEFT_CURLY_BRACE -> {
+                in.beginObject();
+                out.beginObject();
+                while(in.hasNext()) {
+                    out.name(in.nextName());
+                    copyValue(in, out);
+                }
+                in.endObject();
+                out.endObject();
+            }
+            case LEFT_SQUARE_BRACKET -> {
+                in.beginArray();
+                out.beginArray();
+                while(in.hasNext())
+                    copyValue(in, out);
+                in.endArray();
+                out.endArray();
+            }
+            case STRING -> out.value(in.nextString());
+            case INTEGER -> out.value(in.nextInteger());
+            case FLOAT -> out.value(in.nextFloat());
+            case TRUE, FALSE -> out.value(in.nextBoolean());
+            case NULL -> {
+                in.nextNull();
+                out.nullValue();
+            }
+            default -> throw new JSONPatchException("unexpected " + type);
+        }
+    }
+}
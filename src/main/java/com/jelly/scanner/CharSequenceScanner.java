@@ -0,0 +1,39 @@
+package com.jelly.scanner;
+
+/**
+ * Scans a range of a CharSequence in place, without copying it like {@link StringScanner} does.
+ */
+final class CharSequenceScanner implements ScannerImplementation {
+    private CharSequence source;
+    private int idx;
+    private final int end;
+
+    CharSequenceScanner(final CharSequence source, final int start, final int end) {
+        this.source = source;
+        this.idx = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean handsOutBytes() {
+        return false;
+    }
+
+    @Override
+    public char next() {
+        if(idx >= end)
+            return (char) -1;
+
+        return source.charAt(idx++);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return idx < end;
+    }
+
+    @Override
+    public void close() {
+        source = null;
+    }
+}
@@ -6,9 +6,15 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 
 class FileScanner implements ScannerImplementation {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     FileInputStream inputStream;
     boolean closed;
 
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
     FileScanner(final String path) throws FileNotFoundException {
         this(new FileInputStream(path));
     }
@@ -21,14 +27,40 @@ class FileScanner implements ScannerImplementation {
         inputStream = fileInputStream;
     }
 
+    /**
+     * Creates a FileScanner starting at byte {@code offset} of the file at {@code path}.
+     */
+    static FileScanner at(final File path, final long offset) throws IOException {
+        final FileInputStream fileInputStream = new FileInputStream(path);
+        try {
+            fileInputStream.getChannel().position(offset);
+        } catch(final IOException e) {
+            fileInputStream.close();
+            throw e;
+        }
+        return new FileScanner(fileInputStream);
+    }
+
+    private boolean fill() throws IOException {
+        final int read = inputStream.read(buffer, 0, buffer.length);
+        if(read <= 0)
+            return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
     @Override
     public char next() throws IOException {
-        return (char) inputStream.read();
+        if(position == limit && !fill())
+            return (char) -1;
+
+        return (char) (buffer[position++] & 0xFF);
     }
 
     @Override
     public boolean hasNext() throws IOException {
-        return inputStream.available() != 0;
+        return position < limit || fill();
     }
 
     @Override
@@ -0,0 +1,60 @@
+package com.jelly.scanner;
+
+import java.io.IOException;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompresses a gzip or zlib stream on the fly, handing out its bytes as characters like {@link FileScanner} does.
+ * <p>
+ * Decompressed bytes are read into one buffer that is refilled once it has been scanned, so memory use does not depend on the size of the input.
+ */
+final class InflatingScanner implements ScannerImplementation {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private InflaterInputStream inputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private boolean closed;
+
+    InflatingScanner(final InflaterInputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = inputStream.read(buffer, 0, buffer.length);
+        } while(read == 0);
+
+        if(read < 0)
+            return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public char next() throws IOException {
+        if(position == limit && !fill())
+            return (char) -1;
+
+        return (char) (buffer[position++] & 0xFF);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        return position < limit || fill();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed)
+            return;
+
+        inputStream.close();
+        inputStream = null;
+        closed = true;
+    }
+}
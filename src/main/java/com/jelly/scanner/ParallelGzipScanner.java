@@ -0,0 +1,301 @@
+package com.jelly.scanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a gzip file consisting of several members, as written by bgzip or by concatenating gzip files, on multiple threads.
+ * <p>
+ * The file is mapped into memory and searched for member headers ahead of the member currently scanned. Every header found
+ * is decompressed on the executor as a member of its own, and the results are handed out in file order, each member
+ * starting exactly where the previous one ended. Byte sequences inside compressed data that merely look like a header
+ * fail to decompress or are never reached and are discarded. Members decompressing to more than {@link #MAX_MEMBER_SIZE}
+ * bytes are not kept in memory but decompressed on the scanning thread through a buffer of fixed size once they are reached,
+ * so a file consisting of a single large member is scanned like {@link InflatingScanner} would.
+ */
+final class ParallelGzipScanner implements ScannerImplementation {
+    static final int MAX_MEMBER_SIZE = 4 * 1024 * 1024;
+
+    private static final int INITIAL_MEMBER_SIZE = 64 * 1024;
+
+    private static final int HEADER_SIZE = 10;
+    private static final int TRAILER_SIZE = 8;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int RESERVED = 0xE0;
+
+    private final ByteBuffer file;
+    private final Executor executor;
+    private final int window;
+
+    /**
+     * Decompressions started for headers found ahead of {@link #memberStart}, ordered by offset.
+     */
+    private final Deque<Candidate> pending = new ArrayDeque<>();
+    private int searchPosition;
+    private int memberStart;
+
+    private byte[] buffer = new byte[0];
+    private int position;
+    private int limit;
+
+    /**
+     * Decompresses the current member on the scanning thread if it is too large to be decompressed ahead, {@code null} otherwise.
+     */
+    private Inflater inflater;
+    private final CRC32 crc = new CRC32();
+    private int inflaterInputStart;
+
+    private boolean closed;
+
+    /**
+     * Decompression of the member starting at {@code offset}.
+     */
+    private record Candidate(int offset, CompletableFuture<Member> member) { }
+
+    /**
+     * Decompressed member, {@code data} is {@code null} if it exceeds {@link #MAX_MEMBER_SIZE} and has to be decompressed while scanning.
+     */
+    private record Member(byte[] data, int length, int end) {
+        private static final Member OVERSIZED = new Member(null, 0, -1);
+    }
+
+    ParallelGzipScanner(final File path, final Executor executor, final int window) throws IOException {
+        try(final FileChannel channel = FileChannel.open(path.toPath(), StandardOpenOption.READ)) {
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        this.executor = executor;
+        this.window = Math.max(window, 1);
+
+        if(headerLength(file, 0) < 0)
+            throw new ZipException("Not in GZIP format");
+    }
+
+    /**
+     * Returns the length of the gzip member header at {@code offset} or {@code -1} if there is no complete header.
+     */
+    private static int headerLength(final ByteBuffer file, final int offset) {
+        if(offset > file.limit() - HEADER_SIZE || file.get(offset) != (byte) 0x1F || file.get(offset+1) != (byte) 0x8B || file.get(offset+2) != 8)
+            return -1;
+
+        final int flags = file.get(offset+3) & 0xFF;
+        final int extraFlags = file.get(offset+8) & 0xFF;
+        if((flags & RESERVED) != 0 || (extraFlags != 0 && extraFlags != 2 && extraFlags != 4))
+            return -1;
+
+        int end = offset + HEADER_SIZE;
+        if((flags & FEXTRA) != 0) {
+            if(end > file.limit() - 2)
+                return -1;
+            end += 2 + ((file.get(end) & 0xFF) | (file.get(end+1) & 0xFF) << 8);
+        }
+        if((flags & FNAME) != 0)
+            end = skipZeroTerminated(file, end);
+        if((flags & FCOMMENT) != 0)
+            end = skipZeroTerminated(file, end);
+        if((flags & FHCRC) != 0)
+            end += 2;
+
+        return (end < 0 || end > file.limit()) ? -1 : end - offset;
+    }
+
+    private static int skipZeroTerminated(final ByteBuffer file, int position) {
+        if(position < 0)
+            return -1;
+        while(position < file.limit())
+            if(file.get(position++) == 0)
+                return position;
+        return -1;
+    }
+
+    private static Member inflate(final ByteBuffer file, final int offset) {
+        final Inflater inflater = new Inflater(true);
+        try {
+            final int dataStart = offset + headerLength(file, offset);
+            inflater.setInput(file.duplicate().position(dataStart));
+
+            byte[] data = new byte[INITIAL_MEMBER_SIZE];
+            int length = 0;
+            while(!inflater.finished()) {
+                if(length == data.length) {
+                    if(data.length == MAX_MEMBER_SIZE)
+                        return Member.OVERSIZED;
+                    data = Arrays.copyOf(data, Math.min(2 * data.length, MAX_MEMBER_SIZE));
+                }
+
+                final int inflated = inflater.inflate(data, length, data.length - length);
+                if(inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new ZipException("Truncated gzip member at " + offset);
+                length += inflated;
+            }
+
+            final CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+            final int trailer = dataStart + (int) inflater.getBytesRead();
+            checkTrailer(file, trailer, crc, length);
+            return new Member(data, length, trailer + TRAILER_SIZE);
+        } catch(final DataFormatException e) {
+            throw new UncheckedIOException(new ZipException("Corrupt gzip member at " + offset + ": " + e.getMessage()));
+        } catch(final ZipException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void checkTrailer(final ByteBuffer file, final int trailer, final CRC32 crc, final long size) throws ZipException {
+        if(trailer > file.limit() - TRAILER_SIZE)
+            throw new ZipException("Truncated gzip trailer at " + trailer);
+
+        final ByteBuffer littleEndian = file.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if(littleEndian.getInt(trailer) != (int) crc.getValue())
+            throw new ZipException("Corrupt gzip member, CRC mismatch at " + trailer);
+        if(littleEndian.getInt(trailer + 4) != (int) size)
+            throw new ZipException("Corrupt gzip member, size mismatch at " + trailer);
+    }
+
+    /**
+     * Starts decompressing headers found ahead of the current member and returns the decompression of the current member.
+     *
+     * @return the decompression of the member starting at {@link #memberStart} or {@code null} if no member starts there.
+     */
+    private Candidate nextMember() {
+        while(!pending.isEmpty() && pending.peekFirst().offset() < memberStart)
+            pending.pollFirst().member().cancel(false);
+        searchPosition = Math.max(searchPosition, memberStart);
+
+        while(pending.size() < window && searchPosition < file.limit()) {
+            final int offset = searchPosition;
+            searchPosition++;
+            if(headerLength(file, offset) >= 0)
+                pending.addLast(new Candidate(offset, CompletableFuture.supplyAsync(() -> inflate(file, offset), executor)));
+        }
+
+        final Candidate head = pending.peekFirst();
+        return (head != null && head.offset() == memberStart) ? pending.pollFirst() : null;
+    }
+
+    private static Member await(final Candidate candidate) throws IOException {
+        try {
+            return candidate.member().join();
+        } catch(final CompletionException e) {
+            if(e.getCause() instanceof final UncheckedIOException uncheckedIOException)
+                throw uncheckedIOException.getCause();
+            throw e;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        while(true) {
+            if(inflater != null) {
+                if(inflateInline())
+                    return true;
+                continue;
+            }
+
+            if(memberStart >= file.limit())
+                return false;
+
+            final Candidate candidate = nextMember();
+            if(candidate == null)
+                return false;
+
+            final Member member = await(candidate);
+            if(member.data() == null) {
+                startInline();
+                continue;
+            }
+
+            buffer = member.data();
+            position = 0;
+            limit = member.length();
+            memberStart = member.end();
+            if(limit > 0)
+                return true;
+        }
+    }
+
+    private void startInline() {
+        inflaterInputStart = memberStart + headerLength(file, memberStart);
+        inflater = new Inflater(true);
+        inflater.setInput(file.duplicate().position(inflaterInputStart));
+        crc.reset();
+        if(buffer.length < InflatingScanner.BUFFER_SIZE)
+            buffer = new byte[InflatingScanner.BUFFER_SIZE];
+    }
+
+    /**
+     * Decompresses the next part of an oversized member into the buffer.
+     *
+     * @return whether any bytes were decompressed, {@code false} once the member is complete.
+     */
+    private boolean inflateInline() throws IOException {
+        try {
+            while(!inflater.finished()) {
+                final int inflated = inflater.inflate(buffer, 0, buffer.length);
+                if(inflated > 0) {
+                    crc.update(buffer, 0, inflated);
+                    position = 0;
+                    limit = inflated;
+                    return true;
+                }
+                if(inflater.needsInput() || inflater.needsDictionary())
+                    throw new ZipException("Truncated gzip member at " + memberStart);
+            }
+        } catch(final DataFormatException e) {
+            throw new ZipException("Corrupt gzip member at " + memberStart + ": " + e.getMessage());
+        }
+
+        final int trailer = inflaterInputStart + (int) inflater.getBytesRead();
+        checkTrailer(file, trailer, crc, inflater.getBytesWritten());
+        inflater.end();
+        inflater = null;
+        memberStart = trailer + TRAILER_SIZE;
+        return false;
+    }
+
+    @Override
+    public char next() throws IOException {
+        if(position == limit && !fill())
+            return (char) -1;
+
+        return (char) (buffer[position++] & 0xFF);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        return position < limit || fill();
+    }
+
+    @Override
+    public void close() {
+        if(closed)
+            return;
+
+        for(final Candidate candidate : pending)
+            candidate.member().cancel(false);
+        pending.clear();
+        if(inflater != null)
+            inflater.end();
+        inflater = null;
+        closed = true;
+    }
+}
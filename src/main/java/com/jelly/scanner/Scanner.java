@@ -1,97 +1,112 @@
 package com.jelly.scanner;
 
+import com.jelly.util.SourceLocation;
+import com.jelly.util.SourceLocator;
+
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Arrays;
-
-import static com.jelly.util.Util.LINE_SEPARATOR;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 public final class Scanner implements ScannerImplementation {
-    private static final int DEFAULT_LINE_BUFFER_SIZE = 256;
-    private static final int LINE_BUFFER_SIZE_FACTOR = 2;
-
     private ScannerImplementation implementation;
+    private final SourceLocator locator;
+    private final boolean handsOutBytes;
 
-    private int column;
-    private int lineNumber = 1;
-
-    private boolean scannedLine;
+    private long position;
+    private char current;
 
     private boolean removed = true;
     private boolean removable = false;
 
-    private char[] lineBuffer = new char[DEFAULT_LINE_BUFFER_SIZE];
-    private int lineBufferSize = 0;
-    private int lineBufferIdx;
-
     private boolean closed;
 
     public Scanner(final String source) {
-        this(new StringScanner(source));
+        this(new StringScanner(source), SourceLocator.of(source));
     }
 
     public Scanner(final File path) throws FileNotFoundException {
-        this(new FileScanner(path));
+        this(new FileScanner(path), SourceLocator.of(path));
     }
 
-    private Scanner(final ScannerImplementation implementation) {
-        this.implementation = implementation;
+    /**
+     * Creates a Scanner starting at byte {@code offset} of the file at {@code path}.
+     * Positions are still counted from the start of the file, so reported errors point to the right line and column.
+     */
+    public Scanner(final File path, final long offset) throws IOException {
+        this(FileScanner.at(path, offset), SourceLocator.of(path));
+        position = offset;
     }
 
-    private void resetLineBuffer() {
-        lineBuffer = new char[DEFAULT_LINE_BUFFER_SIZE];
-        lineBufferIdx = 0;
-        lineBufferSize = 0;
-        scannedLine = false;
+    /**
+     * Creates a Scanner over the characters of {@code source} from {@code start}, inclusive, to {@code end}, exclusive, without copying them.
+     * Positions are still counted from the start of {@code source}. {@code source} must not be modified while it is scanned.
+     */
+    public Scanner(final CharSequence source, final int start, final int end) {
+        this(new CharSequenceScanner(source, Objects.checkFromToIndex(start, end, source.length()), end), SourceLocator.of(source));
+        position = start;
     }
 
-    private void resizeLineBuffer() {
-        lineBuffer = Arrays.copyOf(lineBuffer, lineBuffer.length * LINE_BUFFER_SIZE_FACTOR);
+    private Scanner(final ScannerImplementation implementation, final SourceLocator locator) {
+        this.implementation = implementation;
+        this.locator = locator;
+        handsOutBytes = implementation.handsOutBytes();
+    }
+
+    /**
+     * Creates a Scanner decompressing the gzip file at {@code path} while it is scanned, no decompressed copy is written anywhere.
+     * Files consisting of several gzip members are decompressed one member after the other.
+     */
+    public static Scanner gzip(final File path) throws IOException {
+        final FileInputStream inputStream = new FileInputStream(path);
+        try {
+            return new Scanner(new InflatingScanner(new GZIPInputStream(inputStream, InflatingScanner.BUFFER_SIZE)), SourceLocator.ofGzip(path));
+        } catch(final IOException e) {
+            inputStream.close();
+            throw e;
+        }
     }
 
-    private void bufferCharAt(final int idx, final char c) {
-        while(idx >= lineBuffer.length)
-            resizeLineBuffer();
-
-        lineBufferSize = idx+1;
-
-        lineBuffer[idx] = c;
-    }
+    /**
+     * Creates a Scanner decompressing the gzip file at {@code path} on the threads of {@code executor}.
+     * <p>
+     * The members of files consisting of several gzip members, as written by bgzip or by concatenating gzip files,
+     * are decompressed in parallel ahead of the scanned position and handed out in order. Files consisting of a single member
+     * gain nothing from this and are decompressed on the scanning thread.
+     * Files larger than 2 GiB cannot be mapped at once and are scanned like {@link #gzip(File)} does.
+     */
+    public static Scanner gzip(final File path, final Executor executor) throws IOException {
+        if(path.length() > Integer.MAX_VALUE)
+            return gzip(path);
 
-    private void increaseLineNumber() {
-        column = 0;
-        lineNumber++;
-        resetLineBuffer();
+        final int window = 2 * Runtime.getRuntime().availableProcessors();
+        return new Scanner(new ParallelGzipScanner(path, executor, window), SourceLocator.ofGzip(path));
     }
 
-    private void increasePosition(final char ch) {
-        if(ch == '\n')
-            increaseLineNumber();
-        else
-            column++;
-    }
-
-    private char nextChar() throws IOException {
-        if(lineBufferIdx < lineBufferSize)
-            return lineBuffer[lineBufferIdx++];
-        else {
-            final char next = implementation.next();
-            bufferCharAt(lineBufferIdx++, next);
-            return next;
-        }
+    /**
+     * Creates a Scanner decompressing the zlib-wrapped deflate file at {@code path} while it is scanned.
+     */
+    public static Scanner deflate(final File path) throws FileNotFoundException {
+        final InflaterInputStream inputStream = new InflaterInputStream(new FileInputStream(path), new Inflater(), InflatingScanner.BUFFER_SIZE);
+        return new Scanner(new InflatingScanner(inputStream), SourceLocator.ofDeflate(path));
     }
 
     @Override
     public char next() throws IOException {
         if(!removed)
-            return lineBuffer[lineBufferIdx-1];
+            return current;
 
-        final char next = nextChar();
-        increasePosition(next);
+        current = implementation.next();
+        position++;
         removed = false;
         removable = true;
-        return next;
+        return current;
     }
 
     public void remove() {
@@ -104,41 +119,78 @@ public final class Scanner implements ScannerImplementation {
 
     @Override
     public boolean hasNext() throws IOException {
-        return implementation.hasNext() || lineBufferIdx < lineBufferSize;
+        if(!removed)
+            return current != (char) -1;
+
+        return implementation.hasNext();
     }
 
-    public String scanLine() throws IOException {
-        if(scannedLine)
-            return getLine();
+    /**
+     * Returns whether every character handed out is a byte of the source, as for files and compressed files,
+     * or a character of a String or CharSequence.
+     */
+    @Override
+    public boolean handsOutBytes() {
+        return handsOutBytes;
+    }
 
-        while(true) {
-            if(!implementation.hasNext())
-                break;
+    /**
+     * Returns the number of characters that have been scanned so far, including those skipped by starting at an offset.
+     */
+    public long getPosition() {
+        return position;
+    }
 
-            final char next = implementation.next();
-            bufferCharAt(lineBufferSize, next);
+    /**
+     * Returns the locator of the source, used to derive line and column of an offset once they are needed.
+     */
+    public SourceLocator getLocator() {
+        return locator;
+    }
 
-            if(next == '\n')
-                break;
+    private SourceLocation currentLocation() {
+        try {
+            return locator.locate(Math.max(position - 1, 0));
+        } catch(final IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        scannedLine = true;
+    /**
+     * Returns the line of the last scanned character. Like the other location getters, every call re-reads the source from its start,
+     * the whole file for scanners over files.
+     */
+    public String scanLine() throws IOException {
         return getLine();
     }
 
+    /**
+     * Returns the 1-based column of the last scanned character, re-reading the source from its start on every call.
+     *
+     * @throws UncheckedIOException if the source cannot be read again.
+     */
     public int getColumn() {
-        return column;
+        return currentLocation().column();
     }
 
+    /**
+     * Returns the 1-based line number of the last scanned character, re-reading the source from its start on every call.
+     *
+     * @throws UncheckedIOException if the source cannot be read again.
+     */
     public int getLineNumber() {
-        return lineNumber;
+        return currentLocation().lineNumber();
     }
 
+    /**
+     * Returns the line of the last scanned character, re-reading the source from its start on every call.
+     */
     public String getLine() throws IOException {
-        if(!scannedLine)
-            return scanLine();
-
-        return new String(Arrays.copyOfRange(lineBuffer, 0, lineBufferSize - ((implementation.hasNext()) ? LINE_SEPARATOR.length : 0)));
+        try {
+            return currentLocation().line();
+        } catch(final UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     @Override
@@ -6,4 +6,11 @@ interface ScannerImplementation extends AutoCloseable {
     char next() throws IOException;
     boolean hasNext() throws IOException;
     void close() throws IOException;
+
+    /**
+     * Returns whether every character handed out is a byte of the source, as opposed to a character decoded from a String.
+     */
+    default boolean handsOutBytes() {
+        return true;
+    }
 }
@@ -8,8 +8,16 @@ class StringScanner implements ScannerImplementation {
         this.source = source.toCharArray();
     }
 
+    @Override
+    public boolean handsOutBytes() {
+        return false;
+    }
+
     @Override
     public char next() {
+        if(idx >= source.length)
+            return (char) -1;
+
         return source[idx++];
     }
 
@@ -0,0 +1,14 @@
+package com.jelly.schema;
+
+/**
+ * Check of a single keyword against a value, not looking into nested values that have a schema of their own.
+ */
+@FunctionalInterface
+interface Constraint {
+    /**
+     * Checks {@code value} against this constraint.
+     *
+     * @return the description of the violation or {@code null} if {@code value} satisfies this constraint.
+     */
+    String check(Object value);
+}
@@ -0,0 +1,40 @@
+package com.jelly.schema;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.util.Objects;
+
+/**
+ * Structural equality of JSON values as defined by JSON Schema, numbers compare by value regardless of their representation.
+ */
+final class JSONValues {
+    private JSONValues() { }
+
+    static boolean equal(final Object a, final Object b) {
+        if(a instanceof final Number numberA && b instanceof final Number numberB)
+            return numberA.doubleValue() == numberB.doubleValue();
+
+        if(a instanceof final JSONObject objectA && b instanceof final JSONObject objectB) {
+            if(objectA.size() != objectB.size())
+                return false;
+            for(final String fieldName : objectA.fieldNames()) {
+                if(!objectB.fieldNames().contains(fieldName) || !equal(objectA.get(fieldName), objectB.get(fieldName)))
+                    return false;
+            }
+            return true;
+        }
+
+        if(a instanceof final JSONArray arrayA && b instanceof final JSONArray arrayB) {
+            if(arrayA.size() != arrayB.size())
+                return false;
+            for(int i = 0; i < arrayA.size(); i++) {
+                if(!equal(arrayA.get(i), arrayB.get(i)))
+                    return false;
+            }
+            return true;
+        }
+
+        return Objects.equals(a, b);
+    }
+}
@@ -0,0 +1,61 @@
+package com.jelly.schema;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+/**
+ * JSON Schema primitive types.
+ */
+enum Kind {
+    NULL("null"),
+    BOOLEAN("boolean"),
+    OBJECT("object"),
+    ARRAY("array"),
+    NUMBER("number"),
+    STRING("string"),
+    INTEGER("integer");
+
+    private final String name;
+
+    Kind(final String name) {
+        this.name = name;
+    }
+
+    static Kind named(final String name) {
+        for(final Kind kind : values())
+            if(kind.name.equals(name))
+                return kind;
+        throw new IllegalArgumentException("unknown type \"" + name + "\"");
+    }
+
+    /**
+     * Returns the most specific kind of {@code value}, a Float without fraction counts as integer as demanded by JSON Schema.
+     */
+    static Kind of(final Object value) {
+        if(value == null)
+            return NULL;
+        else if(value instanceof Boolean)
+            return BOOLEAN;
+        else if(value instanceof JSONObject)
+            return OBJECT;
+        else if(value instanceof JSONArray)
+            return ARRAY;
+        else if(value instanceof String)
+            return STRING;
+        else if(value instanceof Integer)
+            return INTEGER;
+        else if(value instanceof final Float floatValue && floatValue == Math.rint(floatValue) && !floatValue.isInfinite())
+            return INTEGER;
+        else
+            return NUMBER;
+    }
+
+    boolean matches(final Kind actual) {
+        return this == actual || (this == NUMBER && actual == INTEGER);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,169 @@
+package com.jelly.schema;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+import com.jelly.lexer.TokenType;
+import com.jelly.parser.JSONReader;
+import com.jelly.parser.Parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compiled JSON Schema.
+ * <p>
+ * A schema is compiled once into a tree of validators and can then check already parsed values through {@link #validate(Object)}
+ * or check values while they are being parsed through {@link #parse(JSONReader)}, which stops at the first violation
+ * instead of materializing the rest of the document.
+ * <p>
+ * Compiled schemas are immutable and can be shared between threads, see {@link SchemaCache}.
+ */
+public final class Schema {
+    private final SchemaNode root;
+
+    private Schema(final SchemaNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles a schema document.
+     *
+     * @throws IllegalArgumentException if {@code schema} is not a valid schema or contains a non-local {@code $ref}.
+     */
+    public static Schema compile(final JSONObject schema) {
+        return new Schema(SchemaCompiler.compile(Objects.requireNonNull(schema)));
+    }
+
+    public static Schema compile(final String schema) throws IOException {
+        return compile(Parser.parseJSONObject(schema));
+    }
+
+    public static Schema compile(final File path) throws IOException {
+        return compile(Parser.parseJSONObject(path));
+    }
+
+    /**
+     * Validates an already parsed value.
+     *
+     * @return all violations found, an empty list if {@code value} is valid.
+     */
+    public List<SchemaViolation> validate(final Object value) {
+        final ValidationContext context = new ValidationContext();
+        root.validate(value, context);
+        return context.violations();
+    }
+
+    public boolean isValid(final Object value) {
+        final ValidationContext context = new ValidationContext();
+        root.validate(value, context);
+        return !context.hasViolations();
+    }
+
+    public Object parse(final String source) throws IOException {
+        try(final JSONReader reader = new JSONReader(source)) {
+            return parse(reader);
+        }
+    }
+
+    public Object parse(final File path) throws IOException {
+        try(final JSONReader reader = new JSONReader(path)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Reads the next value of {@code reader} and validates it on the fly.
+     * <p>
+     * Containers of a type the schema does not allow are rejected as soon as they are opened and nested values
+     * are validated as soon as they are complete, so the rest of an invalid document is neither read nor materialized.
+     *
+     * @return the next value, valid according to this schema.
+     * @throws SchemaViolationException at the first value violating this schema.
+     */
+    public Object parse(final JSONReader reader) throws IOException {
+        return read(reader, root, new ValidationContext());
+    }
+
+    private static Object read(final JSONReader reader, final SchemaNode node, final ValidationContext context) throws IOException {
+        if(node == null || node.isAny())
+            return reader.readValue();
+
+        final TokenType type = reader.peek();
+        final long offset = reader.getOffset();
+        if(node.resolve() == SchemaNode.NOTHING) {
+            context.report("no value is allowed here");
+            check(reader, context, offset);
+        }
+
+        final Object value;
+        if(type == TokenType.LEFT_CURLY_BRACE)
+            value = readJSONObject(reader, node, context, offset);
+        else if(type == TokenType.LEFT_SQUARE_BRACKET)
+            value = readJSONArray(reader, node, context, offset);
+        else {
+            value = reader.readValue();
+            node.validate(value, context);
+            check(reader, context, offset);
+            return value;
+        }
+
+        node.validateLocal(value, context);
+        check(reader, context, offset);
+        return value;
+    }
+
+    private static JSONObject readJSONObject(final JSONReader reader, final SchemaNode node, final ValidationContext context, final long offset) throws IOException {
+        if(!node.allows(Kind.OBJECT)) {
+            context.report("object is not allowed here");
+            check(reader, context, offset);
+        }
+
+        final JSONObject jsonObject = new JSONObject();
+        reader.beginObject();
+        while(reader.hasNext()) {
+            final String fieldName = reader.nextName();
+            final List<SchemaNode> nodes = node.propertyNodes(fieldName);
+
+            context.push(fieldName);
+            if(nodes.size() <= 1)
+                jsonObject.set(fieldName, read(reader, nodes.isEmpty() ? null : nodes.get(0), context));
+            else {
+                final long valueOffset = reader.getOffset();
+                final Object value = reader.readValue();
+                for(final SchemaNode property : nodes)
+                    property.validate(value, context);
+                check(reader, context, valueOffset);
+                jsonObject.set(fieldName, value);
+            }
+            context.pop();
+        }
+        reader.endObject();
+
+        return jsonObject;
+    }
+
+    private static JSONArray readJSONArray(final JSONReader reader, final SchemaNode node, final ValidationContext context, final long offset) throws IOException {
+        if(!node.allows(Kind.ARRAY)) {
+            context.report("array is not allowed here");
+            check(reader, context, offset);
+        }
+
+        final JSONArray jsonArray = new JSONArray();
+        reader.beginArray();
+        for(int i = 0; reader.hasNext(); i++) {
+            context.push(i);
+            jsonArray.add(read(reader, node.itemNode(i), context));
+            context.pop();
+        }
+        reader.endArray();
+
+        return jsonArray;
+    }
+
+    private static void check(final JSONReader reader, final ValidationContext context, final long offset) {
+        if(context.hasViolations())
+            throw new SchemaViolationException(context.violations().get(0), offset, reader.getLocator());
+    }
+}
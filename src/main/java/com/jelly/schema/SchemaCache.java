@@ -0,0 +1,67 @@
+package com.jelly.schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe cache of compiled schemas, so every schema is compiled once and then shared by all threads validating against it.
+ * <p>
+ * Schemas read from files are recompiled once the file has been modified.
+ */
+public final class SchemaCache {
+    private final ConcurrentMap<String, Schema> sources = new ConcurrentHashMap<>();
+    private final ConcurrentMap<File, FileEntry> files = new ConcurrentHashMap<>();
+
+    private record FileEntry(long lastModified, Schema schema) { }
+
+    public Schema get(final String source) throws IOException {
+        try {
+            return sources.computeIfAbsent(source, SchemaCache::compile);
+        } catch(final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public Schema get(final File path) throws IOException {
+        final File key = path.getAbsoluteFile();
+        final long lastModified = key.lastModified();
+
+        try {
+            return files.compute(key, (file, entry) -> {
+                if(entry != null && entry.lastModified() == lastModified)
+                    return entry;
+                return new FileEntry(lastModified, compile(file));
+            }).schema();
+        } catch(final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public void clear() {
+        sources.clear();
+        files.clear();
+    }
+
+    public int size() {
+        return sources.size() + files.size();
+    }
+
+    private static Schema compile(final String source) {
+        try {
+            return Schema.compile(source);
+        } catch(final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Schema compile(final File path) {
+        try {
+            return Schema.compile(path);
+        } catch(final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
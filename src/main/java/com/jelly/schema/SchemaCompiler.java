@@ -0,0 +1,363 @@
+package com.jelly.schema;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles a schema document into a tree of {@link SchemaNode}s.
+ * <p>
+ * Supported are the validation keywords of JSON Schema draft 7 and 2020-12 that apply to a single document:
+ * type, enum, const, the numeric, string, array and object constraints, the combinators and local {@code $ref}s.
+ * Annotations and unknown keywords are ignored.
+ */
+final class SchemaCompiler {
+    private final JSONObject root;
+    private final Map<String, SchemaNode> nodes = new HashMap<>();
+    private final Deque<SchemaNode> unresolved = new ArrayDeque<>();
+
+    private SchemaCompiler(final JSONObject root) {
+        this.root = root;
+    }
+
+    static SchemaNode compile(final Object schema) {
+        final SchemaCompiler compiler = new SchemaCompiler((schema instanceof final JSONObject jsonObject) ? jsonObject : null);
+        final SchemaNode node = compiler.compile(schema, "#");
+
+        while(!compiler.unresolved.isEmpty()) {
+            final SchemaNode reference = compiler.unresolved.pop();
+            reference.target = compiler.compile(compiler.resolvePointer(reference.ref), reference.ref);
+        }
+
+        checkCycles(node);
+        return node;
+    }
+
+    /**
+     * Rejects schemas that apply themselves to the same value again, e.g. {@code {"$ref": "#"}}, validating against them would never end.
+     * References that descend into a nested value first are fine, the nesting of the value bounds them.
+     */
+    private static void checkCycles(final SchemaNode root) {
+        final Set<SchemaNode> reachable = new HashSet<>();
+        final Set<SchemaNode> checked = new HashSet<>();
+        final Deque<SchemaNode> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while(!pending.isEmpty()) {
+            final SchemaNode node = pending.pop();
+            if(!reachable.add(node))
+                continue;
+
+            checkInPlace(node, new HashSet<>(), checked);
+            inPlace(node).forEach(pending::push);
+            nested(node).forEach(pending::push);
+        }
+    }
+
+    private static void checkInPlace(final SchemaNode node, final Set<SchemaNode> path, final Set<SchemaNode> checked) {
+        if(checked.contains(node))
+            return;
+        if(!path.add(node))
+            throw new IllegalArgumentException("schema " + ((node.ref != null) ? "\"" + node.ref + "\" " : "") + "refers to itself without descending into a nested value");
+
+        for(final SchemaNode child : inPlace(node))
+            checkInPlace(child, path, checked);
+
+        path.remove(node);
+        checked.add(node);
+    }
+
+    /**
+     * Returns the nodes applied to the same value as {@code node}.
+     */
+    private static List<SchemaNode> inPlace(final SchemaNode node) {
+        final List<SchemaNode> children = new ArrayList<>(node.allOf);
+        children.addAll(node.anyOf);
+        children.addAll(node.oneOf);
+        if(node.not != null)
+            children.add(node.not);
+        if(node.target != null)
+            children.add(node.target);
+        return children;
+    }
+
+    /**
+     * Returns the nodes applied to the fields or elements of the value of {@code node}.
+     */
+    private static List<SchemaNode> nested(final SchemaNode node) {
+        final List<SchemaNode> children = new ArrayList<>(node.properties.values());
+        children.addAll(node.patternProperties.values());
+        if(node.additionalProperties != null)
+            children.add(node.additionalProperties);
+        children.addAll(node.prefixItems);
+        if(node.items != null)
+            children.add(node.items);
+        return children;
+    }
+
+    private Object resolvePointer(final String pointer) {
+        if(!pointer.startsWith("#"))
+            throw new IllegalArgumentException("only local references are supported, found \"" + pointer + "\"");
+        if(root == null)
+            throw new IllegalArgumentException("cannot resolve \"" + pointer + "\" without a root object");
+
+        Object current = root;
+        if(pointer.length() <= 1)
+            return current;
+        if(pointer.charAt(1) != '/')
+            throw new IllegalArgumentException("unsupported reference \"" + pointer + "\"");
+
+        for(final String rawSegment : pointer.substring(2).split("/", -1)) {
+            final String segment = rawSegment.replace("~1", "/").replace("~0", "~");
+            if(current instanceof final JSONObject jsonObject && jsonObject.fieldNames().contains(segment))
+                current = jsonObject.get(segment);
+            else if(current instanceof final JSONArray jsonArray && segment.matches("\\d+") && Integer.parseInt(segment) < jsonArray.size())
+                current = jsonArray.get(Integer.parseInt(segment));
+            else
+                throw new IllegalArgumentException("unresolvable reference \"" + pointer + "\"");
+        }
+        return current;
+    }
+
+    private SchemaNode compile(final Object schema, final String pointer) {
+        final SchemaNode known = nodes.get(pointer);
+        if(known != null)
+            return known;
+
+        if(schema instanceof final Boolean booleanSchema)
+            return booleanSchema ? SchemaNode.ANY : SchemaNode.NOTHING;
+        if(!(schema instanceof final JSONObject object))
+            throw new IllegalArgumentException("schema at \"" + pointer + "\" must be an object or a boolean");
+
+        if(object.size() == 0)
+            return SchemaNode.ANY;
+
+        final SchemaNode node = new SchemaNode();
+        nodes.put(pointer, node);
+
+        if(has(object, "$ref") && object.size() == 1) {
+            node.ref = object.getString("$ref");
+            unresolved.push(node);
+            return node;
+        }
+
+        compileGeneric(object, node);
+        compileNumeric(object, node);
+        compileString(object, node);
+        compileArray(object, pointer, node);
+        compileObject(object, pointer, node);
+        compileCombinators(object, pointer, node);
+        compileReference(object, node);
+
+        return node;
+    }
+
+    private static boolean has(final JSONObject object, final String keyword) {
+        return object.fieldNames().contains(keyword);
+    }
+
+    private static double number(final JSONObject object, final String keyword) {
+        return ((Number) object.get(keyword)).doubleValue();
+    }
+
+    private static int count(final JSONObject object, final String keyword) {
+        return ((Number) object.get(keyword)).intValue();
+    }
+
+    private static String format(final double value) {
+        return (value == Math.rint(value)) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static void compileGeneric(final JSONObject object, final SchemaNode node) {
+        if(has(object, "type")) {
+            final Object type = object.get("type");
+            node.types = EnumSet.noneOf(Kind.class);
+            if(type instanceof final JSONArray types) {
+                for(int i = 0; i < types.size(); i++)
+                    node.types.add(Kind.named(types.getString(i)));
+            } else
+                node.types.add(Kind.named((String) type));
+        }
+
+        if(has(object, "enum")) {
+            final JSONArray values = object.getJSONArray("enum");
+            node.constraints.add(value -> {
+                for(int i = 0; i < values.size(); i++)
+                    if(JSONValues.equal(values.get(i), value))
+                        return null;
+                return "value is not one of " + values;
+            });
+        }
+
+        if(has(object, "const")) {
+            final Object expected = object.get("const");
+            node.constraints.add(value -> JSONValues.equal(expected, value) ? null : "value must be " + expected);
+        }
+    }
+
+    private static void compileNumeric(final JSONObject object, final SchemaNode node) {
+        if(has(object, "minimum")) {
+            final double minimum = number(object, "minimum");
+            node.constraints.add(value -> (!(value instanceof final Number n) || n.doubleValue() >= minimum) ? null : "value must be at least " + format(minimum));
+        }
+        if(has(object, "maximum")) {
+            final double maximum = number(object, "maximum");
+            node.constraints.add(value -> (!(value instanceof final Number n) || n.doubleValue() <= maximum) ? null : "value must be at most " + format(maximum));
+        }
+        if(has(object, "exclusiveMinimum") && object.get("exclusiveMinimum") instanceof Number) {
+            final double minimum = number(object, "exclusiveMinimum");
+            node.constraints.add(value -> (!(value instanceof final Number n) || n.doubleValue() > minimum) ? null : "value must be greater than " + format(minimum));
+        }
+        if(has(object, "exclusiveMaximum") && object.get("exclusiveMaximum") instanceof Number) {
+            final double maximum = number(object, "exclusiveMaximum");
+            node.constraints.add(value -> (!(value instanceof final Number n) || n.doubleValue() < maximum) ? null : "value must be less than " + format(maximum));
+        }
+        if(has(object, "multipleOf")) {
+            final double divisor = number(object, "multipleOf");
+            node.constraints.add(value -> {
+                if(!(value instanceof final Number n))
+                    return null;
+                final double quotient = n.doubleValue() / divisor;
+                return (Math.abs(quotient - Math.rint(quotient)) < 1e-9) ? null : "value must be a multiple of " + format(divisor);
+            });
+        }
+    }
+
+    private static void compileString(final JSONObject object, final SchemaNode node) {
+        if(has(object, "minLength")) {
+            final int minLength = count(object, "minLength");
+            node.constraints.add(value -> (!(value instanceof final String s) || s.codePointCount(0, s.length()) >= minLength) ? null : "string must be at least " + minLength + " characters long");
+        }
+        if(has(object, "maxLength")) {
+            final int maxLength = count(object, "maxLength");
+            node.constraints.add(value -> (!(value instanceof final String s) || s.codePointCount(0, s.length()) <= maxLength) ? null : "string must be at most " + maxLength + " characters long");
+        }
+        if(has(object, "pattern")) {
+            final Pattern pattern = Pattern.compile(object.getString("pattern"));
+            node.constraints.add(value -> (!(value instanceof final String s) || pattern.matcher(s).find()) ? null : "string must match " + pattern.pattern());
+        }
+    }
+
+    private void compileArray(final JSONObject object, final String pointer, final SchemaNode node) {
+        if(has(object, "prefixItems"))
+            node.prefixItems = compileAll(object.getJSONArray("prefixItems"), pointer + "/prefixItems");
+
+        if(has(object, "items")) {
+            final Object items = object.get("items");
+            if(items instanceof final JSONArray tuple) {
+                node.prefixItems = compileAll(tuple, pointer + "/items");
+                if(has(object, "additionalItems"))
+                    node.items = compile(object.get("additionalItems"), pointer + "/additionalItems");
+            } else
+                node.items = compile(items, pointer + "/items");
+        }
+
+        if(has(object, "minItems")) {
+            final int minItems = count(object, "minItems");
+            node.constraints.add(value -> (!(value instanceof final JSONArray a) || a.size() >= minItems) ? null : "array must have at least " + minItems + " items");
+        }
+        if(has(object, "maxItems")) {
+            final int maxItems = count(object, "maxItems");
+            node.constraints.add(value -> (!(value instanceof final JSONArray a) || a.size() <= maxItems) ? null : "array must have at most " + maxItems + " items");
+        }
+        if(has(object, "uniqueItems") && (boolean) object.get("uniqueItems")) {
+            node.constraints.add(value -> {
+                if(!(value instanceof final JSONArray array))
+                    return null;
+                for(int i = 0; i < array.size(); i++)
+                    for(int j = i+1; j < array.size(); j++)
+                        if(JSONValues.equal(array.get(i), array.get(j)))
+                            return "array items " + i + " and " + j + " are equal";
+                return null;
+            });
+        }
+    }
+
+    private void compileObject(final JSONObject object, final String pointer, final SchemaNode node) {
+        if(has(object, "properties")) {
+            final JSONObject properties = object.getJSONObject("properties");
+            final Map<String, SchemaNode> compiled = new HashMap<>();
+            for(final String name : properties.fieldNames())
+                compiled.put(name, compile(properties.get(name), pointer + "/properties/" + escape(name)));
+            node.properties = Collections.unmodifiableMap(compiled);
+        }
+
+        if(has(object, "patternProperties")) {
+            final JSONObject patternProperties = object.getJSONObject("patternProperties");
+            final Map<Pattern, SchemaNode> compiled = new LinkedHashMap<>();
+            for(final String regex : patternProperties.fieldNames())
+                compiled.put(Pattern.compile(regex), compile(patternProperties.get(regex), pointer + "/patternProperties/" + escape(regex)));
+            node.patternProperties = Collections.unmodifiableMap(compiled);
+        }
+
+        if(has(object, "additionalProperties"))
+            node.additionalProperties = compile(object.get("additionalProperties"), pointer + "/additionalProperties");
+
+        if(has(object, "required")) {
+            final JSONArray required = object.getJSONArray("required");
+            for(int i = 0; i < required.size(); i++) {
+                final String name = required.getString(i);
+                node.constraints.add(value -> (!(value instanceof final JSONObject o) || o.fieldNames().contains(name)) ? null : "missing required field \"" + name + "\"");
+            }
+        }
+        if(has(object, "minProperties")) {
+            final int minProperties = count(object, "minProperties");
+            node.constraints.add(value -> (!(value instanceof final JSONObject o) || o.size() >= minProperties) ? null : "object must have at least " + minProperties + " fields");
+        }
+        if(has(object, "maxProperties")) {
+            final int maxProperties = count(object, "maxProperties");
+            node.constraints.add(value -> (!(value instanceof final JSONObject o) || o.size() <= maxProperties) ? null : "object must have at most " + maxProperties + " fields");
+        }
+    }
+
+    private void compileCombinators(final JSONObject object, final String pointer, final SchemaNode node) {
+        if(has(object, "allOf"))
+            node.allOf = compileAll(object.getJSONArray("allOf"), pointer + "/allOf");
+        if(has(object, "anyOf"))
+            node.anyOf = compileAll(object.getJSONArray("anyOf"), pointer + "/anyOf");
+        if(has(object, "oneOf"))
+            node.oneOf = compileAll(object.getJSONArray("oneOf"), pointer + "/oneOf");
+        if(has(object, "not"))
+            node.not = compile(object.get("not"), pointer + "/not");
+    }
+
+    /**
+     * Applies the schema referenced next to other keywords alongside them, as drafts since 2019-09 do, by adding it to {@code allOf}.
+     */
+    private void compileReference(final JSONObject object, final SchemaNode node) {
+        if(!has(object, "$ref"))
+            return;
+
+        final SchemaNode reference = new SchemaNode();
+        reference.ref = object.getString("$ref");
+        unresolved.push(reference);
+
+        final List<SchemaNode> allOf = new ArrayList<>(node.allOf.size() + 1);
+        allOf.add(reference);
+        allOf.addAll(node.allOf);
+        node.allOf = List.copyOf(allOf);
+    }
+
+    private List<SchemaNode> compileAll(final JSONArray schemas, final String pointer) {
+        final List<SchemaNode> compiled = new ArrayList<>(schemas.size());
+        for(int i = 0; i < schemas.size(); i++)
+            compiled.add(compile(schemas.get(i), pointer + "/" + i));
+        return List.copyOf(compiled);
+    }
+
+    private static String escape(final String segment) {
+        return segment.replace("~", "~0").replace("/", "~1");
+    }
+}
@@ -0,0 +1,193 @@
+package com.jelly.schema;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled (sub)schema.
+ * <p>
+ * Keywords that only look at the value itself are compiled into {@link Constraint}s,
+ * keywords applying a subschema to nested values are kept as child nodes so that a streaming reader can descend into them
+ * while the nested values are still being parsed. Nodes are fully built by {@link SchemaCompiler} before they are published
+ * through {@link Schema} and never change afterwards.
+ */
+final class SchemaNode {
+    static final SchemaNode ANY = new SchemaNode();
+    static final SchemaNode NOTHING = new SchemaNode();
+
+    EnumSet<Kind> types;
+    final List<Constraint> constraints = new ArrayList<>();
+
+    Map<String, SchemaNode> properties = Map.of();
+    Map<Pattern, SchemaNode> patternProperties = Map.of();
+    SchemaNode additionalProperties;
+
+    List<SchemaNode> prefixItems = List.of();
+    SchemaNode items;
+
+    List<SchemaNode> allOf = List.of();
+    List<SchemaNode> anyOf = List.of();
+    List<SchemaNode> oneOf = List.of();
+    SchemaNode not;
+
+    /**
+     * Pointer of the referenced schema if this node consists of a {@code $ref}, resolved into {@link #target} when compiling.
+     */
+    String ref;
+    SchemaNode target;
+
+    SchemaNode resolve() {
+        SchemaNode node = this;
+        while(node.target != null)
+            node = node.target;
+        return node;
+    }
+
+    boolean allows(final Kind kind) {
+        final SchemaNode node = resolve();
+        if(node == NOTHING)
+            return false;
+        if(node.types == null)
+            return true;
+        for(final Kind type : node.types)
+            if(type.matches(kind))
+                return true;
+        return false;
+    }
+
+    boolean isAny() {
+        final SchemaNode node = resolve();
+        return node == ANY;
+    }
+
+    /**
+     * Returns the nodes applying to the value of the field {@code name}.
+     */
+    List<SchemaNode> propertyNodes(final String name) {
+        final SchemaNode node = resolve();
+        List<SchemaNode> nodes = null;
+
+        final SchemaNode property = node.properties.get(name);
+        if(property != null)
+            nodes = add(nodes, property);
+
+        for(final Map.Entry<Pattern, SchemaNode> patternProperty : node.patternProperties.entrySet())
+            if(patternProperty.getKey().matcher(name).find())
+                nodes = add(nodes, patternProperty.getValue());
+
+        if(nodes == null)
+            return (node.additionalProperties == null) ? List.of() : List.of(node.additionalProperties);
+        return nodes;
+    }
+
+    private static List<SchemaNode> add(final List<SchemaNode> nodes, final SchemaNode node) {
+        final List<SchemaNode> result = (nodes == null) ? new ArrayList<>(1) : nodes;
+        result.add(node);
+        return result;
+    }
+
+    /**
+     * Returns the node applying to the element at {@code idx}, {@code null} if the element is unconstrained.
+     */
+    SchemaNode itemNode(final int idx) {
+        final SchemaNode node = resolve();
+        if(idx < node.prefixItems.size())
+            return node.prefixItems.get(idx);
+        return node.items;
+    }
+
+    /**
+     * Validates {@code value} including all of its nested values.
+     */
+    void validate(final Object value, final ValidationContext context) {
+        final SchemaNode node = resolve();
+        if(node == ANY)
+            return;
+
+        if(value instanceof final JSONObject jsonObject) {
+            for(final String fieldName : jsonObject.fieldNames()) {
+                final List<SchemaNode> nodes = node.propertyNodes(fieldName);
+                if(nodes.isEmpty())
+                    continue;
+
+                context.push(fieldName);
+                for(final SchemaNode property : nodes)
+                    property.validate(jsonObject.get(fieldName), context);
+                context.pop();
+            }
+        } else if(value instanceof final JSONArray jsonArray) {
+            for(int i = 0; i < jsonArray.size(); i++) {
+                final SchemaNode item = node.itemNode(i);
+                if(item == null)
+                    continue;
+
+                context.push(i);
+                item.validate(jsonArray.get(i), context);
+                context.pop();
+            }
+        }
+
+        node.validateLocal(value, context);
+    }
+
+    /**
+     * Validates {@code value} without descending into nested values through {@code properties} or {@code items},
+     * for values whose nested values have already been validated while they were parsed.
+     */
+    void validateLocal(final Object value, final ValidationContext context) {
+        final SchemaNode node = resolve();
+        if(node == ANY)
+            return;
+
+        if(node == NOTHING) {
+            context.report("no value is allowed here");
+            return;
+        }
+
+        final Kind kind = Kind.of(value);
+        if(!node.allows(kind)) {
+            context.report("expected " + node.types + " but found " + kind);
+            return;
+        }
+
+        for(final Constraint constraint : node.constraints) {
+            final String violation = constraint.check(value);
+            if(violation != null)
+                context.report(violation);
+        }
+
+        for(final SchemaNode subschema : node.allOf)
+            subschema.validate(value, context);
+
+        if(!node.anyOf.isEmpty() && countMatches(node.anyOf, value, context, 1) == 0)
+            context.report("value matches none of the schemas in anyOf");
+
+        if(!node.oneOf.isEmpty()) {
+            final int matches = countMatches(node.oneOf, value, context, 2);
+            if(matches == 0)
+                context.report("value matches none of the schemas in oneOf");
+            else if(matches > 1)
+                context.report("value matches more than one of the schemas in oneOf");
+        }
+
+        if(node.not != null && countMatches(List.of(node.not), value, context, 1) != 0)
+            context.report("value matches the schema in not");
+    }
+
+    private static int countMatches(final List<SchemaNode> subschemas, final Object value, final ValidationContext context, final int limit) {
+        int matches = 0;
+        for(final SchemaNode subschema : subschemas) {
+            final ValidationContext probe = context.probe();
+            subschema.validate(value, probe);
+            if(!probe.hasViolations() && ++matches == limit)
+                break;
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,14 @@
+package com.jelly.schema;
+
+/**
+ * Single violation of a {@link Schema}.
+ *
+ * @param path JSON Pointer to the offending value, the empty String for the document itself.
+ * @param message description of the violated constraint.
+ */
+public record SchemaViolation(String path, String message) {
+    @Override
+    public String toString() {
+        return (path.isEmpty() ? "/" : path) + ": " + message;
+    }
+}
@@ -0,0 +1,20 @@
+package com.jelly.schema;
+
+import com.jelly.util.ParsingException;
+import com.jelly.util.SourceLocator;
+
+/**
+ * Exception thrown by {@link Schema#parse(com.jelly.parser.JSONReader)} at the first value violating the schema.
+ */
+public class SchemaViolationException extends ParsingException {
+    private final SchemaViolation violation;
+
+    SchemaViolationException(final SchemaViolation violation, final long offset, final SourceLocator locator) {
+        super(violation.toString(), offset, locator, true);
+        this.violation = violation;
+    }
+
+    public SchemaViolation getViolation() {
+        return violation;
+    }
+}
@@ -0,0 +1,79 @@
+package com.jelly.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tracks the JSON Pointer of the value currently being validated and collects violations.
+ * <p>
+ * The pointer is kept as a stack of segments and only turned into a String once a violation is reported.
+ */
+class ValidationContext {
+    private static final int DEFAULT_STACK_SIZE = 16;
+
+    private String[] names = new String[DEFAULT_STACK_SIZE];
+    private int[] indices = new int[DEFAULT_STACK_SIZE];
+    private int depth;
+
+    private List<SchemaViolation> violations;
+
+    void push(final String name) {
+        grow();
+        names[depth++] = name;
+    }
+
+    void push(final int index) {
+        grow();
+        names[depth] = null;
+        indices[depth++] = index;
+    }
+
+    void pop() {
+        depth--;
+    }
+
+    private void grow() {
+        if(depth < names.length)
+            return;
+        names = Arrays.copyOf(names, names.length * 2);
+        indices = Arrays.copyOf(indices, indices.length * 2);
+    }
+
+    String path() {
+        final StringBuilder path = new StringBuilder();
+        for(int i = 0; i < depth; i++) {
+            path.append('/');
+            if(names[i] == null)
+                path.append(indices[i]);
+            else
+                path.append(names[i].replace("~", "~0").replace("/", "~1"));
+        }
+        return path.toString();
+    }
+
+    void report(final String message) {
+        if(violations == null)
+            violations = new ArrayList<>();
+        violations.add(new SchemaViolation(path(), message));
+    }
+
+    boolean hasViolations() {
+        return violations != null;
+    }
+
+    List<SchemaViolation> violations() {
+        return (violations == null) ? List.of() : violations;
+    }
+
+    /**
+     * Returns a fresh context to evaluate subschemas of combinators like {@code anyOf} without reporting their violations here.
+     */
+    ValidationContext probe() {
+        final ValidationContext probe = new ValidationContext();
+        probe.names = Arrays.copyOf(names, names.length);
+        probe.indices = Arrays.copyOf(indices, indices.length);
+        probe.depth = depth;
+        return probe;
+    }
+}
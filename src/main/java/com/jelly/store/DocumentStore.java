@@ -0,0 +1,297 @@
+package com.jelly.store;
+
+import com.jelly.binary.BinaryJSON;
+import com.jelly.binary.BinaryJSONObject;
+import com.jelly.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only on-disk store of documents, keyed by String.
+ * <p>
+ * Documents are written in the encoding of {@link BinaryJSON} to segment files, an index file records key, segment and offset of every
+ * document written. Reading a document maps its segment into memory and returns a {@link BinaryJSONObject} view of the mapped bytes,
+ * so documents neither occupy the heap nor get decoded until their fields are accessed. The segment being appended to is remapped
+ * in growing steps, documents written since it was last mapped are read into the heap instead.
+ * <p>
+ * Storing a key again appends a new version of the document, the index of the latest one wins. Space of older versions is not reclaimed.
+ * Writes are serialized, reads can happen from any number of threads concurrently and only wait for each other to remap a segment.
+ */
+public final class DocumentStore implements AutoCloseable {
+    public static final long DEFAULT_MAX_SEGMENT_SIZE = 1L << 28;
+
+    private static final String INDEX_FILE = "index.idx";
+    private static final String SEGMENT_FILE_FORMAT = "%05d.seg";
+    private static final int MIN_REMAP_STEP = 1 << 20;
+
+    private record Location(int segment, int offset, int length) { }
+
+    /**
+     * Read side of a segment file, its mapping covers the file as it was when it was last mapped.
+     */
+    private static final class MappedSegment {
+        private final FileChannel channel;
+        private volatile MappedByteBuffer mapped;
+
+        private MappedSegment(final FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final File directory;
+    private final long maxSegmentSize;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final Map<Integer, MappedSegment> mappedSegments = new ConcurrentHashMap<>();
+
+    private final FileChannel indexChannel;
+    private FileChannel segmentChannel;
+    private volatile int segment;
+
+    private volatile boolean closed;
+
+    private DocumentStore(final File directory, final long maxSegmentSize) throws IOException {
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+
+        final File indexFile = new File(directory, INDEX_FILE);
+        if(indexFile.exists())
+            readIndex(indexFile);
+
+        indexChannel = FileChannel.open(indexFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            openSegment(segment);
+        } catch(final IOException e) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    public static DocumentStore open(final File directory) throws IOException {
+        return open(directory, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the store in {@code directory}, creating it if it does not exist yet.
+     *
+     * @param maxSegmentSize size in bytes after which a new segment file is started, a single document can exceed it.
+     */
+    public static DocumentStore open(final File directory, final long maxSegmentSize) throws IOException {
+        if(maxSegmentSize <= 0 || maxSegmentSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("segment size must be between 1 and " + Integer.MAX_VALUE);
+        Files.createDirectories(directory.toPath());
+        return new DocumentStore(directory, maxSegmentSize);
+    }
+
+    /**
+     * Replays the index. The index is cut off at the first entry that is incomplete or refers to bytes missing from its segment,
+     * both are left behind by a crash before the store was flushed, so this and all later entries are dropped.
+     */
+    private void readIndex(final File indexFile) throws IOException {
+        final byte[] entries = Files.readAllBytes(indexFile.toPath());
+        final Map<Integer, Long> segmentSizes = new HashMap<>();
+        int validLength = 0;
+
+        try(final DataInputStream in = new DataInputStream(new ByteArrayInputStream(entries))) {
+            while(in.available() > 0) {
+                final String key = in.readUTF();
+                final Location location = new Location(in.readInt(), in.readInt(), in.readInt());
+                final long segmentSize = segmentSizes.computeIfAbsent(location.segment(), segment -> segmentFile(segment).length());
+                if((long) location.offset() + location.length() > segmentSize)
+                    break;
+
+                index.put(key, location);
+                segment = Math.max(segment, location.segment());
+                validLength = entries.length - in.available();
+            }
+        } catch(final EOFException ignored) {
+            // incomplete last entry
+        }
+
+        if(validLength < entries.length) {
+            try(final FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+    }
+
+    private File segmentFile(final int segment) {
+        return new File(directory, String.format(SEGMENT_FILE_FORMAT, segment));
+    }
+
+    /**
+     * Starts appending to {@code segment}, the previous segment is forced to the storage device as it is not written to anymore.
+     */
+    private void openSegment(final int segment) throws IOException {
+        if(segmentChannel != null) {
+            segmentChannel.force(false);
+            segmentChannel.close();
+        }
+
+        this.segment = segment;
+        segmentChannel = FileChannel.open(segmentFile(segment).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Stores {@code document} under {@code key}, replacing the document previously stored under it.
+     *
+     * @param key key of the document, at most 65535 bytes in modified UTF-8.
+     */
+    public synchronized void put(final String key, final JSONObject document) throws IOException {
+        Objects.requireNonNull(key);
+        ensureOpen();
+
+        final ByteBuffer encoded = ByteBuffer.wrap(BinaryJSON.encode(Objects.requireNonNull(document)));
+        if(segmentChannel.size() > 0 && segmentChannel.size() + encoded.remaining() > maxSegmentSize)
+            openSegment(segment + 1);
+        if(segmentChannel.size() + encoded.remaining() > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("document of " + encoded.remaining() + " bytes exceeds the maximum segment size");
+
+        final Location location = new Location(segment, (int) segmentChannel.size(), encoded.remaining());
+        while(encoded.hasRemaining())
+            segmentChannel.write(encoded);
+
+        final ByteArrayOutputStream entry = new ByteArrayOutputStream();
+        final DataOutputStream entryOut = new DataOutputStream(entry);
+        entryOut.writeUTF(key);
+        entryOut.writeInt(location.segment());
+        entryOut.writeInt(location.offset());
+        entryOut.writeInt(location.length());
+
+        final ByteBuffer indexEntry = ByteBuffer.wrap(entry.toByteArray());
+        while(indexEntry.hasRemaining())
+            indexChannel.write(indexEntry);
+
+        index.put(key, location);
+    }
+
+    /**
+     * Returns a lazy view of the document stored under {@code key}.
+     *
+     * @return the view or {@code null} if no document is stored under {@code key}.
+     */
+    public BinaryJSONObject get(final String key) throws IOException {
+        final Location location = index.get(key);
+        if(location == null)
+            return null;
+
+        return BinaryJSON.view(read(location));
+    }
+
+    /**
+     * Returns the bytes of the document at {@code location}, sliced from the mapping of its segment if it covers them.
+     * <p>
+     * Otherwise the segment is remapped, unless it is still being appended to and has grown by less than the size of its mapping,
+     * then the document is read into the heap, so a segment growing by small documents is not remapped after every one of them.
+     */
+    private ByteBuffer read(final Location location) throws IOException {
+        ensureOpen();
+        final MappedSegment mappedSegment = mappedSegment(location.segment());
+        final int end = location.offset() + location.length();
+
+        MappedByteBuffer mapped = mappedSegment.mapped;
+        if(mapped == null || mapped.capacity() < end) {
+            synchronized(mappedSegment) {
+                mapped = mappedSegment.mapped;
+                if(mapped == null || mapped.capacity() < end) {
+                    final long size = mappedSegment.channel.size();
+                    final long step = Math.max((mapped == null) ? 0 : mapped.capacity(), MIN_REMAP_STEP);
+                    if(location.segment() == segment && mapped != null && size < mapped.capacity() + step)
+                        return readDirectly(mappedSegment.channel, location);
+
+                    mapped = mappedSegment.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    mappedSegment.mapped = mapped;
+                }
+            }
+        }
+        return mapped.slice(location.offset(), location.length());
+    }
+
+    private static ByteBuffer readDirectly(final FileChannel channel, final Location location) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(location.length());
+        while(buffer.hasRemaining())
+            if(channel.read(buffer, location.offset() + buffer.position()) < 0)
+                throw new EOFException("segment " + location.segment() + " ends before its document at " + location.offset());
+        return buffer.flip();
+    }
+
+    private MappedSegment mappedSegment(final int segment) throws IOException {
+        final MappedSegment mappedSegment = mappedSegments.get(segment);
+        if(mappedSegment != null)
+            return mappedSegment;
+
+        synchronized(mappedSegments) {
+            ensureOpen();
+            MappedSegment opened = mappedSegments.get(segment);
+            if(opened == null) {
+                opened = new MappedSegment(FileChannel.open(segmentFile(segment).toPath(), StandardOpenOption.READ));
+                mappedSegments.put(segment, opened);
+            }
+            return opened;
+        }
+    }
+
+    public boolean contains(final String key) {
+        return index.containsKey(key);
+    }
+
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Forces all documents stored so far to the storage device, the segment before the index so the index never refers to lost bytes.
+     */
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        segmentChannel.force(false);
+        indexChannel.force(false);
+    }
+
+    private void ensureOpen() {
+        if(closed)
+            throw new IllegalStateException("store has been closed");
+    }
+
+    /**
+     * Closes the files of this store. Views returned before stay readable until their mappings are garbage collected.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(closed)
+            return;
+
+        closed = true;
+        try {
+            segmentChannel.close();
+        } finally {
+            indexChannel.close();
+            synchronized(mappedSegments) {
+                for(final MappedSegment mappedSegment : mappedSegments.values())
+                    mappedSegment.channel.close();
+                mappedSegments.clear();
+            }
+        }
+    }
+}
@@ -1,26 +1,85 @@
 package com.jelly.util;
 
+import java.io.IOException;
+
+/**
+ * Exception thrown when the source to be parsed is malformed.
+ * <p>
+ * Exceptions created through {@link #ParsingException(String, long, SourceLocator, boolean)} only record the offset of the error.
+ * Line, column and the line snippet are derived from the source the first time one of them is requested,
+ * so rejecting malformed input stays cheap as long as nobody looks at the details.
+ */
 public class ParsingException extends RuntimeException {
-    private final String line;
-    private final int lineNumber;
-    private final int column;
+    private final String reason;
+    private final long offset;
+    private final SourceLocator locator;
+    private SourceLocation location;
 
     public ParsingException(final String msg, final String line, final int lineNumber, final int column) {
-        super(msg + " at " + lineNumber + ":" + column + " \"" + line + "\"");
-        this.line = line;
-        this.lineNumber = lineNumber;
-        this.column = column;
+        super(msg);
+        this.reason = msg;
+        this.offset = -1;
+        this.locator = SourceLocator.NONE;
+        this.location = new SourceLocation(lineNumber, column, line);
+    }
+
+    /**
+     * Creates an exception whose location is only derived on demand.
+     *
+     * @param msg description of the error.
+     * @param offset 0-based character offset of the error in the source.
+     * @param locator locator of the source the error occurred in.
+     * @param writableStackTrace whether the stack trace should be filled in, which is the most expensive part of creating an exception.
+     */
+    public ParsingException(final String msg, final long offset, final SourceLocator locator, final boolean writableStackTrace) {
+        super(msg, null, false, writableStackTrace);
+        this.reason = msg;
+        this.offset = offset;
+        this.locator = locator;
+    }
+
+    private SourceLocation location() {
+        if(location == null) {
+            try {
+                location = locator.locate(offset);
+            } catch(final IOException e) {
+                location = SourceLocation.UNKNOWN;
+            }
+        }
+        return location;
+    }
+
+    /**
+     * Returns the description of the error without its location.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Returns the 0-based character offset of the error in the source.
+     *
+     * @return the offset of the error or {@code -1} if it is unknown.
+     */
+    public long getOffset() {
+        return offset;
     }
 
     public String getLine() {
-        return line;
+        return location().line();
     }
 
     public int getColumn() {
-        return column;
+        return location().column();
     }
 
     public int getLineNumber() {
-        return lineNumber;
+        return location().lineNumber();
+    }
+
+    @Override
+    public String getMessage() {
+        final SourceLocation location = location();
+        return reason + " at " + location.lineNumber() + ":" + location.column() + " \"" + location.line() + "\"";
     }
 }
@@ -0,0 +1,12 @@
+package com.jelly.util;
+
+/**
+ * Human-readable position inside a source.
+ *
+ * @param lineNumber 1-based number of the line.
+ * @param column 1-based column inside the line.
+ * @param line snippet of the line around the column, without line separators.
+ */
+public record SourceLocation(int lineNumber, int column, String line) {
+    public static final SourceLocation UNKNOWN = new SourceLocation(-1, -1, "");
+}
@@ -0,0 +1,47 @@
+package com.jelly.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Derives a {@link SourceLocation} from a character offset on demand.
+ * <p>
+ * Locating usually means scanning the source from its start, so it is only done once somebody actually asks for a line or column.
+ */
+@FunctionalInterface
+public interface SourceLocator {
+    SourceLocator NONE = offset -> SourceLocation.UNKNOWN;
+
+    /**
+     * Locates the character at {@code offset}.
+     *
+     * @param offset 0-based character offset into the source.
+     * @return the location of the character.
+     */
+    SourceLocation locate(long offset) throws IOException;
+
+    static SourceLocator of(final CharSequence source) {
+        return offset -> SourceLocators.locate(source, offset);
+    }
+
+    static SourceLocator of(final File path) {
+        return offset -> SourceLocators.locate(path, offset);
+    }
+
+    /**
+     * Locates offsets into the decompressed contents of the gzip file at {@code path}, decompressing it from its start each time.
+     */
+    static SourceLocator ofGzip(final File path) {
+        return offset -> SourceLocators.locate(new GZIPInputStream(new FileInputStream(path)), offset);
+    }
+
+    /**
+     * Locates offsets into the decompressed contents of the zlib-wrapped deflate file at {@code path}.
+     */
+    static SourceLocator ofDeflate(final File path) {
+        return offset -> SourceLocators.locate(new InflaterInputStream(new FileInputStream(path)), offset);
+    }
+}
@@ -0,0 +1,79 @@
+package com.jelly.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+final class SourceLocators {
+    /**
+     * Maximum number of characters of a line kept on each side of the located column, so that minified single-line documents don't end up in exception messages.
+     */
+    static final int SNIPPET_RADIUS = 60;
+
+    private SourceLocators() { }
+
+    static SourceLocation locate(final CharSequence source, final long offset) {
+        final int target = (int) Math.min(Math.max(offset, 0), source.length());
+
+        int lineNumber = 1;
+        int lineStart = 0;
+        for(int i = 0; i < target; i++) {
+            if(source.charAt(i) == '\n') {
+                lineNumber++;
+                lineStart = i+1;
+            }
+        }
+
+        final int snippetStart = Math.max(lineStart, target - SNIPPET_RADIUS);
+        int snippetEnd = snippetStart;
+        while(snippetEnd < source.length() && snippetEnd < target + SNIPPET_RADIUS && source.charAt(snippetEnd) != '\n')
+            snippetEnd++;
+        if(snippetEnd > snippetStart && source.charAt(snippetEnd-1) == '\r')
+            snippetEnd--;
+
+        return new SourceLocation(lineNumber, target - lineStart + 1, source.subSequence(snippetStart, snippetEnd).toString());
+    }
+
+    static SourceLocation locate(final File path, final long offset) throws IOException {
+        return locate(new FileInputStream(path), offset);
+    }
+
+    /**
+     * Locates {@code offset} in the bytes read from {@code source}, which is closed afterwards.
+     */
+    static SourceLocation locate(final InputStream source, final long offset) throws IOException {
+        try(final InputStream in = new BufferedInputStream(source)) {
+            final char[] window = new char[SNIPPET_RADIUS];
+            int windowSize = 0;
+
+            int lineNumber = 1;
+            long lineStart = 0;
+            long position = 0;
+            int next;
+            while(position < offset && (next = in.read()) != -1) {
+                position++;
+                if(next == '\n') {
+                    lineNumber++;
+                    lineStart = position;
+                    windowSize = 0;
+                } else {
+                    if(windowSize == window.length) {
+                        System.arraycopy(window, 1, window, 0, window.length-1);
+                        windowSize--;
+                    }
+                    window[windowSize++] = (char) next;
+                }
+            }
+
+            final StringBuilder snippet = new StringBuilder(2 * SNIPPET_RADIUS).append(window, 0, windowSize);
+            for(int i = 0; i < SNIPPET_RADIUS && (next = in.read()) != -1 && next != '\n'; i++)
+                snippet.append((char) next);
+            if(!snippet.isEmpty() && snippet.charAt(snippet.length()-1) == '\r')
+                snippet.setLength(snippet.length()-1);
+
+            return new SourceLocation(lineNumber, (int) (position - lineStart + 1), snippet.toString());
+        }
+    }
+}
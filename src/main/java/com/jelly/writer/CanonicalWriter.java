@@ -0,0 +1,291 @@
+package com.jelly.writer;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Serializes values in the canonical form of the JSON Canonicalization Scheme (RFC 8785), for signing and content addressing.
+ * <p>
+ * Fields are sorted by the UTF-16 code units of their names, no whitespace is written, strings only escape what has to be escaped
+ * and numbers are formatted like ECMAScript does. Equal values therefore always serialize to the same bytes, regardless of
+ * field order or whether they are frozen. The UTF-8 bytes are collected in a small buffer and handed to the target,
+ * an OutputStream, a MessageDigest or a 64-bit hash, whenever it is full, the serialized form is never materialized as a whole.
+ * <p>
+ * Floats are written with the shortest digits that identify them as a float, which is what they were parsed from.
+ * The digits are computed here rather than taken from Float.toString, so the canonical form is the same on every JDK.
+ */
+public final class CanonicalWriter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    @FunctionalInterface
+    private interface Sink {
+        void write(byte[] bytes, int length) throws IOException;
+    }
+
+    private final Sink sink;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int size;
+
+    private CanonicalWriter(final Sink sink) {
+        this.sink = sink;
+    }
+
+    public CanonicalWriter(final OutputStream out) {
+        this((bytes, length) -> out.write(bytes, 0, length));
+    }
+
+    public CanonicalWriter(final MessageDigest digest) {
+        this((bytes, length) -> digest.update(bytes, 0, length));
+    }
+
+    /**
+     * Writes the canonical form of {@code value} and hands all of it to the target.
+     *
+     * @throws IllegalArgumentException if {@code value} is not a valid JSON value or contains a String with an unpaired surrogate.
+     */
+    public void write(final Object value) throws IOException {
+        writeValue(value);
+        flush();
+    }
+
+    public static byte[] toBytes(final Object value) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            new CanonicalWriter(out).write(value);
+        } catch(final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Feeds the canonical form of {@code value} to {@code digest} and completes it.
+     *
+     * @return the digest of the canonical form.
+     */
+    public static byte[] digest(final Object value, final MessageDigest digest) {
+        try {
+            new CanonicalWriter(digest).write(value);
+        } catch(final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return digest.digest();
+    }
+
+    public static byte[] sha256(final Object value) {
+        try {
+            return digest(value, MessageDigest.getInstance("SHA-256"));
+        } catch(final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns the 64-bit FNV-1a hash of the canonical form of {@code value}, a cheap key for deduplication that is not collision resistant.
+     */
+    public static long hash(final Object value) {
+        final long[] hash = {FNV_OFFSET_BASIS};
+        try {
+            new CanonicalWriter((bytes, length) -> {
+                long h = hash[0];
+                for(int i = 0; i < length; i++)
+                    h = (h ^ (bytes[i] & 0xFF)) * FNV_PRIME;
+                hash[0] = h;
+            }).write(value);
+        } catch(final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hash[0];
+    }
+
+    private void writeValue(final Object value) throws IOException {
+        if(value == null)
+            writeAscii("null");
+        else if(value instanceof final Boolean booleanValue)
+            writeAscii(booleanValue ? "true" : "false");
+        else if(value instanceof final Integer integerValue)
+            writeAscii(Integer.toString(integerValue));
+        else if(value instanceof final Float floatValue)
+            writeFloat(floatValue);
+        else if(value instanceof final String stringValue)
+            writeString(stringValue);
+        else if(value instanceof final JSONObject jsonObject)
+            writeJSONObject(jsonObject);
+        else if(value instanceof final JSONArray jsonArray)
+            writeJSONArray(jsonArray);
+        else
+            throw new IllegalArgumentException("invalid type " + value.getClass().getSimpleName() + " for JSON value");
+    }
+
+    private void writeJSONObject(final JSONObject jsonObject) throws IOException {
+        final String[] fieldNames = jsonObject.fieldNames().toArray(new String[0]);
+        Arrays.sort(fieldNames);
+
+        writeByte('{');
+        for(int i = 0; i < fieldNames.length; i++) {
+            if(i > 0)
+                writeByte(',');
+            writeString(fieldNames[i]);
+            writeByte(':');
+            writeValue(jsonObject.get(fieldNames[i]));
+        }
+        writeByte('}');
+    }
+
+    private void writeJSONArray(final JSONArray jsonArray) throws IOException {
+        writeByte('[');
+        for(int i = 0; i < jsonArray.size(); i++) {
+            if(i > 0)
+                writeByte(',');
+            writeValue(jsonArray.get(i));
+        }
+        writeByte(']');
+    }
+
+    /**
+     * Formats a number like ECMAScript's Number.prototype.toString, plain decimals between 1e-6 and 1e21 and exponential notation otherwise.
+     */
+    private void writeFloat(final float value) throws IOException {
+        if(Float.isNaN(value) || Float.isInfinite(value))
+            throw new IllegalArgumentException(value + " is not a valid JSON number");
+        if(value == 0) {
+            writeByte('0');
+            return;
+        }
+
+        final BigDecimal decimal = shortestDecimal(Math.abs(value));
+        final String digits = decimal.unscaledValue().toString();
+        final int k = digits.length();
+        final int n = k - decimal.scale();
+
+        if(value < 0)
+            writeByte('-');
+
+        if(k <= n && n <= 21) {
+            writeAscii(digits);
+            for(int i = k; i < n; i++)
+                writeByte('0');
+        } else if(0 < n && n <= 21) {
+            writeAscii(digits.substring(0, n));
+            writeByte('.');
+            writeAscii(digits.substring(n));
+        } else if(-6 < n && n <= 0) {
+            writeAscii("0.");
+            for(int i = n; i < 0; i++)
+                writeByte('0');
+            writeAscii(digits);
+        } else {
+            writeByte(digits.charAt(0));
+            if(k > 1) {
+                writeByte('.');
+                writeAscii(digits.substring(1));
+            }
+            writeByte('e');
+            writeByte((n - 1 < 0) ? '-' : '+');
+            writeAscii(Integer.toString(Math.abs(n - 1)));
+        }
+    }
+
+    /**
+     * Returns the decimal with the fewest significant digits that parses back to {@code value}, the closest one if there are several.
+     * Float.toString is not used, it only returns the shortest digits from JDK 19 on, which would make the canonical form depend on the runtime.
+     */
+    private static BigDecimal shortestDecimal(final float value) {
+        final BigDecimal exact = new BigDecimal(value);
+        for(int precision = 1; ; precision++) {
+            final BigDecimal nearest = exact.round(new MathContext(precision, RoundingMode.HALF_EVEN));
+            if(roundTrips(nearest, value))
+                return nearest.stripTrailingZeros();
+
+            // the interval parsing back to value is not symmetric at powers of two, the neighbour on the other side may still lie inside of it
+            final RoundingMode other = (nearest.compareTo(exact) < 0) ? RoundingMode.CEILING : RoundingMode.FLOOR;
+            final BigDecimal neighbour = exact.round(new MathContext(precision, other));
+            if(roundTrips(neighbour, value))
+                return neighbour.stripTrailingZeros();
+        }
+    }
+
+    private static boolean roundTrips(final BigDecimal decimal, final float value) {
+        return Float.parseFloat(decimal.toString()) == value;
+    }
+
+    private void writeString(final String value) throws IOException {
+        writeByte('"');
+        for(int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if(c >= 0x20 && c < 0x80 && c != '"' && c != '\\')
+                writeByte(c);
+            else if(c < 0x80)
+                writeEscaped(c);
+            else if(c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else if(!Character.isSurrogate(c)) {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            } else {
+                if(!Character.isHighSurrogate(c) || i + 1 == value.length() || !Character.isLowSurrogate(value.charAt(i + 1)))
+                    throw new IllegalArgumentException("unpaired surrogate at index " + i + " of a String");
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeByte(0xF0 | (codePoint >> 18));
+                writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeByte(0x80 | (codePoint & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeEscaped(final char c) throws IOException {
+        writeByte('\\');
+        switch(c) {
+            case '"' -> writeByte('"');
+            case '\\' -> writeByte('\\');
+            case '\b' -> writeByte('b');
+            case '\f' -> writeByte('f');
+            case '\n' -> writeByte('n');
+            case '\r' -> writeByte('r');
+            case '\t' -> writeByte('t');
+            default -> {
+                writeAscii("u00");
+                writeByte(HEX[c >> 4]);
+                writeByte(HEX[c & 0xF]);
+            }
+        }
+    }
+
+    private void writeAscii(final String ascii) throws IOException {
+        for(int i = 0; i < ascii.length(); i++)
+            writeByte(ascii.charAt(i));
+    }
+
+    private void writeByte(final int b) throws IOException {
+        if(size == buffer.length)
+            flush();
+        buffer[size++] = (byte) b;
+    }
+
+    private void flush() throws IOException {
+        if(size == 0)
+            return;
+        sink.write(buffer, size);
+        size = 0;
+    }
+}
@@ -0,0 +1,227 @@
+package com.jelly.writer;
+
+import com.jelly.json.JSONArray;
+import com.jelly.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+public class JSONWriter implements AutoCloseable {
+    private static final int DEFAULT_STACK_SIZE = 32;
+    private static final int STACK_SIZE_FACTOR = 2;
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_OBJECT = 2;
+    private static final byte NONEMPTY_OBJECT = 3;
+    private static final byte DANGLING_NAME = 4;
+    private static final byte EMPTY_ARRAY = 5;
+    private static final byte NONEMPTY_ARRAY = 6;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Writer out;
+    private boolean closed;
+
+    private byte[] stack = new byte[DEFAULT_STACK_SIZE];
+    private int stackSize = 1;
+
+    public JSONWriter(final Writer out) {
+        this.out = out;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    private void push(final byte context) {
+        if(stackSize == stack.length)
+            stack = Arrays.copyOf(stack, stack.length * STACK_SIZE_FACTOR);
+        stack[stackSize++] = context;
+    }
+
+    private byte peek() {
+        return stack[stackSize-1];
+    }
+
+    private void replaceTop(final byte context) {
+        stack[stackSize-1] = context;
+    }
+
+    private void beforeValue() throws IOException {
+        switch(peek()) {
+            case EMPTY_DOCUMENT -> replaceTop(NONEMPTY_DOCUMENT);
+            case NONEMPTY_DOCUMENT -> out.write('\n');
+            case EMPTY_ARRAY -> replaceTop(NONEMPTY_ARRAY);
+            case NONEMPTY_ARRAY -> out.write(',');
+            case DANGLING_NAME -> replaceTop(NONEMPTY_OBJECT);
+            default -> throw new IllegalStateException("expected a name before a value inside an object");
+        }
+    }
+
+    private JSONWriter open(final byte context, final char bracket) throws IOException {
+        beforeValue();
+        push(context);
+        out.write(bracket);
+        return this;
+    }
+
+    private JSONWriter close(final byte empty, final byte nonempty, final char bracket) throws IOException {
+        final byte context = peek();
+        if(context != empty && context != nonempty)
+            throw new IllegalStateException("cannot close '" + bracket + "' here");
+
+        stackSize--;
+        out.write(bracket);
+        return this;
+    }
+
+    public JSONWriter beginObject() throws IOException {
+        return open(EMPTY_OBJECT, '{');
+    }
+
+    public JSONWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    public JSONWriter beginArray() throws IOException {
+        return open(EMPTY_ARRAY, '[');
+    }
+
+    public JSONWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    public JSONWriter name(final String name) throws IOException {
+        final byte context = peek();
+        if(context == NONEMPTY_OBJECT)
+            out.write(',');
+        else if(context != EMPTY_OBJECT)
+            throw new IllegalStateException("names are only allowed inside an object");
+
+        replaceTop(DANGLING_NAME);
+        writeString(name);
+        out.write(':');
+        return this;
+    }
+
+    public JSONWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    public JSONWriter value(final boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JSONWriter value(final int value) throws IOException {
+        beforeValue();
+        out.write(Integer.toString(value));
+        return this;
+    }
+
+    public JSONWriter value(final float value) throws IOException {
+        if(Float.isNaN(value) || Float.isInfinite(value))
+            throw new IllegalArgumentException(value + " is not a valid JSON number");
+
+        beforeValue();
+        out.write(Float.toString(value));
+        return this;
+    }
+
+    public JSONWriter value(final String value) throws IOException {
+        if(value == null)
+            return nullValue();
+
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JSONWriter value(final JSONObject value) throws IOException {
+        if(value == null)
+            return nullValue();
+
+        beginObject();
+        for(final String fieldName : value.fieldNames()) {
+            name(fieldName);
+            value(value.get(fieldName));
+        }
+        return endObject();
+    }
+
+    public JSONWriter value(final JSONArray value) throws IOException {
+        if(value == null)
+            return nullValue();
+
+        beginArray();
+        for(int i = 0; i < value.size(); i++)
+            value(value.get(i));
+        return endArray();
+    }
+
+    public JSONWriter value(final Object value) throws IOException {
+        if(value == null)
+            return nullValue();
+        else if(value instanceof final Boolean booleanValue)
+            return value((boolean) booleanValue);
+        else if(value instanceof final Integer integerValue)
+            return value((int) integerValue);
+        else if(value instanceof final Float floatValue)
+            return value((float) floatValue);
+        else if(value instanceof final String stringValue)
+            return value(stringValue);
+        else if(value instanceof final JSONObject jsonObject)
+            return value(jsonObject);
+        else if(value instanceof final JSONArray jsonArray)
+            return value(jsonArray);
+        else
+            throw new IllegalArgumentException("invalid type " + value.getClass().getSimpleName() + " for JSON value");
+    }
+
+    private void writeString(final String value) throws IOException {
+        out.write('"');
+
+        int start = 0;
+        for(int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if(c >= 0x20 && c != '"' && c != '\\')
+                continue;
+
+            out.write(value, start, i - start);
+            start = i+1;
+            switch(c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\b' -> out.write("\\b");
+                case '\f' -> out.write("\\f");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    out.write("\\u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+                }
+            }
+        }
+        out.write(value, start, value.length() - start);
+
+        out.write('"');
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed)
+            return;
+
+        out.close();
+        out = null;
+        closed = true;
+    }
+}
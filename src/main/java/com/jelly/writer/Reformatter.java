@@ -0,0 +1,331 @@
+package com.jelly.writer;
+
+import com.jelly.lexer.Lexer;
+import com.jelly.lexer.Token;
+import com.jelly.lexer.TokenType;
+import com.jelly.scanner.Scanner;
+import com.jelly.util.ParsingException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import static com.jelly.lexer.TokenType.*;
+
+/**
+ * Minifies or re-indents documents token by token, straight from the {@link Lexer} to the output, without building a tree.
+ * <p>
+ * Whitespace and line breaks of the source are dropped and replaced by the requested layout, every other token is copied
+ * verbatim, numbers keep their original literal. Memory use only depends on the nesting depth, not on the size of the document.
+ * The token order is still checked, so malformed documents are rejected with a {@link ParsingException} instead of being reformatted.
+ * Several top-level values, as in newline-delimited JSON, are written one per line.
+ * <p>
+ * Characters handed out by scanners over files and streams are the bytes they were read from,
+ * so {@link #minify(Scanner, OutputStream)} and {@link #prettyPrint(Scanner, OutputStream, int)} copy the encoding of the source unchanged.
+ * Characters of scanners over Strings are written to the OutputStream encoded as UTF-8.
+ */
+public final class Reformatter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int DEFAULT_STACK_SIZE = 32;
+    private static final int STACK_SIZE_FACTOR = 2;
+
+    private static final byte OBJECT = 0;
+    private static final byte ARRAY = 1;
+
+    private static final byte VALUE = 0;
+    private static final byte VALUE_OR_END = 1;
+    private static final byte NAME = 2;
+    private static final byte NAME_OR_END = 3;
+    private static final byte COLON_NEXT = 4;
+    private static final byte SEPARATOR_OR_END = 5;
+
+    @FunctionalInterface
+    private interface Sink {
+        void write(char[] chars, int length) throws IOException;
+    }
+
+    /**
+     * Encodes the characters of scanners over Strings as UTF-8, a surrogate pair may be split between two calls.
+     */
+    private static final class Utf8Sink implements Sink {
+        private final OutputStream out;
+        private final byte[] bytes = new byte[3 * BUFFER_SIZE];
+        private char highSurrogate;
+
+        private Utf8Sink(final OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(final char[] chars, final int length) throws IOException {
+            int size = 0;
+            for(int i = 0; i < length; i++) {
+                final char c = chars[i];
+                if(highSurrogate != 0) {
+                    if(!Character.isLowSurrogate(c))
+                        throw new IllegalArgumentException("unpaired surrogate in the source");
+                    final int codePoint = Character.toCodePoint(highSurrogate, c);
+                    highSurrogate = 0;
+                    bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if(c < 0x80)
+                    bytes[size++] = (byte) c;
+                else if(c < 0x800) {
+                    bytes[size++] = (byte) (0xC0 | (c >> 6));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if(!Character.isSurrogate(c)) {
+                    bytes[size++] = (byte) (0xE0 | (c >> 12));
+                    bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if(Character.isHighSurrogate(c))
+                    highSurrogate = c;
+                else
+                    throw new IllegalArgumentException("unpaired surrogate in the source");
+            }
+            out.write(bytes, 0, size);
+        }
+    }
+
+    private final Lexer lexer;
+    private final Sink sink;
+    private final int indent;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int size;
+
+    private byte[] stack = new byte[DEFAULT_STACK_SIZE];
+    private int depth;
+    private byte expected = VALUE;
+    private boolean documentWritten;
+
+    private Reformatter(final Lexer lexer, final Sink sink, final int indent) {
+        this.lexer = lexer;
+        this.sink = sink;
+        this.indent = indent;
+    }
+
+    public static void minify(final Scanner source, final OutputStream out) throws IOException {
+        reformat(source, out, -1);
+    }
+
+    /**
+     * Writes the documents in {@code source} to {@code out}, one field or element per line.
+     *
+     * @param indent number of spaces per nesting level.
+     */
+    public static void prettyPrint(final Scanner source, final OutputStream out, final int indent) throws IOException {
+        if(indent < 0)
+            throw new IllegalArgumentException("indent must not be negative");
+        reformat(source, out, indent);
+    }
+
+    public static String minify(final String source) {
+        return reformat(source, -1);
+    }
+
+    public static String prettyPrint(final String source, final int indent) {
+        if(indent < 0)
+            throw new IllegalArgumentException("indent must not be negative");
+        return reformat(source, indent);
+    }
+
+    private static void reformat(final Scanner source, final OutputStream out, final int indent) throws IOException {
+        final Sink sink;
+        if(source.handsOutBytes()) {
+            final byte[] bytes = new byte[BUFFER_SIZE];
+            sink = (chars, length) -> {
+                for(int i = 0; i < length; i++)
+                    bytes[i] = (byte) chars[i];
+                out.write(bytes, 0, length);
+            };
+        } else
+            sink = new Utf8Sink(out);
+
+        try(final Lexer lexer = new Lexer(source)) {
+            new Reformatter(lexer, sink, indent).run();
+        }
+        out.flush();
+    }
+
+    private static String reformat(final String source, final int indent) {
+        final StringBuilder builder = new StringBuilder(source.length());
+        try(final Lexer lexer = new Lexer(new Scanner(source))) {
+            new Reformatter(lexer, (chars, length) -> builder.append(chars, 0, length), indent).run();
+        } catch(final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    private void run() throws IOException {
+        while(lexer.hasNext()) {
+            final Token token = lexer.next();
+            final TokenType type = token.getType();
+            if(type != WHITE_SPACE && type != NEWLINE && type != CARRIAGE_RETURN)
+                process(token);
+            lexer.remove();
+        }
+
+        if(depth > 0 || expected != VALUE)
+            throw new UnexpectedEndException();
+        flush();
+    }
+
+    private void process(final Token token) throws IOException {
+        final TokenType type = token.getType();
+        switch(expected) {
+            case VALUE, VALUE_OR_END -> {
+                if(expected == VALUE_OR_END) {
+                    if(type == RIGHT_SQUARE_BRACKET) {
+                        write(']');
+                        endValue();
+                        return;
+                    }
+                    newLine(depth);
+                }
+                if(depth == 0 && documentWritten)
+                    write('\n');
+                writeValue(token);
+            }
+            case NAME, NAME_OR_END -> {
+                if(expected == NAME_OR_END) {
+                    if(type == RIGHT_CURLY_BRACE) {
+                        write('}');
+                        endValue();
+                        return;
+                    }
+                    newLine(depth);
+                }
+                if(type != STRING)
+                    throw new UnexpectedTokenException(token, "name");
+                writeString(token);
+                expected = COLON_NEXT;
+            }
+            case COLON_NEXT -> {
+                if(type != COLON)
+                    throw new UnexpectedTokenException(token, ":");
+                write(':');
+                if(indent >= 0)
+                    write(' ');
+                expected = VALUE;
+            }
+            case SEPARATOR_OR_END -> {
+                final byte context = stack[depth-1];
+                if(type == SEPARATOR) {
+                    write(',');
+                    newLine(depth);
+                    expected = (context == OBJECT) ? NAME : VALUE;
+                } else if(type == (context == OBJECT ? RIGHT_CURLY_BRACE : RIGHT_SQUARE_BRACKET)) {
+                    newLine(depth-1);
+                    write(context == OBJECT ? '}' : ']');
+                    endValue();
+                } else
+                    throw new UnexpectedTokenException(token, (context == OBJECT) ? ", or }" : ", or ]");
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private void writeValue(final Token token) throws IOException {
+        switch(token.getType()) {
+            case LEFT_CURLY_BRACE -> {
+                write('{');
+                push(OBJECT);
+                expected = NAME_OR_END;
+            }
+            case LEFT_SQUARE_BRACKET -> {
+                write('[');
+                push(ARRAY);
+                expected = VALUE_OR_END;
+            }
+            case STRING -> {
+                writeString(token);
+                afterValue();
+            }
+            case INTEGER, FLOAT -> {
+                write(token.getLiteral());
+                afterValue();
+            }
+            case TRUE -> {
+                write("true");
+                afterValue();
+            }
+            case FALSE -> {
+                write("false");
+                afterValue();
+            }
+            case NULL -> {
+                write("null");
+                afterValue();
+            }
+            default -> throw new UnexpectedTokenException(token, "value");
+        }
+    }
+
+    private void push(final byte context) {
+        if(depth == stack.length)
+            stack = Arrays.copyOf(stack, stack.length * STACK_SIZE_FACTOR);
+        stack[depth++] = context;
+    }
+
+    private void endValue() {
+        depth--;
+        afterValue();
+    }
+
+    private void afterValue() {
+        if(depth == 0) {
+            documentWritten = true;
+            expected = VALUE;
+        } else
+            expected = SEPARATOR_OR_END;
+    }
+
+    private void newLine(final int level) throws IOException {
+        if(indent < 0)
+            return;
+        write('\n');
+        for(int i = level * indent; i > 0; i--)
+            write(' ');
+    }
+
+    private void writeString(final Token token) throws IOException {
+        write('"');
+        write((String) token.getValue());
+        write('"');
+    }
+
+    private void write(final String text) throws IOException {
+        for(int i = 0; i < text.length(); i++)
+            write(text.charAt(i));
+    }
+
+    private void write(final char c) throws IOException {
+        if(size == buffer.length)
+            flush();
+        buffer[size++] = c;
+    }
+
+    private void flush() throws IOException {
+        if(size == 0)
+            return;
+        sink.write(buffer, size);
+        size = 0;
+    }
+
+    class UnexpectedTokenException extends ParsingException {
+        UnexpectedTokenException(final Token unexpected, final String expected) {
+            super("Unexpected \"" + unexpected.getValue() + "\" expected \"" + expected + "\"", lexer.getTokenStart(), lexer.getLocator(), lexer.hasStackTraces());
+        }
+    }
+
+    class UnexpectedEndException extends ParsingException {
+        UnexpectedEndException() {
+            super("Unexpected end of input", lexer.getPosition(), lexer.getLocator(), lexer.hasStackTraces());
+        }
+    }
+}